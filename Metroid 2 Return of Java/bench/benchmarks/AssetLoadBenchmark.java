@@ -0,0 +1,151 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import javax.swing.ImageIcon;
+
+import com.AssetCache;
+import com.SpriteAtlas;
+import com.TileImageLoader;
+
+import enums.SamusState;
+
+/**
+ * Times a cold start of a few hundred images, once decoded one after another
+ * with ImageIcon the way images used to be loaded, once one after another
+ * with ImageIO through an AssetCache and once in parallel with
+ * AssetCache.preload on a loader pool. Every load reads its own copies of the
+ * game's images so no decoder cache is warm. Run from the project directory
+ * so the images resolve.
+ */
+public class AssetLoadBenchmark
+{
+	private static final int SCALER = 5;
+	private static final int ASSET_COUNT = 300;
+	private static final int ROUNDS = 3;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		List<String> gamePathNames = SpriteAtlas.collect(SamusState.getPathNamesArray());
+		gamePathNames.addAll(SpriteAtlas.collect(TileImageLoader.getPathNames()));
+		gamePathNames.remove("");
+		
+		Path directory = Files.createTempDirectory("assets");
+		ExecutorService loaderPool = AssetCache.newLoaderPool();
+		
+		System.out.println(
+				"assets  threads  ms (ImageIcon)  ms (ImageIO)  ms (parallel)");
+		
+		try
+		{
+			for (int round = 0; round < ROUNDS; round++)
+			{
+				List<String> iconPathNames = copy(gamePathNames, directory, "icon" + round);
+				List<String> sequentialPathNames = copy(gamePathNames, directory, "sequential" + round);
+				List<String> parallelPathNames = copy(gamePathNames, directory, "parallel" + round);
+				
+				long start = System.nanoTime();
+				loadIcons(iconPathNames);
+				long iconTime = System.nanoTime() - start;
+				
+				start = System.nanoTime();
+				AssetCache sequentialCache = new AssetCache(AssetCache.DEFAULT_BUDGET);
+				
+				for (String pathName : sequentialPathNames)
+				{
+					sequentialCache.acquire(pathName, SCALER);
+				}
+				
+				long sequentialTime = System.nanoTime() - start;
+				
+				start = System.nanoTime();
+				AssetCache parallelCache = new AssetCache(AssetCache.DEFAULT_BUDGET);
+				parallelCache.preload(parallelPathNames, SCALER, loaderPool).join();
+				long parallelTime = System.nanoTime() - start;
+				
+				if (sequentialCache.getEntryCount() != ASSET_COUNT ||
+						parallelCache.getEntryCount() != ASSET_COUNT)
+				{
+					throw new IllegalStateException("Not every image was loaded.");
+				}
+				
+				System.out.printf(
+						"%6d %8d %14.1f %13.1f %14.1f%n",
+						ASSET_COUNT,
+						Runtime.getRuntime().availableProcessors(),
+						iconTime / 1e6,
+						sequentialTime / 1e6,
+						parallelTime / 1e6);
+			}
+		}
+		finally
+		{
+			loaderPool.shutdown();
+			
+			for (File file : directory.toFile().listFiles())
+			{
+				file.delete();
+			}
+			
+			directory.toFile().delete();
+		}
+	}
+	
+	
+	/**
+	 * Copies the game's images over and over until there are ASSET_COUNT
+	 * files.
+	 * @return Path names of the copies.
+	 */
+	private static List<String> copy(
+			List<String> gamePathNames,
+			Path directory,
+			String prefix) throws IOException
+	{
+		List<String> pathNames = new ArrayList<String>();
+		
+		for (int i = 0; i < ASSET_COUNT; i++)
+		{
+			Path copy = directory.resolve(prefix + "_" + i + ".png");
+			Files.copy(new File(gamePathNames.get(i % gamePathNames.size())).toPath(), copy);
+			pathNames.add(copy.toString());
+		}
+		
+		return pathNames;
+	}
+	
+	
+	/**
+	 * Decodes each image with ImageIcon and scales it into its own buffer,
+	 * one after another.
+	 */
+	private static void loadIcons(List<String> pathNames)
+	{
+		for (String pathName : pathNames)
+		{
+			Image rawImage = new ImageIcon(pathName).getImage();
+			int width = rawImage.getWidth(null) * SCALER;
+			int height = rawImage.getHeight(null) * SCALER;
+			BufferedImage image = new BufferedImage(
+					width,
+					height,
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = image.createGraphics();
+			graphics.drawImage(rawImage, 0, 0, width, height, null);
+			graphics.dispose();
+			rawImage.flush();
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import com.CompatibleImages;
+
+import enums.Button;
+import enums.RenderMode;
+import enums.RenderScale;
+import screens.GameScreen;
+import screens.GameScreenDriver;
+
+/**
+ * Times frames of a GameScreen drawn whole against frames where only the
+ * dirty bounds are redrawn, with Samus standing still, walking into a wall
+ * and pacing left and right along the floor so the map scrolls. Also
+ * reports the share of the screen redrawn. Run from the project directory
+ * so the images resolve.
+ */
+public class DirtyRepaintBenchmark
+{
+	private static final int WIDTH = 160;
+	private static final int HEIGHT = 144;
+	private static final int SCALER = 5;
+	private static final long FRAME_TIME = 1_000_000_000L / 60;
+	private static final int WARMUP_FRAMES = 3000;
+	private static final int MEASURED_FRAMES = 6000;
+	/**
+	 * Frames Samus walks each way while pacing, short enough to never reach
+	 * a wall.
+	 */
+	private static final int PACE_FRAMES = 30;
+	
+	
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		System.out.println(
+				"scale    scene      us/frame (full)  us/frame (dirty)  screen redrawn");
+		
+		for (RenderScale renderScale : RenderScale.values())
+		{
+			run(renderScale, "standing", null, false);
+			run(renderScale, "wall", Button.LEFT, false);
+			run(renderScale, "pacing", Button.RIGHT, true);
+		}
+	}
+	
+	
+	/**
+	 * Measures one scene.
+	 * @param button Button to hold at the start, or null to stand still.
+	 * @param isPacing Whether to turn around every PACE_FRAMES frames.
+	 */
+	private static void run(
+			RenderScale renderScale,
+			String scene,
+			Button button,
+			boolean isPacing)
+	{
+		GameScreenDriver fullScreen = createScreen(renderScale, button);
+		GameScreenDriver dirtyScreen = createScreen(renderScale, button);
+		BufferedImage target = CompatibleImages.create(
+				WIDTH * SCALER,
+				HEIGHT * SCALER,
+				Transparency.OPAQUE);
+		Rectangle bounds = new Rectangle();
+		
+		renderFull(fullScreen, target, isPacing, WARMUP_FRAMES);
+		renderDirty(dirtyScreen, target, bounds, isPacing, WARMUP_FRAMES);
+		
+		long start = System.nanoTime();
+		renderFull(fullScreen, target, isPacing, MEASURED_FRAMES);
+		long fullTime = (System.nanoTime() - start) / MEASURED_FRAMES;
+		
+		start = System.nanoTime();
+		long pixels = renderDirty(dirtyScreen, target, bounds, isPacing, MEASURED_FRAMES);
+		long dirtyTime = (System.nanoTime() - start) / MEASURED_FRAMES;
+		
+		System.out.printf(
+				"%-8s %-10s %16.1f %17.1f %14.1f%%%n",
+				renderScale,
+				scene,
+				fullTime / 1e3,
+				dirtyTime / 1e3,
+				100.0 * pixels / ((long) MEASURED_FRAMES * target.getWidth() * target.getHeight()));
+	}
+	
+	
+	/**
+	 * @return A driver for a GameScreen with a button held down, or none if
+	 * null.
+	 */
+	private static GameScreenDriver createScreen(
+			RenderScale renderScale,
+			Button button)
+	{
+		GameScreen screen = new GameScreen(
+				WIDTH,
+				HEIGHT,
+				SCALER,
+				FRAME_TIME,
+				RenderMode.PASSIVE,
+				renderScale);
+		screen.setSize(WIDTH * SCALER, HEIGHT * SCALER);
+		
+		if (button != null)
+		{
+			screen.getInputQueue().record(button, true);
+		}
+		
+		return new GameScreenDriver(screen);
+	}
+	
+	
+	/**
+	 * Simulates and draws every frame whole.
+	 */
+	private static void renderFull(
+			GameScreenDriver screen,
+			BufferedImage target,
+			boolean isPacing,
+			int frames)
+	{
+		Graphics2D graphics = target.createGraphics();
+		
+		for (int i = 0; i < frames; i++)
+		{
+			if (isPacing)
+			{
+				pace(screen.getScreen(), i);
+			}
+			
+			screen.doFrame();
+			graphics.setColor(Color.BLACK);
+			graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+			screen.render(graphics);
+		}
+		
+		graphics.dispose();
+	}
+	
+	
+	/**
+	 * Turns Samus around every PACE_FRAMES frames.
+	 */
+	private static void pace(GameScreen screen, int frame)
+	{
+		if (frame % PACE_FRAMES != 0)
+		{
+			return;
+		}
+		
+		boolean isLeft = frame / PACE_FRAMES % 2 == 0;
+		screen.getInputQueue().record(isLeft ? Button.RIGHT : Button.LEFT, false);
+		screen.getInputQueue().record(isLeft ? Button.LEFT : Button.RIGHT, true);
+	}
+	
+	
+	/**
+	 * Simulates every frame and draws only the parts of it that changed.
+	 * @return Total pixels redrawn.
+	 */
+	private static long renderDirty(
+			GameScreenDriver screen,
+			BufferedImage target,
+			Rectangle bounds,
+			boolean isPacing,
+			int frames)
+	{
+		long pixels = 0;
+		
+		for (int i = 0; i < frames; i++)
+		{
+			if (isPacing)
+			{
+				pace(screen.getScreen(), i);
+			}
+			
+			screen.doFrame();
+			
+			if (!screen.updateDirtyRegion())
+			{
+				continue;
+			}
+			
+			screen.getDirtyBounds(bounds);
+			pixels += (long) bounds.width * bounds.height;
+			
+			Graphics2D graphics = target.createGraphics();
+			graphics.clipRect(bounds.x, bounds.y, bounds.width, bounds.height);
+			graphics.setColor(Color.BLACK);
+			graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+			screen.render(graphics);
+			graphics.dispose();
+		}
+		
+		return pixels;
+	}
+}
@@ -0,0 +1,198 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import com.SpriteAtlas;
+import enums.Button;
+import enums.RenderMode;
+import enums.RenderScale;
+import screens.GameScreen;
+import screens.GameScreenDriver;
+
+/**
+ * Checks that the steady state game loop allocates nothing. Runs the
+ * simulation and drawing of a GameScreen headlessly while Samus paces back
+ * and forth along a corridor much longer than the tile chunk cache holds,
+ * so the map scrolls, chunks are rendered and evicted and whole frames are
+ * redrawn while measuring. Counts the bytes the thread allocates over many
+ * more frames using the per thread allocation counter of the HotSpot
+ * ThreadMXBean, once for each RenderScale. Exits with status 1 if anything
+ * was allocated. Run from the project directory so the images resolve.
+ */
+public class FrameAllocationCheck
+{
+	private static final int WIDTH = 160;
+	private static final int HEIGHT = 144;
+	private static final int SCALER = 5;
+	private static final long FRAME_TIME = 1_000_000_000L / 60;
+	/**
+	 * Frames run before measuring, long enough for the JIT to settle on
+	 * every path of several sweeps along the corridor.
+	 */
+	private static final int WARMUP_FRAMES = 40_000;
+	private static final int MEASURED_FRAMES = 10_000;
+	/**
+	 * Tile columns of the corridor, enough for 30 columns of chunks.
+	 */
+	private static final int CORRIDOR_COLUMNS = 240;
+	/**
+	 * Frames Samus walks each way while pacing, most of the length of the
+	 * corridor without reaching its far wall.
+	 */
+	private static final int PACE_FRAMES = 1_800;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadID = Thread.currentThread().getId();
+		boolean isAllocating = false;
+		File map = MapGenerator.writeCorridorMap(CORRIDOR_COLUMNS);
+		
+		for (RenderScale renderScale : RenderScale.values())
+		{
+			System.out.println(renderScale + ":");
+			isAllocating |= check(threads, threadID, renderScale, map);
+		}
+		
+		if (isAllocating)
+		{
+			System.out.println("FAILED: the frame loop allocates.");
+			System.exit(1);
+		}
+		
+		System.out.println("PASSED: the frame loop allocates nothing.");
+	}
+	
+	
+	/**
+	 * Runs and measures a GameScreen drawing the world at a render scale.
+	 * @return Whether the simulation or drawing allocated anything.
+	 */
+	private static boolean check(
+			com.sun.management.ThreadMXBean threads,
+			long threadID,
+			RenderScale renderScale,
+			File map)
+	{
+		SpriteAtlas atlas = GameScreen.loadAssets(
+				renderScale.getWorldScaler(SCALER),
+				Runnable::run).join();
+		GameScreen screen = new GameScreen(
+				WIDTH,
+				HEIGHT,
+				SCALER,
+				FRAME_TIME,
+				RenderMode.PASSIVE,
+				renderScale,
+				atlas,
+				map);
+		screen.setSize(WIDTH * SCALER, HEIGHT * SCALER);
+		GameScreenDriver driver = new GameScreenDriver(screen);
+		BufferedImage target = new BufferedImage(
+				WIDTH * SCALER,
+				HEIGHT * SCALER,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		Rectangle bounds = new Rectangle();
+		long[] bytes = new long[2];
+		
+		runFrames(
+				driver,
+				graphics,
+				bounds,
+				0,
+				WARMUP_FRAMES,
+				threads,
+				threadID,
+				bytes);
+		
+		bytes[0] = 0;
+		bytes[1] = 0;
+		int startX = screen.getSimulation().getCamera().getX();
+		runFrames(
+				driver,
+				graphics,
+				bounds,
+				WARMUP_FRAMES,
+				MEASURED_FRAMES,
+				threads,
+				threadID,
+				bytes);
+		
+		graphics.dispose();
+		
+		System.out.printf(
+				"Simulation: %d bytes over %d frames%n",
+				bytes[0],
+				MEASURED_FRAMES);
+		System.out.printf(
+				"Drawing:    %d bytes over %d frames%n",
+				bytes[1],
+				MEASURED_FRAMES);
+		
+		if (screen.getSimulation().getCamera().getX() == startX)
+		{
+			System.out.println("The camera did not scroll while measuring.");
+			return true;
+		}
+		
+		return bytes[0] > 0 || bytes[1] > 0;
+	}
+	
+	
+	/**
+	 * Runs both the simulation and drawing of a number of frames, turning
+	 * Samus around every PACE_FRAMES frames, and adds the bytes allocated
+	 * while simulating to the first element of bytes and those allocated
+	 * while drawing to the second.
+	 */
+	private static void runFrames(
+			GameScreenDriver driver,
+			Graphics2D graphics,
+			Rectangle bounds,
+			int firstFrame,
+			int frames,
+			com.sun.management.ThreadMXBean threads,
+			long threadID,
+			long[] bytes)
+	{
+		for (int frame = firstFrame; frame < firstFrame + frames; frame++)
+		{
+			long before = threads.getThreadAllocatedBytes(threadID);
+			
+			if (frame % PACE_FRAMES == 0)
+			{
+				boolean isRight = frame / PACE_FRAMES % 2 == 0;
+				driver.getScreen().getInputQueue().record(
+						isRight ? Button.LEFT : Button.RIGHT,
+						false);
+				driver.getScreen().getInputQueue().record(
+						isRight ? Button.RIGHT : Button.LEFT,
+						true);
+			}
+			
+			driver.doFrame();
+			long simulated = threads.getThreadAllocatedBytes(threadID);
+			
+			if (driver.updateDirtyRegion())
+			{
+				driver.getDirtyBounds(bounds);
+				driver.render(graphics);
+			}
+			
+			long drawn = threads.getThreadAllocatedBytes(threadID);
+			
+			bytes[0] += simulated - before;
+			bytes[1] += drawn - simulated;
+		}
+	}
+}
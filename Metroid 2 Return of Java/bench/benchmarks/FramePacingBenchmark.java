@@ -0,0 +1,161 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.FrameClock;
+
+/**
+ * Measures frame pacing of the old millisecond sleep loop against the fixed
+ * timestep FrameClock. Each loop runs a fake workload with occasional slow
+ * frames, and the moment of every present is recorded. Jitter is how far
+ * each gap between presents strays from a 60fps frame, and drift is how far
+ * simulated time falls behind real time.
+ */
+public class FramePacingBenchmark
+{
+	private static final long FRAME_TIME = 1_000_000_000L / 60;
+	private static final int FRAMES = 600;
+	private static final long WORK_TIME = 4_000_000L;
+	private static final long SLOW_WORK_TIME = 22_000_000L;
+	private static final double SLOW_FRAME_CHANCE = 0.02;
+	
+	
+	public static void main(String[] args) throws InterruptedException
+	{
+		report("sleep loop", runSleepLoop(new Random(1)));
+		report("frame clock", runFrameClock(new Random(1)));
+	}
+	
+	
+	/**
+	 * Runs the loop GameScreen used to have, pacing with
+	 * System.currentTimeMillis and sleeping 2ms after a slow frame.
+	 * @param random Source of slow frames.
+	 * @return Moment of every present followed by the number of simulation
+	 * steps run.
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	private static long[] runSleepLoop(Random random)
+			throws InterruptedException
+	{
+		long frameTime = 1000 / 60;
+		long[] presents = new long[FRAMES + 1];
+		long frameMoment = System.currentTimeMillis();
+		
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			work(random);
+			presents[frame] = System.nanoTime();
+			
+			long sleepTime = frameTime -
+					(System.currentTimeMillis() - frameMoment);
+			
+			if (sleepTime < 0)
+			{
+				sleepTime = 2;
+			}
+			
+			Thread.sleep(sleepTime);
+			frameMoment = System.currentTimeMillis();
+		}
+		
+		presents[FRAMES] = FRAMES;
+		return presents;
+	}
+	
+	
+	/**
+	 * Runs a loop paced by FrameClock, with one unit of work per simulation
+	 * step.
+	 * @param random Source of slow frames.
+	 * @return Moment of every present followed by the number of simulation
+	 * steps run.
+	 * @throws InterruptedException If the thread is interrupted.
+	 */
+	private static long[] runFrameClock(Random random)
+			throws InterruptedException
+	{
+		FrameClock clock = new FrameClock(
+				FRAME_TIME,
+				FrameClock.DEFAULT_MAX_CATCH_UP_STEPS);
+		long[] presents = new long[FRAMES + 1];
+		
+		clock.start();
+		
+		for (int frame = 0; frame < FRAMES; frame++)
+		{
+			int steps = clock.advance();
+			
+			for (int step = 0; step < steps; step++)
+			{
+				work(random);
+			}
+			
+			presents[frame] = System.nanoTime();
+			clock.waitForNextStep();
+		}
+		
+		presents[FRAMES] = clock.getStepCount();
+		return presents;
+	}
+	
+	
+	/**
+	 * Busy waits for the length of a normal or slow frame of game work.
+	 * @param random Source of slow frames.
+	 */
+	private static void work(Random random)
+	{
+		long workTime = random.nextDouble() < SLOW_FRAME_CHANCE ?
+				SLOW_WORK_TIME : WORK_TIME;
+		long end = System.nanoTime() + workTime;
+		
+		while (System.nanoTime() < end)
+		{
+			// Simulated work
+		}
+	}
+	
+	
+	/**
+	 * Prints the jitter and drift of a run.
+	 * @param name Name of the loop.
+	 * @param presents Moment of every present followed by the number of
+	 * simulation steps run.
+	 */
+	private static void report(String name, long[] presents)
+	{
+		double[] jitter = new double[FRAMES - 1];
+		double sum = 0;
+		double sumSquares = 0;
+		
+		for (int i = 1; i < FRAMES; i++)
+		{
+			double gap = (presents[i] - presents[i - 1]) / 1e6;
+			jitter[i - 1] = Math.abs(gap - FRAME_TIME / 1e6);
+			sum += gap;
+			sumSquares += gap * gap;
+		}
+		
+		int gaps = FRAMES - 1;
+		double mean = sum / gaps;
+		double deviation = Math.sqrt(sumSquares / gaps - mean * mean);
+		Arrays.sort(jitter);
+		
+		double realTime = (presents[FRAMES - 1] - presents[0]) / 1e6;
+		double simulatedTime = (presents[FRAMES] - 1) * FRAME_TIME / 1e6;
+		
+		System.out.printf(
+				"%-12s mean gap %6.3f ms, std dev %6.3f ms, " +
+				"p50 jitter %6.3f ms, p99 jitter %6.3f ms, " +
+				"drift %8.1f ms over %.0f ms%n",
+				name,
+				mean,
+				deviation,
+				jitter[gaps / 2],
+				jitter[gaps * 99 / 100],
+				realTime - simulatedTime,
+				realTime);
+	}
+}
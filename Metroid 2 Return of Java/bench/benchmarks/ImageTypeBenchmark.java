@@ -0,0 +1,122 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import javax.swing.ImageIcon;
+
+import com.AssetCache;
+import com.CompatibleImages;
+import com.SpriteAtlas;
+import com.TileImageLoader;
+
+import enums.SamusState;
+
+/**
+ * Draws every Samus and tile frame into a screen sized image, once as the
+ * lazily scaled images getScaledInstance returns, once as plain ARGB images
+ * and once as images compatible with the screen, and reports the average
+ * time of a draw for each. Run from the project directory so the images
+ * resolve, and without java.awt.headless to measure the screen's own format.
+ */
+public class ImageTypeBenchmark
+{
+	private static final int SCALER = 5;
+	private static final int VIEW_WIDTH = 160 * SCALER;
+	private static final int VIEW_HEIGHT = 144 * SCALER;
+	private static final int WARMUP_PASSES = 2000;
+	private static final int MEASURED_PASSES = 5000;
+	
+	
+	public static void main(String[] args)
+	{
+		List<String> pathNames = SpriteAtlas.collect(SamusState.getPathNamesArray());
+		pathNames.addAll(SpriteAtlas.collect(TileImageLoader.getPathNames()));
+		pathNames.remove("");
+		
+		AssetCache assets = new AssetCache(AssetCache.DEFAULT_BUDGET);
+		Image[] scaledImages = new Image[pathNames.size()];
+		Image[] argbImages = new Image[pathNames.size()];
+		Image[] compatibleImages = new Image[pathNames.size()];
+		
+		for (int i = 0; i < pathNames.size(); i++)
+		{
+			Image rawImage = new ImageIcon(pathNames.get(i)).getImage();
+			scaledImages[i] = rawImage.getScaledInstance(
+					rawImage.getWidth(null) * SCALER,
+					rawImage.getHeight(null) * SCALER,
+					0);
+			
+			BufferedImage image = assets.acquire(pathNames.get(i), SCALER);
+			argbImages[i] = image;
+			compatibleImages[i] = copy(image);
+		}
+		
+		BufferedImage target = CompatibleImages.create(
+				VIEW_WIDTH,
+				VIEW_HEIGHT,
+				Transparency.OPAQUE);
+		Graphics2D graphics = target.createGraphics();
+		
+		draw(graphics, scaledImages, WARMUP_PASSES);
+		draw(graphics, argbImages, WARMUP_PASSES);
+		draw(graphics, compatibleImages, WARMUP_PASSES);
+		
+		long scaledTime = draw(graphics, scaledImages, MEASURED_PASSES);
+		long argbTime = draw(graphics, argbImages, MEASURED_PASSES);
+		long compatibleTime = draw(graphics, compatibleImages, MEASURED_PASSES);
+		
+		graphics.dispose();
+		
+		System.out.println(GraphicsEnvironment.isHeadless() ?
+				"Headless, compatible images fall back to integer RGB formats." :
+				"Target: " + target);
+		System.out.println("frames  ns/draw (scaled)  ns/draw (ARGB)  ns/draw (compatible)");
+		System.out.printf(
+				"%6d %17d %15d %21d%n",
+				pathNames.size(),
+				scaledTime,
+				argbTime,
+				compatibleTime);
+	}
+	
+	
+	/**
+	 * @return Copy of the image compatible with the screen.
+	 */
+	private static BufferedImage copy(BufferedImage image)
+	{
+		BufferedImage compatible = CompatibleImages.create(
+				image.getWidth(),
+				image.getHeight(),
+				CompatibleImages.getTransparency(image));
+		Graphics2D graphics = compatible.createGraphics();
+		graphics.drawImage(image, 0, 0, null);
+		graphics.dispose();
+		
+		return compatible;
+	}
+	
+	
+	/**
+	 * @return Average nanoseconds taken to draw a single image.
+	 */
+	private static long draw(Graphics2D graphics, Image[] images, int passes)
+	{
+		long start = System.nanoTime();
+		
+		for (int pass = 0; pass < passes; pass++)
+		{
+			for (int i = 0; i < images.length; i++)
+			{
+				graphics.drawImage(images[i], i * 8, i * 4, null);
+			}
+		}
+		
+		return (System.nanoTime() - start) / ((long) passes * images.length);
+	}
+}
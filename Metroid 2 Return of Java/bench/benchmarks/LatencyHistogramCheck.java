@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.LatencyHistogram;
+
+/**
+ * Checks the percentiles of a LatencyHistogram against the exact
+ * percentiles of the same durations sorted, for durations spread from a few
+ * nanoseconds to a few seconds. Every percentile must be no less than the
+ * exact one and no more than a sixteenth above it. Exits with status 1 if
+ * any is out.
+ */
+public class LatencyHistogramCheck
+{
+	private static final int DURATIONS = 1_000_000;
+	private static final double[] PERCENTILES = {0, 1, 50, 90, 95, 99, 99.9, 100};
+	private static final long SEED = 20L;
+	
+	
+	public static void main(String[] args)
+	{
+		Random random = new Random(SEED);
+		LatencyHistogram histogram = new LatencyHistogram();
+		long[] durations = new long[DURATIONS];
+		
+		for (int i = 0; i < DURATIONS; i++)
+		{
+			// Log uniform from 1ns to about 4s
+			durations[i] = (long) Math.pow(2, random.nextDouble() * 32);
+			histogram.record(durations[i]);
+		}
+		
+		Arrays.sort(durations);
+		boolean isWrong = false;
+		
+		for (double percentile : PERCENTILES)
+		{
+			int rank = (int) Math.ceil(percentile / 100 * DURATIONS);
+			long exact = durations[Math.max(rank, 1) - 1];
+			long reported = histogram.getPercentile(percentile);
+			boolean isInRange = reported >= exact && reported <= exact + exact / 16;
+			
+			System.out.printf(
+					"p%-5s exact %12d reported %12d %s%n",
+					percentile,
+					exact,
+					reported,
+					isInRange ? "" : "OUT OF RANGE");
+			isWrong |= !isInRange;
+		}
+		
+		if (histogram.getMax() != durations[DURATIONS - 1])
+		{
+			System.out.println("Max " + histogram.getMax() + " is wrong.");
+			isWrong = true;
+		}
+		
+		if (isWrong)
+		{
+			System.out.println("FAILED: percentiles are out of range.");
+			System.exit(1);
+		}
+		
+		System.out.println("PASSED: every percentile is within a sixteenth.");
+	}
+}
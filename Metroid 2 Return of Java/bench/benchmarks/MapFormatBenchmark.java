@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.BinaryMapFormat;
+import com.TileGrid;
+import com.TileImageLoader;
+import com.TileMapLoader;
+import com.TileSet;
+
+/**
+ * Compares the file size and load time of the binary map format against the
+ * text format on large maps, both randomly filled and laid out as rooms.
+ */
+public class MapFormatBenchmark
+{
+	private static final int[] MAP_SIZES = { 512, 1024, 2048 };
+	private static final int WARMUP_LOADS = 5;
+	private static final int MEASURED_LOADS = 10;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		// Only the tile symbols are needed, so no images are loaded
+		TileSet tileSet = new TileSet((TileImageLoader) null);
+		
+		System.out.println(
+				"map              text bytes  binary bytes   text ms  binary ms");
+		
+		for (int size : MAP_SIZES)
+		{
+			run("random", MapGenerator.writeTextMap(size, size, size), tileSet);
+			run("rooms", MapGenerator.writeRoomMap(size, size), tileSet);
+		}
+	}
+	
+	
+	/**
+	 * Converts a text map to a binary map and prints the size and load time
+	 * of both.
+	 * @param name Kind of map.
+	 * @param textFile TileMap text.
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @throws IOException If a map could not be read or written.
+	 */
+	private static void run(String name, File textFile, TileSet tileSet)
+			throws IOException
+	{
+		TileGrid grid = TileMapLoader.loadText(textFile, tileSet);
+		File binaryFile = File.createTempFile("bench_binary", ".m2map");
+		binaryFile.deleteOnExit();
+		BinaryMapFormat.write(grid, tileSet, binaryFile);
+		
+		long textTime = 0;
+		long binaryTime = 0;
+		
+		for (int i = 0; i < WARMUP_LOADS + MEASURED_LOADS; i++)
+		{
+			long start = System.nanoTime();
+			TileMapLoader.load(textFile, tileSet);
+			long middle = System.nanoTime();
+			TileMapLoader.load(binaryFile, tileSet);
+			long end = System.nanoTime();
+			
+			if (i >= WARMUP_LOADS)
+			{
+				textTime += middle - start;
+				binaryTime += end - middle;
+			}
+		}
+		
+		System.out.printf(
+				"%-6s %4dx%-4d %12d %13d %9.2f %10.2f%n",
+				name,
+				grid.getRows(),
+				grid.getColumns(),
+				textFile.length(),
+				binaryFile.length(),
+				textTime / 1e6 / MEASURED_LOADS,
+				binaryTime / 1e6 / MEASURED_LOADS);
+	}
+}
@@ -0,0 +1,177 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Writes randomly generated tile map text files for the benchmarks to load.
+ */
+public final class MapGenerator 
+{
+	/**
+	 * Chance of any single cell holding a tile.
+	 */
+	private static final double TILE_DENSITY = 0.35;
+	/**
+	 * Tile width of each room in a room map.
+	 */
+	private static final int ROOM_WIDTH = 20;
+	/**
+	 * Tile height of each room in a room map.
+	 */
+	private static final int ROOM_HEIGHT = 18;
+	/**
+	 * Tile height of a corridor map, the same as the test map.
+	 */
+	private static final int CORRIDOR_HEIGHT = 9;
+	
+	
+	private MapGenerator()
+	{
+	}
+	
+	
+	/**
+	 * Writes a tile map text file with a solid border and randomly placed 
+	 * tiles inside of it.
+	 * @param rows Number of tile rows.
+	 * @param cols Number of tile columns.
+	 * @param seed Seed for the random tile placement.
+	 * @return Temporary file holding the tile map text.
+	 * @throws IOException If the file could not be written.
+	 */
+	public static File writeTextMap(int rows, int cols, long seed) 
+			throws IOException
+	{
+		File file = File.createTempFile("bench_map_" + rows + "x" + cols, "");
+		file.deleteOnExit();
+		Random random = new Random(seed);
+		
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		
+		try
+		{
+			for (int row = 0; row < rows; row++)
+			{
+				for (int col = 0; col < cols; col++)
+				{
+					boolean border = 
+							row == 0 || col == 0 || 
+							row == rows - 1 || col == cols - 1;
+					
+					if (border || random.nextDouble() < TILE_DENSITY)
+					{
+						writer.write('0');
+					}
+					else
+					{
+						writer.write('.');
+					}
+				}
+				
+				writer.write("\r\n");
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+		
+		return file;
+	}
+	
+	
+	/**
+	 * Writes a tile map text file laid out as a grid of walled rooms, each
+	 * with a floor and a platform, similar to a real level.
+	 * @param rows Number of tile rows.
+	 * @param cols Number of tile columns.
+	 * @return Temporary file holding the tile map text.
+	 * @throws IOException If the file could not be written.
+	 */
+	public static File writeRoomMap(int rows, int cols) throws IOException
+	{
+		File file = File.createTempFile("bench_rooms_" + rows + "x" + cols, "");
+		file.deleteOnExit();
+		
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		
+		try
+		{
+			for (int row = 0; row < rows; row++)
+			{
+				int roomRow = row % ROOM_HEIGHT;
+				
+				for (int col = 0; col < cols; col++)
+				{
+					int roomCol = col % ROOM_WIDTH;
+					boolean wall = roomCol == 0 || roomRow <= 1 ||
+							roomRow >= ROOM_HEIGHT - 2;
+					boolean platform = roomRow == ROOM_HEIGHT / 2 &&
+							roomCol > ROOM_WIDTH / 4 &&
+							roomCol < ROOM_WIDTH * 3 / 4;
+					// Leave a doorway through each wall
+					boolean doorway = roomCol == 0 &&
+							roomRow > ROOM_HEIGHT - 6 &&
+							roomRow < ROOM_HEIGHT - 2;
+					
+					writer.write((wall || platform) && !doorway ? '0' : '.');
+				}
+				
+				writer.write("\r\n");
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+		
+		return file;
+	}
+	
+	
+	/**
+	 * Writes a tile map text file holding one long corridor, as tall as the
+	 * test map and with the same ceiling platforms repeated along it, so
+	 * Samus can walk its whole length from where she starts.
+	 * @param cols Number of tile columns.
+	 * @return Temporary file holding the tile map text.
+	 * @throws IOException If the file could not be written.
+	 */
+	public static File writeCorridorMap(int cols) throws IOException
+	{
+		File file = File.createTempFile("bench_corridor_" + cols, "");
+		file.deleteOnExit();
+		
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		
+		try
+		{
+			for (int row = 0; row < CORRIDOR_HEIGHT; row++)
+			{
+				for (int col = 0; col < cols; col++)
+				{
+					int roomCol = col % ROOM_WIDTH;
+					boolean wall = row == 0 || col == 0 ||
+							row == CORRIDOR_HEIGHT - 1 || col == cols - 1;
+					boolean platform =
+							row == 2 && roomCol >= 7 && roomCol < 11 ||
+							row == 4 && roomCol >= 10 && roomCol < 16;
+					
+					writer.write(wall || platform ? '0' : '.');
+				}
+				
+				writer.write("\r\n");
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+		
+		return file;
+	}
+}
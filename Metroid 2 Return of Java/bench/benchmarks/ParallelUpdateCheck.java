@@ -0,0 +1,128 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import com.EntityStore;
+import com.EntitySystem;
+
+/**
+ * Checks that running the systems of an EntityStore on a ForkJoinPool gives
+ * bit-identical results to running them serially. Steps the same Swarm in
+ * a serial store and in stores with pools of several sizes, together with a
+ * system that opts out of parallel runs by counting into a shared total,
+ * then compares every column. Exits with status 1 if any differs.
+ */
+public class ParallelUpdateCheck
+{
+	private static final int ENTITIES = 50_000;
+	private static final int STEPS = 500;
+	private static final int[] THREADS = {2, 3, 4, 8};
+	private static final long SEED = 22L;
+	
+	
+	public static void main(String[] args)
+	{
+		EntityStore serial = new EntityStore();
+		CountingSystem serialCounter = new CountingSystem();
+		run(serial, serialCounter);
+		
+		boolean isDifferent = false;
+		
+		for (int threads : THREADS)
+		{
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			EntityStore parallel = new EntityStore();
+			CountingSystem parallelCounter = new CountingSystem();
+			parallel.setPool(pool);
+			run(parallel, parallelCounter);
+			pool.shutdown();
+			
+			boolean isSame = isSame(serial, parallel) &&
+					serialCounter.total == parallelCounter.total;
+			
+			System.out.printf(
+					"%d threads: %s%n",
+					threads,
+					isSame ? "identical" : "DIFFERENT");
+			isDifferent |= !isSame;
+		}
+		
+		if (isDifferent)
+		{
+			System.out.println("FAILED: parallel updates differ from serial.");
+			System.exit(1);
+		}
+		
+		System.out.println("PASSED: parallel updates are bit-identical to serial.");
+	}
+	
+	
+	/**
+	 * Fills a store with the swarm and steps it.
+	 */
+	private static void run(EntityStore store, CountingSystem counter)
+	{
+		Swarm.populate(store, ENTITIES, SEED);
+		
+		for (int step = 0; step < STEPS; step++)
+		{
+			Swarm.step(store);
+			store.run(counter);
+		}
+	}
+	
+	
+	/**
+	 * @return Whether every column of two stores holds the same values.
+	 */
+	private static boolean isSame(EntityStore a, EntityStore b)
+	{
+		int size = a.getSize();
+		
+		return size == b.getSize() &&
+				isSame(a.getXs(), b.getXs(), size) &&
+				isSame(a.getYs(), b.getYs(), size) &&
+				isSame(a.getPreviousXs(), b.getPreviousXs(), size) &&
+				isSame(a.getPreviousYs(), b.getPreviousYs(), size) &&
+				isSame(a.getDXs(), b.getDXs(), size) &&
+				isSame(a.getDYs(), b.getDYs(), size);
+	}
+	
+	
+	private static boolean isSame(int[] a, int[] b, int size)
+	{
+		return Arrays.equals(
+				Arrays.copyOf(a, size),
+				Arrays.copyOf(b, size));
+	}
+	
+	
+	/**
+	 * Adds up the coordinates of every entity into one total, which would
+	 * race if it were run over several chunks at once.
+	 */
+	private static class CountingSystem implements EntitySystem
+	{
+		private long total;
+		
+		
+		@Override
+		public void update(EntityStore store, int start, int end)
+		{
+			int[] xs = store.getXs();
+			
+			for (int i = start; i < end; i++)
+			{
+				total = total * 31 + xs[i];
+			}
+		}
+		
+		
+		@Override
+		public boolean isParallel()
+		{
+			return false;
+		}
+	}
+}
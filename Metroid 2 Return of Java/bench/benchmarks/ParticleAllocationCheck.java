@@ -0,0 +1,236 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import com.ParticleSystem;
+import com.SpriteAtlas;
+import com.TileImageLoader;
+import com.TileMap;
+import enums.ProjectileType;
+import screens.GameScreen;
+
+/**
+ * Checks that a ParticleSystem holding tens of thousands of live beams and
+ * sparks allocates nothing once warmed up. Fires beams every step from
+ * random places of a room map in random directions, so many of them hit
+ * walls and throw off sparks, then counts the bytes the thread allocates
+ * using the per thread allocation counter of the HotSpot ThreadMXBean.
+ * <p>
+ * Spawning and updating are counted apart from drawing, and must not
+ * allocate at all in any measured window. Drawing goes through Java2D, so
+ * every step also fills as many bare rectangles on the same Graphics2D as
+ * the particle system drew, and in every window drawing the particles must
+ * not allocate more than those bare fillRect calls did. Exits with status 1
+ * if either check fails. Run from the project directory so the images
+ * resolve.
+ */
+public class ParticleAllocationCheck
+{
+	private static final int SCALER = 1;
+	private static final int WIDTH = 160;
+	private static final int HEIGHT = 144;
+	private static final int CAPACITY = 100_000;
+	private static final int BEAMS_PER_STEP = 2_500;
+	private static final int WARMUP_STEPS = 3_000;
+	private static final int MEASURED_STEPS = 500;
+	private static final int WINDOWS = 5;
+	private static final ProjectileType[] TYPES = ProjectileType.values();
+	private static final long SEED = 23L;
+	
+	
+	public static void main(String[] args) throws Exception
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		SpriteAtlas atlas = GameScreen.loadAssets(SCALER, Runnable::run).join();
+		TileMap tileMap = new TileMap(
+				MapGenerator.writeRoomMap(36, 36),
+				new TileImageLoader(atlas),
+				SCALER);
+		ParticleSystem particles = new ParticleSystem(tileMap, SCALER, CAPACITY);
+		
+		BufferedImage target = new BufferedImage(
+				WIDTH,
+				HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		int[] spawns = createSpawns(tileMap);
+		
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadID = Thread.currentThread().getId();
+		
+		long[] bytes = new long[3];
+		runSteps(
+				particles,
+				graphics,
+				spawns,
+				0,
+				WARMUP_STEPS,
+				threads,
+				threadID,
+				bytes);
+		
+		long updateBytes = 0;
+		boolean isDrawAllocating = false;
+		long time = 0;
+		
+		for (int window = 0; window < WINDOWS; window++)
+		{
+			bytes[0] = 0;
+			bytes[1] = 0;
+			bytes[2] = 0;
+			long start = System.nanoTime();
+			runSteps(
+					particles,
+					graphics,
+					spawns,
+					WARMUP_STEPS + window * MEASURED_STEPS,
+					MEASURED_STEPS,
+					threads,
+					threadID,
+					bytes);
+			time += System.nanoTime() - start;
+			
+			System.out.printf(
+					"Window %d: spawn and update %d bytes, draw %d bytes, "
+							+ "bare fillRect %d bytes%n",
+					window + 1,
+					bytes[0],
+					bytes[1],
+					bytes[2]);
+			updateBytes += bytes[0];
+			isDrawAllocating |= bytes[1] > bytes[2];
+		}
+		
+		graphics.dispose();
+		
+		System.out.printf(
+				"%d live, %d dropped, %.3f ms per step%n",
+				particles.getLiveCount(),
+				particles.getDroppedCount(),
+				time / 1e6 / (WINDOWS * MEASURED_STEPS));
+		if (updateBytes > 0)
+		{
+			System.out.println("FAILED: updating the particle system allocates.");
+			System.exit(1);
+		}
+		
+		if (isDrawAllocating)
+		{
+			System.out.println(
+					"FAILED: drawing the particle system allocates more than "
+							+ "bare fillRect calls.");
+			System.exit(1);
+		}
+		
+		System.out.println("PASSED: the particle system allocates nothing.");
+	}
+	
+	
+	/**
+	 * @return Pairs of coordinates and directions to fire beams from, three
+	 * values per beam, made up front so the measured steps pick from them
+	 * without allocating.
+	 */
+	private static int[] createSpawns(TileMap tileMap)
+	{
+		Random random = new Random(SEED);
+		int width = tileMap.getColumns() * TileMap.BLOCK_SIZE * SCALER;
+		int height = tileMap.getRows() * TileMap.BLOCK_SIZE * SCALER;
+		int[] spawns = new int[BEAMS_PER_STEP * 3 * 16];
+		
+		for (int i = 0; i < spawns.length; i += 3)
+		{
+			spawns[i] = random.nextInt(width);
+			spawns[i + 1] = random.nextInt(height);
+			spawns[i + 2] = random.nextInt(4);
+		}
+		
+		return spawns;
+	}
+	
+	
+	/**
+	 * Fires beams, then updates and draws every particle, for a number of
+	 * steps, adding the bytes allocated while spawning and updating to the
+	 * first element of bytes, those allocated while drawing to the second and
+	 * those allocated by the matching bare fillRect calls to the third.
+	 */
+	private static void runSteps(
+			ParticleSystem particles,
+			Graphics2D graphics,
+			int[] spawns,
+			int firstStep,
+			int steps,
+			com.sun.management.ThreadMXBean threads,
+			long threadID,
+			long[] bytes)
+	{
+		for (int step = firstStep; step < firstStep + steps; step++)
+		{
+			long before = threads.getThreadAllocatedBytes(threadID);
+			int first = step * BEAMS_PER_STEP * 3 % spawns.length;
+			
+			for (int beam = 0; beam < BEAMS_PER_STEP; beam++)
+			{
+				int i = (first + beam * 3) % spawns.length;
+				int direction = spawns[i + 2];
+				
+				particles.spawn(
+						ProjectileType.BEAM,
+						spawns[i],
+						spawns[i + 1],
+						direction == 0 ? -1 : direction == 1 ? 1 : 0,
+						direction == 2 ? -1 : direction == 3 ? 1 : 0);
+			}
+			
+			particles.update();
+			long updated = threads.getThreadAllocatedBytes(threadID);
+			int count = particles.draw(
+					graphics,
+					-step % 400,
+					0,
+					WIDTH,
+					HEIGHT,
+					0.5);
+			long drawn = threads.getThreadAllocatedBytes(threadID);
+			fillRects(graphics, count, step);
+			long filled = threads.getThreadAllocatedBytes(threadID);
+			
+			bytes[0] += updated - before;
+			bytes[1] += drawn - updated;
+			bytes[2] += filled - drawn;
+		}
+	}
+	
+	
+	/**
+	 * Sets the colour of every projectile type, then fills as many beam sized
+	 * rectangles as the particle system drew, spread over the view and just
+	 * past its edges the way the particles are.
+	 */
+	private static void fillRects(Graphics2D graphics, int count, int step)
+	{
+		int width = ProjectileType.BEAM.getWidth() * SCALER;
+		int height = ProjectileType.BEAM.getHeight() * SCALER;
+		
+		for (ProjectileType type : TYPES)
+		{
+			graphics.setColor(type.getColor());
+		}
+		
+		for (int i = 0; i < count; i++)
+		{
+			graphics.fillRect(
+					(i * 7 + step) % (WIDTH + width) - width / 2,
+					i * 13 % (HEIGHT + height) - height / 2,
+					width,
+					height);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+import com.CompatibleImages;
+import com.SpriteAtlas;
+
+import enums.Button;
+import enums.RenderMode;
+import enums.RenderScale;
+import screens.GameScreen;
+import screens.GameScreenDriver;
+
+/**
+ * Renders frames of a GameScreen onto a screen sized image once for each
+ * RenderScale while Samus walks, and reports the average time of a frame
+ * along with the bytes held by the sprite atlas' sheets. Run from the
+ * project directory so the images resolve.
+ */
+public class RenderScaleBenchmark
+{
+	private static final int WIDTH = 160;
+	private static final int HEIGHT = 144;
+	private static final int SCALER = 5;
+	private static final long FRAME_TIME = 1_000_000_000L / 60;
+	private static final int WARMUP_FRAMES = 5000;
+	private static final int MEASURED_FRAMES = 10_000;
+	
+	
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		BufferedImage target = CompatibleImages.create(
+				WIDTH * SCALER,
+				HEIGHT * SCALER,
+				Transparency.OPAQUE);
+		Graphics2D graphics = target.createGraphics();
+		
+		System.out.println("scale    us/frame  atlas KB");
+		
+		for (RenderScale renderScale : RenderScale.values())
+		{
+			SpriteAtlas atlas = GameScreen.loadAssets(
+					renderScale.getWorldScaler(SCALER),
+					Runnable::run).join();
+			GameScreen gameScreen = new GameScreen(
+					WIDTH,
+					HEIGHT,
+					SCALER,
+					FRAME_TIME,
+					RenderMode.PASSIVE,
+					renderScale,
+					atlas);
+			gameScreen.setSize(WIDTH * SCALER, HEIGHT * SCALER);
+			gameScreen.getInputQueue().record(Button.RIGHT, true);
+			GameScreenDriver screen = new GameScreenDriver(gameScreen);
+			
+			render(screen, graphics, WARMUP_FRAMES);
+			long frameTime = render(screen, graphics, MEASURED_FRAMES);
+			
+			System.out.printf(
+					"%-7s %10.1f %9d%n",
+					renderScale,
+					frameTime / 1e3,
+					getSheetBytes(atlas) / 1024);
+		}
+		
+		graphics.dispose();
+	}
+	
+	
+	/**
+	 * @return Average nanoseconds taken to simulate and draw a frame.
+	 */
+	private static long render(
+			GameScreenDriver screen,
+			Graphics2D graphics,
+			int frames)
+	{
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < frames; i++)
+		{
+			screen.doFrame();
+			screen.render(graphics);
+		}
+		
+		return (System.nanoTime() - start) / frames;
+	}
+	
+	
+	/**
+	 * @return Bytes held by the pixels of every sheet of the atlas.
+	 */
+	private static long getSheetBytes(SpriteAtlas atlas)
+	{
+		long bytes = 0;
+		
+		for (int i = 0; i < atlas.getSheetCount(); i++)
+		{
+			BufferedImage sheet = atlas.getSheet(i);
+			bytes += (long) sheet.getWidth() * sheet.getHeight() * 4;
+		}
+		
+		return bytes;
+	}
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import javax.swing.ImageIcon;
+
+import com.AtlasFrame;
+import com.SpriteAtlas;
+import com.TileImageLoader;
+
+import enums.SamusState;
+
+/**
+ * Draws every Samus and tile frame in turn, once from an image per frame
+ * scaled the way frames used to be loaded and once from a SpriteAtlas, and
+ * reports how many images each way holds. Run from the project directory
+ * so the images resolve.
+ */
+public class SpriteAtlasBenchmark
+{
+	private static final int SCALER = 5;
+	private static final int VIEW_WIDTH = 160 * SCALER;
+	private static final int VIEW_HEIGHT = 144 * SCALER;
+	private static final int WARMUP_PASSES = 2000;
+	private static final int MEASURED_PASSES = 5000;
+	
+	
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		List<String> pathNames = SpriteAtlas.collect(SamusState.getPathNamesArray());
+		pathNames.addAll(SpriteAtlas.collect(TileImageLoader.getPathNames()));
+		pathNames.remove("");
+		
+		Image[] images = new Image[pathNames.size()];
+		
+		for (int i = 0; i < images.length; i++)
+		{
+			Image rawImage = new ImageIcon(pathNames.get(i)).getImage();
+			images[i] = rawImage.getScaledInstance(
+					rawImage.getWidth(null) * SCALER,
+					rawImage.getHeight(null) * SCALER,
+					0);
+		}
+		
+		SpriteAtlas atlas = new SpriteAtlas(
+				pathNames,
+				SCALER,
+				SpriteAtlas.DEFAULT_SHEET_SIZE);
+		AtlasFrame[] frames = new AtlasFrame[pathNames.size()];
+		
+		for (int i = 0; i < frames.length; i++)
+		{
+			frames[i] = atlas.get(pathNames.get(i));
+		}
+		
+		BufferedImage target = new BufferedImage(
+				VIEW_WIDTH,
+				VIEW_HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		
+		drawImages(graphics, images, WARMUP_PASSES);
+		drawFrames(graphics, frames, WARMUP_PASSES);
+		
+		long imageTime = drawImages(graphics, images, MEASURED_PASSES);
+		long atlasTime = drawFrames(graphics, frames, MEASURED_PASSES);
+		
+		graphics.dispose();
+		
+		System.out.println("frames  images  sheets  ns/frame (images)  ns/frame (atlas)");
+		System.out.printf(
+				"%6d %7d %7d %18d %17d%n",
+				frames.length,
+				images.length,
+				atlas.getSheetCount(),
+				imageTime,
+				atlasTime);
+	}
+	
+	
+	/**
+	 * @return Average nanoseconds taken to draw a single frame from its own
+	 * image.
+	 */
+	private static long drawImages(Graphics2D graphics, Image[] images, int passes)
+	{
+		long start = System.nanoTime();
+		
+		for (int pass = 0; pass < passes; pass++)
+		{
+			for (int i = 0; i < images.length; i++)
+			{
+				graphics.drawImage(images[i], i * 8, i * 4, null);
+			}
+		}
+		
+		return (System.nanoTime() - start) / ((long) passes * images.length);
+	}
+	
+	
+	/**
+	 * @return Average nanoseconds taken to draw a single frame from the
+	 * atlas.
+	 */
+	private static long drawFrames(
+			Graphics2D graphics,
+			AtlasFrame[] frames,
+			int passes)
+	{
+		long start = System.nanoTime();
+		
+		for (int pass = 0; pass < passes; pass++)
+		{
+			for (int i = 0; i < frames.length; i++)
+			{
+				frames[i].draw(graphics, i * 8, i * 4, null);
+			}
+		}
+		
+		return (System.nanoTime() - start) / ((long) passes * frames.length);
+	}
+}
@@ -0,0 +1,124 @@
+package benchmarks;
+
+import java.util.Random;
+
+import com.EntityStore;
+import com.EntitySystem;
+
+/**
+ * Swarm of actors for the entity store benchmarks, in which every actor
+ * closes in on another actor while it is far away and backs off once it is
+ * close. Each actor reads where its target was at the start of the step,
+ * so the systems can be run in parallel.
+ */
+public final class Swarm
+{
+	/**
+	 * Entity identification number of a swarm actor.
+	 */
+	public static final int ENTITY_ID_NUMBER = 200;
+	/**
+	 * Pixel width and height of the area the swarm is kept in.
+	 */
+	private static final int AREA_SIZE = 4096;
+	/**
+	 * Pixels moved each simulation step along each axis.
+	 */
+	private static final int SPEED = 1;
+	/**
+	 * Squared pixel distance under which an actor backs away from its
+	 * target.
+	 */
+	private static final long CLOSE_DISTANCE_SQUARED = 64L * 64L;
+	
+	/**
+	 * Sets the velocity of every actor towards or away from its target.
+	 */
+	public static final EntitySystem SEEK = (store, start, end) ->
+	{
+		int size = store.getSize();
+		int[] previousXs = store.getPreviousXs();
+		int[] previousYs = store.getPreviousYs();
+		int[] dxs = store.getDXs();
+		int[] dys = store.getDYs();
+		
+		for (int i = start; i < end; i++)
+		{
+			int target = (int) ((i * 7919L + 17) % size);
+			int distanceX = previousXs[target] - previousXs[i];
+			int distanceY = previousYs[target] - previousYs[i];
+			long distanceSquared = (long) distanceX * distanceX +
+					(long) distanceY * distanceY;
+			int direction = distanceSquared > CLOSE_DISTANCE_SQUARED ? SPEED : -SPEED;
+			
+			dxs[i] = Integer.signum(distanceX) * direction;
+			dys[i] = Integer.signum(distanceY) * direction;
+		}
+	};
+	/**
+	 * Turns back every actor about to leave the area.
+	 */
+	public static final EntitySystem CONTAIN = (store, start, end) ->
+	{
+		int[] xs = store.getXs();
+		int[] ys = store.getYs();
+		int[] dxs = store.getDXs();
+		int[] dys = store.getDYs();
+		
+		for (int i = start; i < end; i++)
+		{
+			int x = xs[i] + dxs[i];
+			int y = ys[i] + dys[i];
+			
+			if (x < 0 || x >= AREA_SIZE)
+			{
+				dxs[i] = -dxs[i];
+			}
+			
+			if (y < 0 || y >= AREA_SIZE)
+			{
+				dys[i] = -dys[i];
+			}
+		}
+	};
+	
+	
+	private Swarm()
+	{
+	}
+	
+	
+	/**
+	 * Adds actors at random places of the area.
+	 * @param store EntityStore to add the actors to.
+	 * @param count Number of actors to add.
+	 * @param seed Seed for the random placement.
+	 */
+	public static void populate(EntityStore store, int count, long seed)
+	{
+		Random random = new Random(seed);
+		
+		for (int i = 0; i < count; i++)
+		{
+			store.add(
+					ENTITY_ID_NUMBER,
+					random.nextInt(AREA_SIZE),
+					random.nextInt(AREA_SIZE));
+		}
+	}
+	
+	
+	/**
+	 * Runs one simulation step of the swarm, in the order Simulation runs
+	 * the systems of its store.
+	 * @param store EntityStore holding the swarm.
+	 */
+	public static void step(EntityStore store)
+	{
+		store.savePositions();
+		store.run(SEEK);
+		store.run(CONTAIN);
+		store.run(EntityStore.MOVE);
+		store.run(EntityStore.ANIMATE);
+	}
+}
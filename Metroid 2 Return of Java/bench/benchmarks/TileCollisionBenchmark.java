@@ -0,0 +1,209 @@
+package benchmarks;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import com.TileCollider;
+import com.TileImageLoader;
+import com.TileMap;
+import com.TileSet;
+
+/**
+ * Moves thousands of boxes around a large room map, stopping each against
+ * solid tiles, once with TileCollider looking up only the cells each box
+ * sweeps into and once by testing the moved box against the bounds of
+ * every solid tile. The brute force test makes fewer moves since its cost
+ * grows with the size of the map.
+ */
+public class TileCollisionBenchmark
+{
+	private static final int SCALER = 5;
+	private static final int[] MAP_SIZES = { 64, 256, 1024 };
+	private static final int ENTITIES = 5000;
+	private static final int BOX_SIZE = 12 * SCALER;
+	private static final int SPEED = 3 * SCALER;
+	private static final int GRID_STEPS = 600;
+	/**
+	 * Number of cells the brute force test looks at on each map size.
+	 */
+	private static final long BRUTE_FORCE_CELLS = 1_000_000_000L;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		TileSet tileSet = new TileSet((TileImageLoader) null);
+		
+		System.out.println(
+				"map size   entities  ns/move (grid)  ns/move (every tile)");
+		
+		for (int size : MAP_SIZES)
+		{
+			File mapFile = MapGenerator.writeRoomMap(size, size);
+			TileMap tileMap = new TileMap(mapFile, tileSet, SCALER);
+			
+			// Warm up both before measuring either
+			runGrid(tileMap, GRID_STEPS / 4);
+			int bruteForceMoves = (int) Math.max(
+					1,
+					BRUTE_FORCE_CELLS / ((long) size * size));
+			runBruteForce(tileMap, bruteForceMoves / 4 + 1);
+			
+			long gridTime = runGrid(tileMap, GRID_STEPS);
+			long bruteForceTime = runBruteForce(tileMap, bruteForceMoves);
+			
+			System.out.printf(
+					"%4dx%-4d %9d %15d %21d%n",
+					size,
+					size,
+					ENTITIES,
+					gridTime,
+					bruteForceTime);
+		}
+	}
+	
+	
+	/**
+	 * @param tileMap TileMap to move the boxes through.
+	 * @param steps Number of times to move every box.
+	 * @return Average nanoseconds taken to move a single box with
+	 * TileCollider.
+	 */
+	private static long runGrid(TileMap tileMap, int steps)
+	{
+		TileCollider collider = new TileCollider(tileMap);
+		int[] xs = new int[ENTITIES];
+		int[] ys = new int[ENTITIES];
+		int[] dxs = new int[ENTITIES];
+		int[] dys = new int[ENTITIES];
+		placeBoxes(tileMap, xs, ys, dxs, dys);
+		
+		long start = System.nanoTime();
+		
+		for (int step = 0; step < steps; step++)
+		{
+			for (int i = 0; i < ENTITIES; i++)
+			{
+				int dx = collider.moveX(xs[i], ys[i], BOX_SIZE, BOX_SIZE, dxs[i]);
+				int dy = collider.moveY(xs[i] + dx, ys[i], BOX_SIZE, BOX_SIZE, dys[i]);
+				
+				// Bounce off whatever was hit
+				if (dx != dxs[i])
+				{
+					dxs[i] = -dxs[i];
+				}
+				
+				if (dy != dys[i])
+				{
+					dys[i] = -dys[i];
+				}
+				
+				xs[i] += dx;
+				ys[i] += dy;
+			}
+		}
+		
+		return (System.nanoTime() - start) / ((long) steps * ENTITIES);
+	}
+	
+	
+	/**
+	 * @param tileMap TileMap to move the boxes through.
+	 * @param moves Number of box moves to make, taking each box in turn.
+	 * @return Average nanoseconds taken to move a single box by testing it
+	 * against every solid tile.
+	 */
+	private static long runBruteForce(TileMap tileMap, int moves)
+	{
+		int[] xs = new int[ENTITIES];
+		int[] ys = new int[ENTITIES];
+		int[] dxs = new int[ENTITIES];
+		int[] dys = new int[ENTITIES];
+		placeBoxes(tileMap, xs, ys, dxs, dys);
+		
+		long start = System.nanoTime();
+		
+		for (int move = 0; move < moves; move++)
+		{
+			int i = move % ENTITIES;
+			Rectangle moved = new Rectangle(
+					xs[i] + dxs[i],
+					ys[i] + dys[i],
+					BOX_SIZE,
+					BOX_SIZE);
+			
+			if (hitsAnyTile(tileMap, moved))
+			{
+				dxs[i] = -dxs[i];
+				dys[i] = -dys[i];
+			}
+			else
+			{
+				xs[i] = moved.x;
+				ys[i] = moved.y;
+			}
+		}
+		
+		return (System.nanoTime() - start) / moves;
+	}
+	
+	
+	/**
+	 * @param tileMap TileMap holding the tiles.
+	 * @param bounds Box to test.
+	 * @return Whether the box intersects the bounds of any solid tile.
+	 */
+	private static boolean hitsAnyTile(TileMap tileMap, Rectangle bounds)
+	{
+		for (int row = 0; row < tileMap.getRows(); row++)
+		{
+			for (int col = 0; col < tileMap.getColumns(); col++)
+			{
+				if (tileMap.isSolid(row, col) &&
+						tileMap.getTileBounds(row, col).intersects(bounds))
+				{
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	
+	/**
+	 * Places every box in an open cell with a random diagonal direction. The
+	 * same boxes are placed on every call.
+	 */
+	private static void placeBoxes(
+			TileMap tileMap,
+			int[] xs,
+			int[] ys,
+			int[] dxs,
+			int[] dys)
+	{
+		Random random = new Random(ENTITIES);
+		int blockSize = TileMap.BLOCK_SIZE * SCALER;
+		
+		for (int i = 0; i < xs.length; i++)
+		{
+			int row;
+			int col;
+			
+			do
+			{
+				row = random.nextInt(tileMap.getRows());
+				col = random.nextInt(tileMap.getColumns());
+			}
+			while (tileMap.getTileID(row, col) != TileSet.EMPTY);
+			
+			xs[i] = col * blockSize;
+			ys[i] = row * blockSize;
+			dxs[i] = random.nextBoolean() ? SPEED : -SPEED;
+			dys[i] = random.nextBoolean() ? SPEED : -SPEED;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import com.TileImageLoader;
+import com.TileMap;
+
+/**
+ * Measures TileMap.draw against maps of increasing size drawn into a fixed 
+ * size view, both tile by tile and from pre-rendered chunks. With viewport 
+ * culling the time per draw should stay flat as the map grows. Run from
+ * the project directory so the tile images resolve.
+ */
+public class TileMapDrawBenchmark 
+{
+	private static final int SCALER = 5;
+	private static final int VIEW_WIDTH = 160 * SCALER;
+	private static final int VIEW_HEIGHT = 144 * SCALER;
+	private static final int[] MAP_SIZES = { 32, 128, 512, 1024 };
+	private static final int WARMUP_DRAWS = 2000;
+	private static final int MEASURED_DRAWS = 5000;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		TileImageLoader tileLoader = new TileImageLoader(SCALER);
+		BufferedImage target = new BufferedImage(
+				VIEW_WIDTH, 
+				VIEW_HEIGHT, 
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = target.createGraphics();
+		
+		System.out.println("map size    ns/draw (tiles)  ns/draw (chunks)");
+		
+		for (int size : MAP_SIZES)
+		{
+			File mapFile = MapGenerator.writeTextMap(size, size, size);
+			TileMap tileMap = new TileMap(mapFile, tileLoader, SCALER);
+			
+			// Look at the middle of the map
+			int scaledMapSize = size * TileMap.BLOCK_SIZE * SCALER;
+			tileMap.setPosition(
+					-(scaledMapSize - VIEW_WIDTH) / 2, 
+					-(scaledMapSize - VIEW_HEIGHT) / 2);
+			
+			tileMap.setChunkCached(false);
+			long tileTime = timeDraws(tileMap, graphics);
+			tileMap.setChunkCached(true);
+			long chunkTime = timeDraws(tileMap, graphics);
+			
+			System.out.printf(
+					"%4dx%-4d %15d %17d%n", 
+					size, 
+					size, 
+					tileTime, 
+					chunkTime);
+		}
+		
+		graphics.dispose();
+	}
+	
+	
+	/**
+	 * @param tileMap TileMap to draw.
+	 * @param graphics Graphics to draw the TileMap into.
+	 * @return Average nanoseconds taken by a single draw after warming up.
+	 */
+	private static long timeDraws(TileMap tileMap, Graphics2D graphics)
+	{
+		for (int i = 0; i < WARMUP_DRAWS; i++)
+		{
+			tileMap.draw(graphics, null, VIEW_WIDTH, VIEW_HEIGHT);
+		}
+		
+		long start = System.nanoTime();
+		
+		for (int i = 0; i < MEASURED_DRAWS; i++)
+		{
+			tileMap.draw(graphics, null, VIEW_WIDTH, VIEW_HEIGHT);
+		}
+		
+		return (System.nanoTime() - start) / MEASURED_DRAWS;
+	}
+}
@@ -0,0 +1,144 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.AtlasFrame;
+import com.TileImageLoader;
+import com.TileMap;
+import com.TileSet;
+
+/**
+ * Compares the heap used by a large TileMap against the same map stored the
+ * old way, with one tile object per filled cell. Run from the project
+ * directory so the tile images resolve.
+ */
+public class TileMapFootprintBenchmark
+{
+	private static final int SCALER = 5;
+	private static final int MAP_SIZE = 2000;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		File mapFile = MapGenerator.writeTextMap(MAP_SIZE, MAP_SIZE, MAP_SIZE);
+		TileSet tileSet = new TileSet(new TileImageLoader(SCALER));
+		AtlasFrame image = tileSet.get(0).getImage();
+		
+		long baseline = usedMemory();
+		TileMap tileMap = new TileMap(mapFile, tileSet, SCALER);
+		long gridBytes = usedMemory() - baseline;
+		
+		baseline = usedMemory();
+		LegacyTile[][] legacyMap = makeLegacyMap(tileMap, image);
+		long legacyBytes = usedMemory() - baseline;
+		
+		// Both maps are still reachable here, so neither was collected early
+		System.out.printf(
+				"%dx%d map, %,d filled cells%n" +
+				"  tile object per cell: %,d bytes%n" +
+				"  packed tile grid:     %,d bytes%n",
+				tileMap.getRows(),
+				tileMap.getColumns(),
+				countFilled(legacyMap),
+				legacyBytes,
+				gridBytes);
+	}
+	
+	
+	/**
+	 * @param legacyMap Grid of tile objects.
+	 * @return Number of cells holding a tile.
+	 */
+	private static int countFilled(LegacyTile[][] legacyMap)
+	{
+		int filled = 0;
+		
+		for (LegacyTile[] row : legacyMap)
+		{
+			for (LegacyTile tile : row)
+			{
+				if (tile != null)
+				{
+					filled++;
+				}
+			}
+		}
+		
+		return filled;
+	}
+	
+	
+	/**
+	 * Builds the same map with one object per filled cell, holding the same
+	 * fields that each tile used to have.
+	 * @param tileMap Map to copy.
+	 * @param image Image shared by every tile.
+	 * @return Grid of tile objects.
+	 */
+	private static LegacyTile[][] makeLegacyMap(TileMap tileMap, AtlasFrame image)
+	{
+		int blockSize = TileMap.BLOCK_SIZE * SCALER;
+		LegacyTile[][] legacyMap =
+				new LegacyTile[tileMap.getRows()][tileMap.getColumns()];
+		
+		for (int row = 0; row < tileMap.getRows(); row++)
+		{
+			for (int col = 0; col < tileMap.getColumns(); col++)
+			{
+				if (tileMap.getTile(row, col) != null)
+				{
+					legacyMap[row][col] = new LegacyTile(
+							col * blockSize,
+							row * blockSize,
+							image);
+				}
+			}
+		}
+		
+		return legacyMap;
+	}
+	
+	
+	/**
+	 * @return Bytes of heap in use after collecting garbage.
+	 */
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		
+		for (int i = 0; i < 4; i++)
+		{
+			System.gc();
+		}
+		
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+	
+	
+	/**
+	 * Fields held by every tile before tiles became shared types.
+	 */
+	@SuppressWarnings("unused")
+	private static class LegacyTile
+	{
+		private int x;
+		private int y;
+		private int imageWidth;
+		private int imageHeight;
+		private AtlasFrame image;
+		private final int ID = 0;
+		private final boolean isSolid = true;
+		private boolean isVisible = true;
+		
+		
+		private LegacyTile(int x, int y, AtlasFrame image)
+		{
+			this.x = x;
+			this.y = y;
+			this.image = image;
+		}
+	}
+}
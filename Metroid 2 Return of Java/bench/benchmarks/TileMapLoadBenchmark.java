@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import com.TileGrid;
+import com.TileImageLoader;
+import com.TileMapLoader;
+import com.TileSet;
+
+/**
+ * Measures loading tile map text files of increasing size with the single
+ * pass, memory mapped TileMapLoader against the old approach of reading the
+ * file twice with a BufferedReader. Run from the project directory so the
+ * tile images resolve.
+ */
+public class TileMapLoadBenchmark
+{
+	private static final int[] MAP_SIZES = { 256, 1024, 2048 };
+	private static final int WARMUP_LOADS = 5;
+	private static final int MEASURED_LOADS = 10;
+	
+	
+	public static void main(String[] args) throws IOException
+	{
+		TileSet tileSet = new TileSet(new TileImageLoader(1));
+		
+		System.out.println("map size     two pass ms   mapped ms");
+		
+		for (int size : MAP_SIZES)
+		{
+			File mapFile = MapGenerator.writeTextMap(size, size, size);
+			
+			long readerTime = 0;
+			long mappedTime = 0;
+			
+			for (int i = 0; i < WARMUP_LOADS + MEASURED_LOADS; i++)
+			{
+				long start = System.nanoTime();
+				loadTwoPass(mapFile, tileSet);
+				long middle = System.nanoTime();
+				TileMapLoader.loadText(mapFile, tileSet);
+				long end = System.nanoTime();
+				
+				if (i >= WARMUP_LOADS)
+				{
+					readerTime += middle - start;
+					mappedTime += end - middle;
+				}
+			}
+			
+			System.out.printf(
+					"%4dx%-4d %13.2f %11.2f%n",
+					size,
+					size,
+					readerTime / 1e6 / MEASURED_LOADS,
+					mappedTime / 1e6 / MEASURED_LOADS);
+		}
+	}
+	
+	
+	/**
+	 * Loads a tile map text file the way TileMap used to, counting the lines
+	 * first and then reading them again one character at a time.
+	 * @param mapFile TileMap text.
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @return Tile identification numbers of every cell of the map.
+	 * @throws IOException If the file could not be read.
+	 */
+	private static TileGrid loadTwoPass(File mapFile, TileSet tileSet)
+			throws IOException
+	{
+		BufferedReader reader = new BufferedReader(new FileReader(mapFile));
+		int cols = reader.readLine().length();
+		int rows = 1;
+		
+		while (reader.readLine() != null)
+		{
+			rows++;
+		}
+		
+		reader.close();
+		
+		byte[] tiles = new byte[rows * cols];
+		reader = new BufferedReader(new FileReader(mapFile));
+		
+		for (int row = 0; row < rows; row++)
+		{
+			String tileRow = reader.readLine();
+			
+			for (int col = 0; col < tileRow.length(); col++)
+			{
+				tiles[row * cols + col] =
+						(byte) tileSet.getID(tileRow.charAt(col));
+			}
+		}
+		
+		reader.close();
+		
+		return new TileGrid(rows, cols, tiles);
+	}
+}
@@ -0,0 +1,69 @@
+package benchmarks.jmh;
+
+import java.io.File;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import screens.GameScreen;
+
+/**
+ * Runs the JMH benchmarks, taking the same arguments as the JMH command
+ * line. Results are written as JSON to jmh-results.json unless another
+ * result format or file is given, so runs can be compared across releases.
+ * Run from the project directory so the maps and images resolve.
+ */
+public final class BenchmarkRunner
+{
+	/**
+	 * File results are written to when no other file is given.
+	 */
+	public static final String DEFAULT_RESULT_FILE = "jmh-results.json";
+	
+	
+	private BenchmarkRunner()
+	{
+	}
+	
+	
+	public static void main(String[] args) throws Exception
+	{
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		
+		if (commandLine.shouldHelp() ||
+				commandLine.shouldList() ||
+				commandLine.shouldListWithParams() ||
+				commandLine.shouldListProfilers() ||
+				commandLine.shouldListResultFormats())
+		{
+			Main.main(args);
+			return;
+		}
+		
+		if (!new File(GameScreen.DEFAULT_MAP).isFile())
+		{
+			System.err.println(
+					"BenchmarkRunner: " + GameScreen.DEFAULT_MAP +
+					" was not found, run from the project directory.");
+			System.exit(1);
+		}
+		
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		
+		if (!commandLine.getResultFormat().hasValue())
+		{
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		
+		if (!commandLine.getResult().hasValue())
+		{
+			options.result(DEFAULT_RESULT_FILE);
+		}
+		
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,92 @@
+package benchmarks.jmh;
+
+import com.Entity;
+import com.FrameTable;
+import com.SpriteAtlas;
+import enums.SamusState;
+
+/**
+ * Entity that walks back and forth over a fixed stretch of the screen with
+ * Samus' walking animation, to fill a GameScreen with moving entities.
+ */
+class Drone extends Entity
+{
+	/**
+	 * Entity identification number of a drone.
+	 */
+	static final int ENTITY_ID_NUMBER = 100;
+	/**
+	 * Unscaled pixels walked each simulation step.
+	 */
+	static final int SPEED = 1;
+	/**
+	 * Unscaled pixels walked before turning around.
+	 */
+	static final int RANGE = 48;
+	
+	/**
+	 * Horizontal coordinate the drone starts at and turns around at.
+	 */
+	private final int startX;
+	/**
+	 * Horizontal coordinate the drone walks to before turning back.
+	 */
+	private final int endX;
+	
+	
+	/**
+	 * @param x Starting horizontal unscaled pixel coordinate.
+	 * @param y Starting vertical unscaled pixel coordinate.
+	 * @param scaler Multiplier to scale the size of the screen by.
+	 * @param frames Table of Samus' frames from createFrames, shared by
+	 * every drone.
+	 * @param phase Simulation steps to start into the walk.
+	 */
+	Drone(int x, int y, int scaler, FrameTable frames, int phase)
+	{
+		super(
+				x,
+				y,
+				13 * scaler,
+				36 * scaler,
+				5 * scaler,
+				0,
+				scaler,
+				ENTITY_ID_NUMBER,
+				frames);
+		this.startX = this.x;
+		this.endX = this.x + RANGE * scaler;
+		
+		dx = SPEED * scaler;
+		this.x += phase % RANGE * dx;
+		
+		playAnimation(
+				SamusState.WALK_RIGHT.getStateID(),
+				SamusState.WALK_RIGHT.getPathNames().length,
+				SamusState.WALK_RIGHT.getFrameTicks());
+	}
+	
+	
+	@Override
+	public void move()
+	{
+		x += dx;
+		
+		if (x <= startX || x >= endX)
+		{
+			dx = -dx;
+		}
+	}
+	
+	
+	/**
+	 * @param atlas SpriteAtlas to look Samus' frames up in first.
+	 * @param scaler Multiplier to scale the size of the screen by.
+	 * @return A table of Samus' frames for drones to share, without
+	 * prefetching.
+	 */
+	static FrameTable createFrames(SpriteAtlas atlas, int scaler)
+	{
+		return new FrameTable(SamusState.getPathNamesArray(), atlas, scaler, null);
+	}
+}
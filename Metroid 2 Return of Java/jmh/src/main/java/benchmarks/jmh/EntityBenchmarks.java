@@ -0,0 +1,90 @@
+package benchmarks.jmh;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.AtlasFrame;
+import com.FrameTable;
+import com.SpriteAtlas;
+import com.TileImageLoader;
+import com.TileMap;
+import entities.Samus;
+import enums.SamusState;
+import screens.GameScreen;
+
+/**
+ * Measures the per entity work of Samus: reading her collision bounds,
+ * loading the frames of a state the first time it is entered and building
+ * the table of path names they are loaded by.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EntityBenchmarks
+{
+	private static final int SCALER = 5;
+	
+	private SpriteAtlas atlas;
+	private String[][] pathNames;
+	private Samus samus;
+	private Rectangle bounds;
+	
+	
+	@Setup
+	public void setUp()
+	{
+		atlas = GameScreen.loadAssets(SCALER, Runnable::run).join();
+		pathNames = SamusState.getPathNamesArray();
+		
+		TileMap tileMap = new TileMap(
+				new File(GameScreen.DEFAULT_MAP),
+				new TileImageLoader(atlas),
+				SCALER);
+		samus = new Samus(75, 92, SCALER, tileMap, atlas);
+		bounds = new Rectangle();
+	}
+	
+	
+	@Benchmark
+	public Rectangle getBounds()
+	{
+		return samus.getBounds();
+	}
+	
+	
+	@Benchmark
+	public Rectangle getBoundsInto()
+	{
+		return samus.getBounds(bounds);
+	}
+	
+	
+	@Benchmark
+	public AtlasFrame[] loadState()
+	{
+		FrameTable frames = new FrameTable(pathNames, atlas, SCALER, null);
+		return frames.get(SamusState.WALK_RIGHT.getStateID());
+	}
+	
+	
+	@Benchmark
+	public String[][] getPathNamesArray()
+	{
+		return SamusState.getPathNamesArray();
+	}
+}
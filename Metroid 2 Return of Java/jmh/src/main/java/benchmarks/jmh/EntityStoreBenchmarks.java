@@ -0,0 +1,153 @@
+package benchmarks.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.Animator;
+import com.AtlasFrame;
+import com.Entity;
+import com.EntityStore;
+import com.EntitySystem;
+import com.FrameTable;
+import com.SpriteAtlas;
+import enums.SamusState;
+import screens.GameScreen;
+
+/**
+ * Compares a simulation step of walking drones kept as a list of Entity
+ * objects, as Simulation keeps its entities, with the same drones kept in
+ * an EntityStore and driven by systems. Both save positions, walk back and
+ * forth and animate every drone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EntityStoreBenchmarks
+{
+	private static final int SCALER = 1;
+	private static final int HEIGHT = 144;
+	
+	/**
+	 * Turns every drone of the store around at either end of its walk, as
+	 * Drone.move does.
+	 */
+	private static final EntitySystem PATROL = (store, start, end) ->
+	{
+		int[] xs = store.getXs();
+		int[] dxs = store.getDXs();
+		int endX = Drone.RANGE * SCALER;
+		
+		for (int i = start; i < end; i++)
+		{
+			if (xs[i] <= 0 || xs[i] >= endX)
+			{
+				dxs[i] = -dxs[i];
+			}
+		}
+	};
+	
+	/**
+	 * Number of drones.
+	 */
+	@Param({"1000", "10000", "100000"})
+	public int entityCount;
+	
+	private List<Entity> drones;
+	private Animator animator;
+	private EntityStore store;
+	
+	
+	@Setup
+	public void setUp()
+	{
+		SpriteAtlas atlas = GameScreen.loadAssets(SCALER, Runnable::run).join();
+		FrameTable frames = Drone.createFrames(atlas, SCALER);
+		SamusState walk = SamusState.WALK_RIGHT;
+		
+		drones = new ArrayList<Entity>(entityCount);
+		animator = new Animator();
+		store = new EntityStore(entityCount);
+		store.setFrames(Drone.ENTITY_ID_NUMBER, getFrames(frames));
+		
+		for (int i = 0; i < entityCount; i++)
+		{
+			int y = i % HEIGHT;
+			
+			drones.add(new Drone(0, y, SCALER, frames, i));
+			
+			int handle = store.add(
+					Drone.ENTITY_ID_NUMBER,
+					i % Drone.RANGE * Drone.SPEED * SCALER,
+					y * SCALER);
+			store.setVelocity(handle, Drone.SPEED * SCALER, 0);
+			store.setBounds(handle, 5 * SCALER, 0, 13 * SCALER, 36 * SCALER);
+			store.playAnimation(
+					handle,
+					walk.getStateID(),
+					walk.getPathNames().length,
+					walk.getFrameTicks(),
+					0);
+		}
+	}
+	
+	
+	@Benchmark
+	public List<Entity> objectList()
+	{
+		for (int i = 0; i < drones.size(); i++)
+		{
+			Entity drone = drones.get(i);
+			
+			drone.savePosition();
+			drone.move();
+		}
+		
+		animator.tick(drones);
+		return drones;
+	}
+	
+	
+	@Benchmark
+	public EntityStore entityStore()
+	{
+		store.savePositions();
+		store.run(EntityStore.MOVE);
+		store.run(PATROL);
+		store.run(EntityStore.ANIMATE);
+		return store;
+	}
+	
+	
+	/**
+	 * @param table Table of Samus' frames.
+	 * @return Frames of every SamusState, indexed by state ID and frame,
+	 * loading every state of the table.
+	 */
+	private static AtlasFrame[][] getFrames(FrameTable table)
+	{
+		AtlasFrame[][] frames = new AtlasFrame[table.getStateCount()][];
+		
+		for (int state = 0; state < frames.length; state++)
+		{
+			frames[state] = table.get(state);
+		}
+		
+		return frames;
+	}
+}
@@ -0,0 +1,109 @@
+package benchmarks.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.MapGenerator;
+import com.FrameTable;
+import com.SpriteAtlas;
+import enums.Button;
+import enums.RenderMode;
+import enums.RenderScale;
+import screens.GameScreen;
+import screens.GameScreenDriver;
+
+/**
+ * Runs full simulation steps of a GameScreen on room maps of several sizes
+ * with several numbers of entities, while Samus paces left and right.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GameLoopBenchmarks
+{
+	private static final int WIDTH = 160;
+	private static final int HEIGHT = 144;
+	private static final int SCALER = 5;
+	private static final long FRAME_TIME = 1_000_000_000L / 60;
+	/**
+	 * Simulation steps Samus walks each way before turning around.
+	 */
+	private static final int PACE_STEPS = 30;
+	
+	/**
+	 * Number of tile rows and columns of the map.
+	 */
+	@Param({"36", "180", "720"})
+	public int mapSize;
+	
+	/**
+	 * Number of entities, Samus included.
+	 */
+	@Param({"1", "16", "256"})
+	public int entityCount;
+	
+	private GameScreen screen;
+	private GameScreenDriver driver;
+	private int step;
+	
+	
+	@Setup
+	public void setUp() throws IOException
+	{
+		SpriteAtlas atlas = GameScreen.loadAssets(SCALER, Runnable::run).join();
+		
+		screen = new GameScreen(
+				WIDTH,
+				HEIGHT,
+				SCALER,
+				FRAME_TIME,
+				RenderMode.PASSIVE,
+				RenderScale.SCALED,
+				atlas,
+				MapGenerator.writeRoomMap(mapSize, mapSize));
+		FrameTable frames = Drone.createFrames(atlas, SCALER);
+		
+		for (int i = 1; i < entityCount; i++)
+		{
+			screen.addEntity(new Drone(
+					i * 7 % WIDTH,
+					i * 13 % HEIGHT,
+					SCALER,
+					frames,
+					i));
+		}
+		
+		driver = new GameScreenDriver(screen);
+		step = 0;
+	}
+	
+	
+	@Benchmark
+	public void doFrame()
+	{
+		if (step % PACE_STEPS == 0)
+		{
+			boolean isLeft = step / PACE_STEPS % 2 == 0;
+			screen.getInputQueue().record(isLeft ? Button.RIGHT : Button.LEFT, false);
+			screen.getInputQueue().record(isLeft ? Button.LEFT : Button.RIGHT, true);
+		}
+		
+		step++;
+		driver.doFrame();
+	}
+}
@@ -0,0 +1,83 @@
+package benchmarks.jmh;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Swarm;
+import com.EntityStore;
+
+/**
+ * Measures how a simulation step of a Swarm in an EntityStore scales with
+ * the number of threads its systems run on. One thread runs every system
+ * serially on the benchmark thread, with no pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ParallelUpdateBenchmarks
+{
+	private static final long SEED = 22L;
+	
+	/**
+	 * Number of threads running the systems.
+	 */
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+	
+	/**
+	 * Number of actors in the swarm.
+	 */
+	@Param({"10000", "100000"})
+	public int entityCount;
+	
+	private ForkJoinPool pool;
+	private EntityStore store;
+	
+	
+	@Setup
+	public void setUp()
+	{
+		store = new EntityStore(entityCount);
+		Swarm.populate(store, entityCount, SEED);
+		
+		if (threads > 1)
+		{
+			pool = new ForkJoinPool(threads);
+			store.setPool(pool);
+		}
+	}
+	
+	
+	@TearDown
+	public void tearDown()
+	{
+		if (pool != null)
+		{
+			pool.shutdown();
+		}
+	}
+	
+	
+	@Benchmark
+	public EntityStore step()
+	{
+		Swarm.step(store);
+		return store;
+	}
+}
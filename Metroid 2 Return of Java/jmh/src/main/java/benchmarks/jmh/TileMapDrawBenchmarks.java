@@ -0,0 +1,95 @@
+package benchmarks.jmh;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.MapGenerator;
+import com.TileImageLoader;
+import com.TileMap;
+import com.TileSet;
+
+/**
+ * Draws the middle of square tile maps of several sizes into an offscreen
+ * image the size of the scaled screen, tile by tile and from the chunk
+ * cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TileMapDrawBenchmarks
+{
+	private static final int SCALER = 5;
+	private static final int VIEW_WIDTH = 160 * SCALER;
+	private static final int VIEW_HEIGHT = 144 * SCALER;
+	private static final long SEED = 42;
+	
+	/**
+	 * Number of tile rows and columns of the map.
+	 */
+	@Param({"64", "256", "1024"})
+	public int mapSize;
+	
+	/**
+	 * Whether the map draws from its chunk cache.
+	 */
+	@Param({"false", "true"})
+	public boolean isChunkCached;
+	
+	private TileMap tileMap;
+	private Graphics2D graphics;
+	
+	
+	@Setup
+	public void setUp() throws IOException
+	{
+		tileMap = new TileMap(
+				MapGenerator.writeTextMap(mapSize, mapSize, SEED),
+				new TileSet(new TileImageLoader(SCALER)),
+				SCALER);
+		tileMap.setChunkCached(isChunkCached);
+		
+		int mapPixels = mapSize * TileMap.BLOCK_SIZE * SCALER;
+		tileMap.setPosition(
+				-(mapPixels - VIEW_WIDTH) / 2,
+				-(mapPixels - VIEW_HEIGHT) / 2);
+		tileMap.savePosition();
+		
+		BufferedImage target = new BufferedImage(
+				VIEW_WIDTH,
+				VIEW_HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		graphics = target.createGraphics();
+	}
+	
+	
+	@TearDown
+	public void tearDown()
+	{
+		graphics.dispose();
+	}
+	
+	
+	@Benchmark
+	public void draw()
+	{
+		tileMap.draw(graphics, null, VIEW_WIDTH, VIEW_HEIGHT);
+	}
+}
@@ -0,0 +1,61 @@
+package benchmarks.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.MapGenerator;
+import com.TileImageLoader;
+import com.TileMap;
+import com.TileSet;
+
+/**
+ * Loads square tile map text files of several sizes into a TileMap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TileMapLoadBenchmarks
+{
+	private static final int SCALER = 5;
+	private static final long SEED = 42;
+	
+	/**
+	 * Number of tile rows and columns of the map.
+	 */
+	@Param({"64", "256", "1024"})
+	public int mapSize;
+	
+	private File mapFile;
+	private TileSet tileSet;
+	
+	
+	@Setup
+	public void setUp() throws IOException
+	{
+		mapFile = MapGenerator.writeTextMap(mapSize, mapSize, SEED);
+		tileSet = new TileSet(new TileImageLoader(SCALER));
+	}
+	
+	
+	@Benchmark
+	public TileMap load()
+	{
+		return new TileMap(mapFile, tileSet, SCALER);
+	}
+}
@@ -0,0 +1,41 @@
+package com;
+
+import java.util.List;
+
+/**
+ * Advances the animation of every entity from the game loop. Each call to
+ * tick is one simulation step, so animations run at the same speed as the
+ * simulation and play out the same way in every run, with or without a
+ * screen.
+ */
+public class Animator
+{
+	/**
+	 * Simulation steps animated so far.
+	 */
+	private long tickCount;
+	
+	
+	/**
+	 * Advances the animation of every entity by one simulation step.
+	 * @param entities Entities to animate.
+	 */
+	public void tick(List<? extends Entity> entities)
+	{
+		for (int i = 0; i < entities.size(); i++)
+		{
+			entities.get(i).animate();
+		}
+		
+		tickCount++;
+	}
+	
+	
+	/**
+	 * @return Simulation steps animated so far.
+	 */
+	public long getTickCount()
+	{
+		return tickCount;
+	}
+}
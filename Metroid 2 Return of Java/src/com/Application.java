@@ -1,9 +1,14 @@
 package com;
 
 import java.awt.EventQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 
+import enums.RenderMode;
+import enums.RenderScale;
 import screens.GameScreen;
 
 public class Application extends JFrame
@@ -13,9 +18,9 @@ public class Application extends JFrame
 	 */
 	private static final long serialVersionUID = -5763366259423127695L;
 	/**
-	 * Millisecond length of a frame for running the game at 60fps.
+	 * Nanosecond length of a frame for running the game at 60fps.
 	 */
-	private static final long FRAME_TIME_60 = 1000 / 60;
+	private static final long FRAME_TIME_60 = 1_000_000_000L / 60;
 	/**
 	 * Pixel width of the game window.
 	 */
@@ -28,15 +33,54 @@ public class Application extends JFrame
 	 * Multiplier to scale the size of the screen by.
 	 */
 	private static final int SCREEN_SCALE = 5;
+	/**
+	 * System property choosing how frames get onto the screen, either
+	 * "active" or "passive". Passive by default, since active rendering has
+	 * not been tried on a real display yet.
+	 */
+	private static final String RENDER_MODE_PROPERTY = "metroid.render";
+	/**
+	 * System property choosing the resolution the world is drawn at, either
+	 * "native" or "scaled".
+	 */
+	private static final String RENDER_SCALE_PROPERTY = "metroid.renderScale";
+	/**
+	 * System property choosing how many threads run the parallel systems of
+	 * the entity store. 1 or less runs them serially on the game thread.
+	 */
+	private static final String UPDATE_THREADS_PROPERTY = "metroid.updateThreads";
 
 	
-	public Application()
+	/**
+	 * Creates the game window.
+	 * @param renderMode How each frame gets onto the screen.
+	 * @param renderScale Resolution the world is drawn at.
+	 * @param atlas Atlas holding the images of the first scene.
+	 * @param updateThreads Number of threads to run the parallel systems of
+	 * the entity store on, or 1 to run them on the game thread.
+	 */
+	public Application(
+			RenderMode renderMode,
+			RenderScale renderScale,
+			SpriteAtlas atlas,
+			int updateThreads)
 	{
-		add(new GameScreen(
+		GameScreen screen = new GameScreen(
 				WIDTH, 
 				HEIGHT,
 				SCREEN_SCALE,
-				FRAME_TIME_60));
+				FRAME_TIME_60,
+				renderMode,
+				renderScale,
+				atlas);
+		
+		if (updateThreads > 1)
+		{
+			screen.getSimulation().getEntityStore().setPool(
+					new ForkJoinPool(updateThreads));
+		}
+		
+		add(screen);
 		
 		setResizable(false);
 		pack();
@@ -49,10 +93,43 @@ public class Application extends JFrame
 	
 	public static void main(String[] args)
 	{
-		EventQueue.invokeLater(() ->
+		RenderMode renderMode = RenderMode.fromName(
+				System.getProperty(RENDER_MODE_PROPERTY),
+				RenderMode.PASSIVE);
+		RenderScale renderScale = RenderScale.fromName(
+				System.getProperty(RENDER_SCALE_PROPERTY),
+				RenderScale.NATIVE);
+		int worldScaler = renderScale.getWorldScaler(SCREEN_SCALE);
+		int updateThreads = Integer.getInteger(UPDATE_THREADS_PROPERTY, 1);
+		
+		// The window is only shown once the first scene's images have loaded
+		ExecutorService loaderPool = AssetCache.newLoaderPool();
+		
+		GameScreen.loadAssets(worldScaler, loaderPool).whenComplete((atlas, error) ->
 		{
-			Application app = new Application();
-			app.setVisible(true);
+			loaderPool.shutdown();
+			
+			EventQueue.invokeLater(() ->
+			{
+				if (error != null)
+				{
+					System.err.println("Application: Assets could not be loaded.");
+					error.printStackTrace();
+					JOptionPane.showMessageDialog(
+							null,
+							"Assets could not be loaded.",
+							"Metroid 2: Return of Samus",
+							JOptionPane.ERROR_MESSAGE);
+					System.exit(1);
+				}
+				
+				Application app = new Application(
+						renderMode,
+						renderScale,
+						atlas,
+						updateThreads);
+				app.setVisible(true);
+			});
 		});
 	}
 }
@@ -0,0 +1,580 @@
+package com;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Process wide cache of decoded and scaled images, keyed by path name and
+ * scale, so each image is decoded once no matter how many sprites, tiles or
+ * atlases use it.
+ * <p>
+ * Images are counted as referenced between acquire and release. The cache
+ * holds up to a budget of bytes. Once over budget it evicts the least
+ * recently used images that nothing references. Referenced images are
+ * never evicted, so the cache may go over budget while they are in use.
+ * <p>
+ * Images are decoded with ImageIO outside of the cache's lock, so any number
+ * of threads can load at once. Each image is decoded only once at a time:
+ * asking for an image that is still being decoded waits for that decode.
+ * preload decodes a whole set of images in parallel on an executor before
+ * they are needed, and can pin them as referenced until they are used.
+ */
+public class AssetCache
+{
+	/**
+	 * Default number of bytes of images held.
+	 */
+	public static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+	/**
+	 * System property overriding the byte budget of the shared cache.
+	 */
+	private static final String BUDGET_PROPERTY = "metroid.assetCacheBytes";
+	/**
+	 * Most threads in a pool made by newLoaderPool.
+	 */
+	private static final int MAX_LOADER_THREADS = 8;
+	/**
+	 * Cache shared by the whole game.
+	 */
+	private static final AssetCache SHARED = new AssetCache(
+			Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET));
+	
+	/**
+	 * Cached images in least recently used order.
+	 */
+	private final LinkedHashMap<Key, Entry> entries;
+	/**
+	 * Images being decoded, not cached yet.
+	 */
+	private final Map<Key, PendingLoad> pendingLoads;
+	/**
+	 * Number of bytes of images held before unreferenced images are evicted.
+	 */
+	private long budget;
+	/**
+	 * Number of bytes of images currently held.
+	 */
+	private long byteCount;
+	/**
+	 * Number of requests answered from the cache.
+	 */
+	private long hitCount;
+	/**
+	 * Number of requests that had to load an image.
+	 */
+	private long missCount;
+	/**
+	 * Number of images evicted.
+	 */
+	private long evictionCount;
+	
+	
+	/**
+	 * Creates a new instance of AssetCache.
+	 * @param budget Number of bytes of images held before unreferenced
+	 * images are evicted.
+	 */
+	public AssetCache(long budget)
+	{
+		if (budget < 0)
+		{
+			throw new IllegalArgumentException("Budget must not be negative.");
+		}
+		
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+		this.pendingLoads = new HashMap<Key, PendingLoad>();
+		this.budget = budget;
+	}
+	
+	
+	/**
+	 * @return The cache shared by the whole game. Its budget can be set with
+	 * the metroid.assetCacheBytes system property.
+	 */
+	public static AssetCache getShared()
+	{
+		return SHARED;
+	}
+	
+	
+	/**
+	 * @return A new pool of daemon threads for preload, bounded by the number
+	 * of processors. The caller should shut it down once loading is done.
+	 */
+	public static ExecutorService newLoaderPool()
+	{
+		int threads = Math.max(1, Math.min(
+				Runtime.getRuntime().availableProcessors(),
+				MAX_LOADER_THREADS));
+		AtomicInteger threadCount = new AtomicInteger();
+		
+		return Executors.newFixedThreadPool(threads, runnable ->
+		{
+			Thread thread = new Thread(
+					runnable,
+					"Asset loader " + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	
+	/**
+	 * Gets a scaled image, loading it if it is not cached, and counts it as
+	 * referenced until released. If the image is already being decoded, waits
+	 * for that decode instead of starting another. The image must not be
+	 * drawn into.
+	 * @param pathName Path name of the image.
+	 * @param scale Multiplier to scale the image by.
+	 * @return The scaled image, or null if it could not be loaded.
+	 */
+	public BufferedImage acquire(String pathName, int scale)
+	{
+		Key key = new Key(pathName, scale);
+		PendingLoad pendingLoad;
+		boolean isLoading;
+		
+		synchronized (this)
+		{
+			Entry entry = entries.get(key);
+			
+			if (entry != null)
+			{
+				hitCount++;
+				entry.references++;
+				return entry.image;
+			}
+			
+			pendingLoad = pendingLoads.get(key);
+			isLoading = pendingLoad == null;
+			
+			if (isLoading)
+			{
+				missCount++;
+				pendingLoad = new PendingLoad();
+				pendingLoads.put(key, pendingLoad);
+			}
+			else
+			{
+				hitCount++;
+			}
+			
+			// Counted as soon as the image is stored, so it cannot be evicted
+			// before this thread gets to it
+			pendingLoad.references++;
+		}
+		
+		if (isLoading)
+		{
+			decode(key, pendingLoad);
+		}
+		else
+		{
+			pendingLoad.done.join();
+		}
+		
+		synchronized (this)
+		{
+			Entry entry = entries.get(key);
+			return entry == null ? null : entry.image;
+		}
+	}
+	
+	
+	/**
+	 * Decodes every image that is not already cached in parallel, leaving
+	 * them cached but unreferenced for acquire to find.
+	 * @param pathNames Path names of the images. Null, empty and repeated
+	 * path names are ignored.
+	 * @param scale Multiplier to scale each image by.
+	 * @param executor Executor to decode the images on.
+	 * @return Future completed once every image has been loaded or has
+	 * failed to load.
+	 */
+	public CompletableFuture<Void> preload(
+			Collection<String> pathNames,
+			int scale,
+			Executor executor)
+	{
+		return preload(pathNames, scale, executor, false);
+	}
+	
+	
+	/**
+	 * Decodes every image that is not already cached or being decoded in
+	 * parallel, leaving them cached for acquire to find.
+	 * @param pathNames Path names of the images. Null, empty and repeated
+	 * path names are ignored.
+	 * @param scale Multiplier to scale each image by.
+	 * @param executor Executor to decode the images on.
+	 * @param isPinned Whether to count each image as referenced once it is
+	 * cached, so it cannot be evicted before it is used. Pinned images must
+	 * be released with releaseAll.
+	 * @return Future completed once every image has been loaded or has
+	 * failed to load.
+	 */
+	public CompletableFuture<Void> preload(
+			Collection<String> pathNames,
+			int scale,
+			Executor executor,
+			boolean isPinned)
+	{
+		List<CompletableFuture<Void>> loads = new ArrayList<CompletableFuture<Void>>();
+		int references = isPinned ? 1 : 0;
+		
+		for (String pathName : new LinkedHashSet<String>(pathNames))
+		{
+			if (pathName == null || pathName.isEmpty())
+			{
+				continue;
+			}
+			
+			Key key = new Key(pathName, scale);
+			PendingLoad pendingLoad;
+			
+			synchronized (this)
+			{
+				Entry entry = entries.get(key);
+				
+				if (entry != null)
+				{
+					entry.references += references;
+					continue;
+				}
+				
+				pendingLoad = pendingLoads.get(key);
+				
+				if (pendingLoad != null)
+				{
+					pendingLoad.references += references;
+					loads.add(pendingLoad.done);
+					continue;
+				}
+				
+				missCount++;
+				pendingLoad = new PendingLoad();
+				pendingLoad.references = references;
+				pendingLoads.put(key, pendingLoad);
+			}
+			
+			PendingLoad started = pendingLoad;
+			loads.add(started.done);
+			executor.execute(() -> decode(key, started));
+		}
+		
+		return CompletableFuture.allOf(
+				loads.toArray(new CompletableFuture<?>[loads.size()]));
+	}
+	
+	
+	/**
+	 * Stops counting an image acquired earlier as referenced, letting it be
+	 * evicted once the cache is over budget.
+	 * @param pathName Path name of the image.
+	 * @param scale Multiplier the image was scaled by.
+	 */
+	public synchronized void release(String pathName, int scale)
+	{
+		Entry entry = entries.get(new Key(pathName, scale));
+		
+		if (entry != null && entry.references > 0)
+		{
+			entry.references--;
+			trim();
+		}
+	}
+	
+	
+	/**
+	 * Releases every image pinned by a call to preload.
+	 * @param pathNames Path names given to preload.
+	 * @param scale Multiplier given to preload.
+	 */
+	public synchronized void releaseAll(Collection<String> pathNames, int scale)
+	{
+		for (String pathName : new LinkedHashSet<String>(pathNames))
+		{
+			if (pathName != null && !pathName.isEmpty())
+			{
+				release(pathName, scale);
+			}
+		}
+	}
+	
+	
+	/**
+	 * @param budget Number of bytes of images held before unreferenced
+	 * images are evicted.
+	 */
+	public synchronized void setBudget(long budget)
+	{
+		if (budget < 0)
+		{
+			throw new IllegalArgumentException("Budget must not be negative.");
+		}
+		
+		this.budget = budget;
+		trim();
+	}
+	
+	
+	/**
+	 * @return Number of bytes of images held before unreferenced images are
+	 * evicted.
+	 */
+	public synchronized long getBudget()
+	{
+		return budget;
+	}
+	
+	
+	/**
+	 * @return Number of bytes of images currently held.
+	 */
+	public synchronized long getByteCount()
+	{
+		return byteCount;
+	}
+	
+	
+	/**
+	 * @return Number of images currently held.
+	 */
+	public synchronized int getEntryCount()
+	{
+		return entries.size();
+	}
+	
+	
+	/**
+	 * @return Number of requests answered from the cache.
+	 */
+	public synchronized long getHitCount()
+	{
+		return hitCount;
+	}
+	
+	
+	/**
+	 * @return Number of requests that had to load an image.
+	 */
+	public synchronized long getMissCount()
+	{
+		return missCount;
+	}
+	
+	
+	/**
+	 * @return Number of images evicted.
+	 */
+	public synchronized long getEvictionCount()
+	{
+		return evictionCount;
+	}
+	
+	
+	/**
+	 * @return Summary of the counters of this cache.
+	 */
+	public synchronized String getReport()
+	{
+		return String.format(
+				"Asset cache: %d images, %d of %d KB, %d hits, %d misses, %d evictions",
+				entries.size(),
+				byteCount / 1024,
+				budget / 1024,
+				hitCount,
+				missCount,
+				evictionCount);
+	}
+	
+	
+	/**
+	 * Decodes an image on the calling thread, caches it with the references
+	 * counted while it was pending, then wakes anything waiting for it.
+	 * @param key Path name and scale of the image.
+	 * @param pendingLoad Pending load registered for the image.
+	 */
+	private void decode(Key key, PendingLoad pendingLoad)
+	{
+		BufferedImage image = null;
+		
+		try
+		{
+			image = load(key.pathName, key.scale);
+		}
+		finally
+		{
+			synchronized (this)
+			{
+				pendingLoads.remove(key);
+				
+				if (image != null)
+				{
+					Entry entry = new Entry(image);
+					entry.references = pendingLoad.references;
+					entries.put(key, entry);
+					byteCount += entry.byteCount;
+					trim();
+				}
+			}
+			
+			// Completed outside of the lock, since waiting code may go on to
+			// do slow work such as packing an atlas
+			pendingLoad.done.complete(null);
+		}
+	}
+	
+	
+	/**
+	 * Evicts the least recently used unreferenced images until the cache is
+	 * within budget or only referenced images are left.
+	 */
+	private void trim()
+	{
+		Iterator<Entry> iterator = entries.values().iterator();
+		
+		while (byteCount > budget && iterator.hasNext())
+		{
+			Entry entry = iterator.next();
+			
+			if (entry.references == 0)
+			{
+				iterator.remove();
+				byteCount -= entry.byteCount;
+				evictionCount++;
+				entry.image.flush();
+			}
+		}
+	}
+	
+	
+	/**
+	 * Decodes an image and scales it by whole pixels.
+	 * @param pathName Path name of the image.
+	 * @param scale Multiplier to scale the image by.
+	 * @return The scaled image, or null if it could not be loaded.
+	 */
+	private static BufferedImage load(String pathName, int scale)
+	{
+		BufferedImage rawImage;
+		
+		try
+		{
+			rawImage = ImageIO.read(new File(pathName));
+		}
+		catch (IOException exception)
+		{
+			rawImage = null;
+		}
+		
+		if (rawImage == null)
+		{
+			System.err.println("AssetCache: " + pathName + " could not be loaded.");
+			return null;
+		}
+		
+		int width = rawImage.getWidth() * scale;
+		int height = rawImage.getHeight() * scale;
+		
+		BufferedImage image = new BufferedImage(
+				width,
+				height,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = image.createGraphics();
+		
+		try
+		{
+			graphics.drawImage(rawImage, 0, 0, width, height, null);
+		}
+		finally
+		{
+			graphics.dispose();
+			rawImage.flush();
+		}
+		
+		return image;
+	}
+	
+	
+	/**
+	 * Path name and scale identifying a cached image.
+	 */
+	private static class Key
+	{
+		private final String pathName;
+		private final int scale;
+		
+		
+		private Key(String pathName, int scale)
+		{
+			this.pathName = pathName;
+			this.scale = scale;
+		}
+		
+		
+		@Override
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof Key))
+			{
+				return false;
+			}
+			
+			Key key = (Key) other;
+			return scale == key.scale && pathName.equals(key.pathName);
+		}
+		
+		
+		@Override
+		public int hashCode()
+		{
+			return pathName.hashCode() * 31 + scale;
+		}
+	}
+	
+	
+	/**
+	 * An image being decoded and how many users will hold it once cached.
+	 */
+	private static class PendingLoad
+	{
+		private final CompletableFuture<Void> done = new CompletableFuture<Void>();
+		private int references;
+	}
+	
+	
+	/**
+	 * A cached image and how many users hold it.
+	 */
+	private static class Entry
+	{
+		private final BufferedImage image;
+		private final long byteCount;
+		private int references;
+		
+		
+		private Entry(BufferedImage image)
+		{
+			this.image = image;
+			this.byteCount = 4L * image.getWidth() * image.getHeight();
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.image.ImageObserver;
+
+/**
+ * A single image packed into a sheet of a SpriteAtlas. Drawing a frame
+ * copies its area of the sheet, so every frame on the same sheet is drawn
+ * from the same source image.
+ */
+public class AtlasFrame
+{
+	/**
+	 * Sheet holding this frame.
+	 */
+	private final Image sheet;
+	/**
+	 * Horizontal pixel position of this frame within its sheet.
+	 */
+	private final int x;
+	/**
+	 * Vertical pixel position of this frame within its sheet.
+	 */
+	private final int y;
+	/**
+	 * Pixel width of this frame.
+	 */
+	private final int width;
+	/**
+	 * Pixel height of this frame.
+	 */
+	private final int height;
+	
+	
+	/**
+	 * Creates a new instance of AtlasFrame.
+	 * @param sheet Sheet holding the frame.
+	 * @param x Horizontal pixel position of the frame within its sheet.
+	 * @param y Vertical pixel position of the frame within its sheet.
+	 * @param width Pixel width of the frame.
+	 * @param height Pixel height of the frame.
+	 */
+	public AtlasFrame(Image sheet, int x, int y, int width, int height)
+	{
+		this.sheet = sheet;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+	}
+	
+	
+	/**
+	 * Draws this frame with its top left corner at the given position.
+	 * @param graphics Incoming graphics object.
+	 * @param drawX Horizontal pixel position to draw at.
+	 * @param drawY Vertical pixel position to draw at.
+	 * @param observer Object to be notified as the sheet is drawn.
+	 * @return Whether the frame was completely drawn.
+	 */
+	public boolean draw(
+			Graphics graphics,
+			int drawX,
+			int drawY,
+			ImageObserver observer)
+	{
+		return graphics.drawImage(
+				sheet,
+				drawX,
+				drawY,
+				drawX + width,
+				drawY + height,
+				x,
+				y,
+				x + width,
+				y + height,
+				observer);
+	}
+	
+	
+	/**
+	 * @return Sheet holding this frame.
+	 */
+	public Image getSheet()
+	{
+		return sheet;
+	}
+	
+	
+	/**
+	 * @return Horizontal pixel position of this frame within its sheet.
+	 */
+	public int getX()
+	{
+		return x;
+	}
+	
+	
+	/**
+	 * @return Vertical pixel position of this frame within its sheet.
+	 */
+	public int getY()
+	{
+		return y;
+	}
+	
+	
+	/**
+	 * @return Pixel width of this frame.
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+	
+	
+	/**
+	 * @return Pixel height of this frame.
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+}
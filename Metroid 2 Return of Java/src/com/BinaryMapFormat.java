@@ -0,0 +1,425 @@
+package com;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary map format. A map is written as a header followed by the
+ * tiles of every cell, row by row.
+ * <p>
+ * The header holds the magic number "M2MP", the format version, how the
+ * body is encoded, the rows and columns of the map and a palette of the
+ * symbols used in the map text. The body stores each cell as an index into
+ * the palette, either as runs of repeated indices or packed into as few bits
+ * per cell as the palette needs, whichever is smaller. Storing symbols rather
+ * than tile identification numbers keeps maps readable if the numbers change.
+ */
+public final class BinaryMapFormat
+{
+	/**
+	 * First four bytes of every binary map file, "M2MP".
+	 */
+	public static final int MAGIC = 0x4D324D50;
+	/**
+	 * Version of the format written by this class.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Body encoding storing runs of repeated palette indices.
+	 */
+	private static final int RUN_LENGTH = 0;
+	/**
+	 * Body encoding storing every palette index in a fixed number of bits.
+	 */
+	private static final int BIT_PACKED = 1;
+	/**
+	 * Most symbols a palette can hold.
+	 */
+	private static final int MAX_PALETTE = 256;
+	
+	
+	private BinaryMapFormat()
+	{
+	}
+	
+	
+	/**
+	 * Writes a map to a binary map file.
+	 * @param grid Tile identification numbers of every cell of the map.
+	 * @param tileSet Table of every type of tile the map holds.
+	 * @param file File to write.
+	 * @throws IOException If the file could not be written.
+	 */
+	public static void write(TileGrid grid, TileSet tileSet, File file)
+			throws IOException
+	{
+		byte[] tiles = grid.getTiles();
+		
+		// Palette index of each tile identification number, offset by one so
+		// that EMPTY is found at index 0 of the lookup
+		int[] paletteIndices = new int[TileSet.MAX_TILES + 1];
+		char[] palette = new char[MAX_PALETTE];
+		int paletteSize = 0;
+		
+		for (int i = 0; i < paletteIndices.length; i++)
+		{
+			paletteIndices[i] = -1;
+		}
+		
+		byte[] indices = new byte[tiles.length];
+		
+		for (int i = 0; i < tiles.length; i++)
+		{
+			int ID = tiles[i];
+			
+			if (paletteIndices[ID + 1] == -1)
+			{
+				paletteIndices[ID + 1] = paletteSize;
+				palette[paletteSize++] = getSymbol(ID, tileSet);
+			}
+			
+			indices[i] = (byte) paletteIndices[ID + 1];
+		}
+		
+		byte[] runs = encodeRuns(indices);
+		byte[] packed = encodeBits(indices, getBitsPerCell(paletteSize));
+		boolean isRunLength = runs.length <= packed.length;
+		
+		DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)));
+		
+		try
+		{
+			output.writeInt(MAGIC);
+			output.writeShort(VERSION);
+			output.writeByte(isRunLength ? RUN_LENGTH : BIT_PACKED);
+			output.writeInt(grid.getRows());
+			output.writeInt(grid.getColumns());
+			output.writeShort(paletteSize);
+			
+			for (int i = 0; i < paletteSize; i++)
+			{
+				output.writeByte(palette[i]);
+			}
+			
+			output.write(isRunLength ? runs : packed);
+		}
+		finally
+		{
+			output.close();
+		}
+	}
+	
+	
+	/**
+	 * @param buffer Bytes of a map file.
+	 * @return Whether the bytes start with the binary map magic number. The
+	 * position of the buffer is left unchanged.
+	 */
+	static boolean isBinaryMap(ByteBuffer buffer)
+	{
+		return buffer.remaining() >= 4 &&
+				buffer.getInt(buffer.position()) == MAGIC;
+	}
+	
+	
+	/**
+	 * Reads the bytes of a binary map file.
+	 * @param buffer Bytes of the map file, starting at the magic number.
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @return Tile identification numbers of every cell of the map.
+	 * @throws MapFormatException If the map file is malformed or of an
+	 * unsupported version.
+	 */
+	static TileGrid read(ByteBuffer buffer, TileSet tileSet)
+			throws MapFormatException
+	{
+		try
+		{
+			if (buffer.getInt() != MAGIC)
+			{
+				throw new MapFormatException("Not a binary map file.", 0);
+			}
+			
+			int version = buffer.getShort() & 0xFFFF;
+			
+			if (version != VERSION)
+			{
+				throw new MapFormatException(
+						"Unsupported binary map version " + version + ".", 0);
+			}
+			
+			int encoding = buffer.get();
+			int rows = buffer.getInt();
+			int cols = buffer.getInt();
+			int paletteSize = buffer.getShort() & 0xFFFF;
+			
+			if (rows < 0 || cols < 0 ||
+					(long) rows * cols > Integer.MAX_VALUE ||
+					paletteSize < 1 || paletteSize > MAX_PALETTE)
+			{
+				throw new MapFormatException("Corrupt binary map header.", 0);
+			}
+			
+			byte[] paletteIDs = new byte[paletteSize];
+			
+			for (int i = 0; i < paletteSize; i++)
+			{
+				char symbol = (char) (buffer.get() & 0xFF);
+				int ID = tileSet.getID(symbol);
+				
+				if (ID == TileSet.EMPTY &&
+						symbol != TileMapLoader.EMPTY_SYMBOL)
+				{
+					throw new MapFormatException(
+							"Unknown tile symbol '" + symbol + "' in palette.", 0);
+				}
+				
+				paletteIDs[i] = (byte) ID;
+			}
+			
+			byte[] tiles = new byte[rows * cols];
+			
+			if (encoding == RUN_LENGTH)
+			{
+				decodeRuns(buffer, tiles, paletteIDs);
+			}
+			else if (encoding == BIT_PACKED)
+			{
+				decodeBits(buffer, tiles, paletteIDs, getBitsPerCell(paletteSize));
+			}
+			else
+			{
+				throw new MapFormatException(
+						"Unknown binary map encoding " + encoding + ".", 0);
+			}
+			
+			return new TileGrid(rows, cols, tiles);
+		}
+		catch (BufferUnderflowException exception)
+		{
+			throw new MapFormatException("Binary map file is truncated.", 0);
+		}
+	}
+	
+	
+	/**
+	 * @param ID Tile identification number, or TileSet.EMPTY.
+	 * @param tileSet Table of every type of tile the map holds.
+	 * @return Character representing the tile in tile map text files.
+	 */
+	private static char getSymbol(int ID, TileSet tileSet)
+	{
+		if (ID == TileSet.EMPTY)
+		{
+			return TileMapLoader.EMPTY_SYMBOL;
+		}
+		
+		Tile tile = tileSet.get(ID);
+		
+		if (tile == null)
+		{
+			throw new IllegalArgumentException(
+					"Tile " + ID + " is not in the TileSet.");
+		}
+		
+		return tile.getSymbol();
+	}
+	
+	
+	/**
+	 * @param paletteSize Number of symbols in the palette.
+	 * @return Number of bits needed to store any palette index.
+	 */
+	private static int getBitsPerCell(int paletteSize)
+	{
+		return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+	}
+	
+	
+	/**
+	 * Encodes palette indices as pairs of an index and how many times in a row
+	 * it repeats. Repeat counts are written seven bits to a byte, with the top
+	 * bit of each byte set when another byte follows.
+	 * @param indices Palette index of every cell.
+	 * @return Encoded runs.
+	 */
+	private static byte[] encodeRuns(byte[] indices)
+	{
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int i = 0;
+		
+		while (i < indices.length)
+		{
+			int run = countRun(indices, i);
+			
+			output.write(indices[i]);
+			i += run;
+			
+			while (run >= 0x80)
+			{
+				output.write((run & 0x7F) | 0x80);
+				run >>>= 7;
+			}
+			
+			output.write(run);
+		}
+		
+		return output.toByteArray();
+	}
+	
+	
+	/**
+	 * @param indices Palette index of every cell.
+	 * @param start Cell the run starts at.
+	 * @return Number of cells in a row starting at start holding the same
+	 * palette index.
+	 */
+	private static int countRun(byte[] indices, int start)
+	{
+		int end = start + 1;
+		
+		while (end < indices.length && indices[end] == indices[start])
+		{
+			end++;
+		}
+		
+		return end - start;
+	}
+	
+	
+	/**
+	 * Decodes runs written by encodeRuns.
+	 * @param buffer Encoded runs.
+	 * @param tiles Array to fill with the tile of every cell.
+	 * @param paletteIDs Tile identification number of each palette index.
+	 * @throws MapFormatException If the runs do not fill the map exactly.
+	 */
+	private static void decodeRuns(
+			ByteBuffer buffer,
+			byte[] tiles,
+			byte[] paletteIDs) throws MapFormatException
+	{
+		int cell = 0;
+		
+		while (cell < tiles.length)
+		{
+			int index = buffer.get() & 0xFF;
+			int run = 0;
+			int shift = 0;
+			int part;
+			
+			do
+			{
+				part = buffer.get();
+				run |= (part & 0x7F) << shift;
+				shift += 7;
+			}
+			while ((part & 0x80) != 0 && shift < 32);
+			
+			if (index >= paletteIDs.length || run < 1 ||
+					run > tiles.length - cell)
+			{
+				throw new MapFormatException("Corrupt binary map body.", 0);
+			}
+			
+			byte ID = paletteIDs[index];
+			
+			for (int end = cell + run; cell < end; cell++)
+			{
+				tiles[cell] = ID;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Packs palette indices into a fixed number of bits each, lowest bits
+	 * first.
+	 * @param indices Palette index of every cell.
+	 * @param bitsPerCell Number of bits to store each index in.
+	 * @return Packed indices.
+	 */
+	private static byte[] encodeBits(byte[] indices, int bitsPerCell)
+	{
+		byte[] packed = new byte[(int) (((long) indices.length * bitsPerCell + 7) / 8)];
+		long bit = 0;
+		
+		for (byte index : indices)
+		{
+			int value = index & 0xFF;
+			
+			for (int i = 0; i < bitsPerCell; i++, bit++)
+			{
+				if ((value & (1 << i)) != 0)
+				{
+					packed[(int) (bit >>> 3)] |= 1 << (bit & 7);
+				}
+			}
+		}
+		
+		return packed;
+	}
+	
+	
+	/**
+	 * Unpacks indices written by encodeBits.
+	 * @param buffer Packed indices.
+	 * @param tiles Array to fill with the tile of every cell.
+	 * @param paletteIDs Tile identification number of each palette index.
+	 * @param bitsPerCell Number of bits each index is stored in.
+	 * @throws MapFormatException If an index is outside of the palette.
+	 */
+	private static void decodeBits(
+			ByteBuffer buffer,
+			byte[] tiles,
+			byte[] paletteIDs,
+			int bitsPerCell) throws MapFormatException
+	{
+		int mask = (1 << bitsPerCell) - 1;
+		byte[] packed =
+				new byte[(int) (((long) tiles.length * bitsPerCell + 7) / 8)];
+		buffer.get(packed);
+		
+		// Tile identification number for every value an index can hold, so
+		// indices past the end of the palette are caught in one place
+		byte[] indexIDs = new byte[mask + 1];
+		boolean[] isValid = new boolean[mask + 1];
+		
+		for (int i = 0; i < paletteIDs.length && i <= mask; i++)
+		{
+			indexIDs[i] = paletteIDs[i];
+			isValid[i] = true;
+		}
+		
+		int bits = 0;
+		int bitCount = 0;
+		int next = 0;
+		
+		for (int cell = 0; cell < tiles.length; cell++)
+		{
+			if (bitCount < bitsPerCell)
+			{
+				bits |= (packed[next++] & 0xFF) << bitCount;
+				bitCount += 8;
+			}
+			
+			int index = bits & mask;
+			bits >>>= bitsPerCell;
+			bitCount -= bitsPerCell;
+			
+			if (!isValid[index])
+			{
+				throw new MapFormatException("Corrupt binary map body.", 0);
+			}
+			
+			tiles[cell] = indexIDs[index];
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package com;
+
+/**
+ * View onto the world, as a rectangle in world pixel coordinates. The camera
+ * follows a target, only moving once the target leaves a dead zone in the
+ * middle of the view, and is kept inside the bounds of the current room so
+ * nothing past its edges is shown.
+ * <p>
+ * Renderers ask the camera whether an area is visible before drawing it, so
+ * nothing off screen is handed to Graphics.
+ */
+public class Camera
+{
+	/**
+	 * Unscaled pixel width of the dead zone in the middle of the view.
+	 */
+	public static final int DEFAULT_DEAD_ZONE_WIDTH = 32;
+	/**
+	 * Unscaled pixel height of the dead zone in the middle of the view.
+	 */
+	public static final int DEFAULT_DEAD_ZONE_HEIGHT = 48;
+	
+	/**
+	 * Pixel width of the view.
+	 */
+	private final int width;
+	/**
+	 * Pixel height of the view.
+	 */
+	private final int height;
+	/**
+	 * Pixel width of the area in the middle of the view the target can move
+	 * within without moving the camera.
+	 */
+	private final int deadZoneWidth;
+	/**
+	 * Pixel height of the area in the middle of the view the target can move
+	 * within without moving the camera.
+	 */
+	private final int deadZoneHeight;
+	/**
+	 * Horizontal pixel coordinate of the left edge of the view.
+	 */
+	private int x;
+	/**
+	 * Vertical pixel coordinate of the top edge of the view.
+	 */
+	private int y;
+	/**
+	 * Horizontal pixel coordinate of the view at the start of the current
+	 * simulation step.
+	 */
+	private int previousX;
+	/**
+	 * Vertical pixel coordinate of the view at the start of the current
+	 * simulation step.
+	 */
+	private int previousY;
+	/**
+	 * Leftmost pixel the view may show.
+	 */
+	private int minX;
+	/**
+	 * Topmost pixel the view may show.
+	 */
+	private int minY;
+	/**
+	 * Pixel just right of the last one the view may show.
+	 */
+	private int maxX;
+	/**
+	 * Pixel just below the last one the view may show.
+	 */
+	private int maxY;
+	
+	
+	/**
+	 * Creates a new instance of Camera with no bounds.
+	 * @param width Pixel width of the view.
+	 * @param height Pixel height of the view.
+	 * @param deadZoneWidth Pixel width of the dead zone in the middle of the
+	 * view.
+	 * @param deadZoneHeight Pixel height of the dead zone in the middle of the
+	 * view.
+	 */
+	public Camera(int width, int height, int deadZoneWidth, int deadZoneHeight)
+	{
+		if (width <= 0 || height <= 0)
+		{
+			throw new IllegalArgumentException("View size must be positive.");
+		}
+		
+		this.width = width;
+		this.height = height;
+		this.deadZoneWidth = Math.max(0, Math.min(width, deadZoneWidth));
+		this.deadZoneHeight = Math.max(0, Math.min(height, deadZoneHeight));
+		
+		setBounds(
+				Integer.MIN_VALUE / 2,
+				Integer.MIN_VALUE / 2,
+				Integer.MAX_VALUE / 2,
+				Integer.MAX_VALUE / 2);
+	}
+	
+	
+	/**
+	 * Sets the area the view is kept inside of, such as the room being
+	 * played, and moves the view back inside of it. An area smaller than the
+	 * view is centred on.
+	 * @param minX Leftmost pixel the view may show.
+	 * @param minY Topmost pixel the view may show.
+	 * @param maxX Pixel just right of the last one the view may show.
+	 * @param maxY Pixel just below the last one the view may show.
+	 */
+	public void setBounds(int minX, int minY, int maxX, int maxY)
+	{
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		
+		setPosition(x, y);
+	}
+	
+	
+	/**
+	 * Moves the view just far enough for the collision bounds of a target to
+	 * be back inside the dead zone, then keeps the view inside its bounds.
+	 * @param target Sprite to follow.
+	 */
+	public void follow(Sprite target)
+	{
+		int deadZoneLeft = x + (width - deadZoneWidth) / 2;
+		int deadZoneTop = y + (height - deadZoneHeight) / 2;
+		int newX = x;
+		int newY = y;
+		
+		if (target.getMinX() < deadZoneLeft)
+		{
+			newX += target.getMinX() - deadZoneLeft;
+		}
+		else if (target.getMaxX() > deadZoneLeft + deadZoneWidth)
+		{
+			newX += target.getMaxX() - (deadZoneLeft + deadZoneWidth);
+		}
+		
+		if (target.getMinY() < deadZoneTop)
+		{
+			newY += target.getMinY() - deadZoneTop;
+		}
+		else if (target.getMaxY() > deadZoneTop + deadZoneHeight)
+		{
+			newY += target.getMaxY() - (deadZoneTop + deadZoneHeight);
+		}
+		
+		setPosition(newX, newY);
+	}
+	
+	
+	/**
+	 * Moves the view, keeping it inside its bounds.
+	 * @param x Horizontal pixel coordinate of the left edge of the view.
+	 * @param y Vertical pixel coordinate of the top edge of the view.
+	 */
+	public void setPosition(int x, int y)
+	{
+		this.x = clamp(x, minX, maxX, width);
+		this.y = clamp(y, minY, maxY, height);
+	}
+	
+	
+	/**
+	 * Remembers the current position as where the view was at the start of a
+	 * simulation step, to be drawn between the two.
+	 */
+	public void savePosition()
+	{
+		previousX = x;
+		previousY = y;
+	}
+	
+	
+	/**
+	 * @param minX Leftmost pixel of an area in world pixel coordinates.
+	 * @param minY Topmost pixel of the area.
+	 * @param maxX Pixel just right of the area.
+	 * @param maxY Pixel just below the area.
+	 * @return Whether any of the area is in view anywhere between the last
+	 * two simulation steps, so whatever the render alpha, an area that is
+	 * not visible does not need drawing.
+	 */
+	public boolean isVisible(int minX, int minY, int maxX, int maxY)
+	{
+		return maxX > Math.min(previousX, x) &&
+				maxY > Math.min(previousY, y) &&
+				minX < Math.max(previousX, x) + width &&
+				minY < Math.max(previousY, y) + height;
+	}
+	
+	
+	/**
+	 * @param alpha How far between the start of the simulation step and now
+	 * to look, from 0 to 1.
+	 * @return Horizontal pixel coordinate of the left edge of the view to
+	 * draw from.
+	 */
+	public int getDrawX(double alpha)
+	{
+		return previousX + (int) Math.round((x - previousX) * alpha);
+	}
+	
+	
+	/**
+	 * @param alpha How far between the start of the simulation step and now
+	 * to look, from 0 to 1.
+	 * @return Vertical pixel coordinate of the top edge of the view to draw
+	 * from.
+	 */
+	public int getDrawY(double alpha)
+	{
+		return previousY + (int) Math.round((y - previousY) * alpha);
+	}
+	
+	
+	/**
+	 * @return Horizontal pixel coordinate of the left edge of the view.
+	 */
+	public int getX()
+	{
+		return x;
+	}
+	
+	
+	/**
+	 * @return Vertical pixel coordinate of the top edge of the view.
+	 */
+	public int getY()
+	{
+		return y;
+	}
+	
+	
+	/**
+	 * @return Pixel width of the view.
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+	
+	
+	/**
+	 * @return Pixel height of the view.
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+	
+	
+	/**
+	 * @param position Coordinate of the near edge of the view.
+	 * @param min Nearest pixel the view may show.
+	 * @param max Pixel just past the farthest one the view may show.
+	 * @param size Pixel size of the view.
+	 * @return The position moved so the view stays between min and max, or
+	 * centred between them if they are closer together than the view size.
+	 */
+	private static int clamp(int position, int min, int max, int size)
+	{
+		if (max - min <= size)
+		{
+			return min - (size - (max - min)) / 2;
+		}
+		
+		return Math.max(min, Math.min(max - size, position));
+	}
+}
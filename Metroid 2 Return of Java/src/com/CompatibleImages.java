@@ -0,0 +1,90 @@
+package com;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Creates images in the pixel format of the screen. Java2D can keep such
+ * images in video memory and draw them without converting each pixel, which
+ * it cannot do for images in other formats or for lazily scaled images.
+ * <p>
+ * Without a screen the images fall back to integer RGB formats.
+ */
+public final class CompatibleImages
+{
+	private CompatibleImages()
+	{
+	}
+	
+	
+	/**
+	 * Creates a new image compatible with the default screen.
+	 * @param width Pixel width of the image.
+	 * @param height Pixel height of the image.
+	 * @param transparency Transparency.OPAQUE, BITMASK or TRANSLUCENT.
+	 * @return Image cleared to transparent, or black if opaque.
+	 */
+	public static BufferedImage create(int width, int height, int transparency)
+	{
+		if (GraphicsEnvironment.isHeadless())
+		{
+			return new BufferedImage(
+					width,
+					height,
+					transparency == Transparency.OPAQUE ?
+							BufferedImage.TYPE_INT_RGB :
+							BufferedImage.TYPE_INT_ARGB_PRE);
+		}
+		
+		GraphicsConfiguration configuration = GraphicsEnvironment
+				.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice()
+				.getDefaultConfiguration();
+		
+		return configuration.createCompatibleImage(width, height, transparency);
+	}
+	
+	
+	/**
+	 * Works out the least transparency an image needs, so it can be copied
+	 * into the cheapest compatible format.
+	 * @param image Image to look through.
+	 * @return Transparency.OPAQUE if every pixel is opaque, BITMASK if every
+	 * pixel is either opaque or fully transparent, otherwise TRANSLUCENT.
+	 */
+	public static int getTransparency(BufferedImage image)
+	{
+		if (image.getTransparency() == Transparency.OPAQUE)
+		{
+			return Transparency.OPAQUE;
+		}
+		
+		int width = image.getWidth();
+		int[] row = new int[width];
+		int transparency = Transparency.OPAQUE;
+		
+		for (int y = 0; y < image.getHeight(); y++)
+		{
+			image.getRGB(0, y, width, 1, row, 0, width);
+			
+			for (int x = 0; x < width; x++)
+			{
+				int alpha = row[x] >>> 24;
+				
+				if (alpha != 0xFF)
+				{
+					if (alpha != 0)
+					{
+						return Transparency.TRANSLUCENT;
+					}
+					
+					transparency = Transparency.BITMASK;
+				}
+			}
+		}
+		
+		return transparency;
+	}
+}
@@ -0,0 +1,155 @@
+package com;
+
+/**
+ * Area of the screen that has changed since it was last drawn, kept as a
+ * single rectangle holding every change. A region can also be marked as
+ * covering the whole screen, for when everything moves at once.
+ * <p>
+ * Adding to a region allocates nothing, so it can be updated every frame.
+ */
+public class DirtyRegion
+{
+	/**
+	 * Leftmost changed pixel.
+	 */
+	private int minX;
+	/**
+	 * Topmost changed pixel.
+	 */
+	private int minY;
+	/**
+	 * Pixel just past the rightmost changed pixel.
+	 */
+	private int maxX;
+	/**
+	 * Pixel just past the bottommost changed pixel.
+	 */
+	private int maxY;
+	/**
+	 * Whether no area has been added since the region was last cleared.
+	 */
+	private boolean isEmpty;
+	/**
+	 * Whether the whole screen has changed.
+	 */
+	private boolean isFull;
+	
+	
+	/**
+	 * Creates a new instance of DirtyRegion holding no changes.
+	 */
+	public DirtyRegion()
+	{
+		clear();
+	}
+	
+	
+	/**
+	 * Grows the region to hold a changed rectangle. Empty rectangles are
+	 * ignored.
+	 * @param minX Leftmost changed pixel.
+	 * @param minY Topmost changed pixel.
+	 * @param maxX Pixel just past the rightmost changed pixel.
+	 * @param maxY Pixel just past the bottommost changed pixel.
+	 */
+	public void add(int minX, int minY, int maxX, int maxY)
+	{
+		if (minX >= maxX || minY >= maxY)
+		{
+			return;
+		}
+		
+		if (isEmpty)
+		{
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+			isEmpty = false;
+			return;
+		}
+		
+		this.minX = Math.min(this.minX, minX);
+		this.minY = Math.min(this.minY, minY);
+		this.maxX = Math.max(this.maxX, maxX);
+		this.maxY = Math.max(this.maxY, maxY);
+	}
+	
+	
+	/**
+	 * Marks the whole screen as changed.
+	 */
+	public void addAll()
+	{
+		isFull = true;
+	}
+	
+	
+	/**
+	 * Empties the region once its changes have been drawn.
+	 */
+	public void clear()
+	{
+		minX = 0;
+		minY = 0;
+		maxX = 0;
+		maxY = 0;
+		isEmpty = true;
+		isFull = false;
+	}
+	
+	
+	/**
+	 * @return Whether nothing has changed.
+	 */
+	public boolean isEmpty()
+	{
+		return isEmpty && !isFull;
+	}
+	
+	
+	/**
+	 * @return Whether the whole screen has changed. The bounds of the region
+	 * only hold the rectangles added and should be ignored.
+	 */
+	public boolean isFull()
+	{
+		return isFull;
+	}
+	
+	
+	/**
+	 * @return Leftmost changed pixel.
+	 */
+	public int getMinX()
+	{
+		return minX;
+	}
+	
+	
+	/**
+	 * @return Topmost changed pixel.
+	 */
+	public int getMinY()
+	{
+		return minY;
+	}
+	
+	
+	/**
+	 * @return Pixel just past the rightmost changed pixel.
+	 */
+	public int getMaxX()
+	{
+		return maxX;
+	}
+	
+	
+	/**
+	 * @return Pixel just past the bottommost changed pixel.
+	 */
+	public int getMaxY()
+	{
+		return maxY;
+	}
+}
@@ -1,12 +1,6 @@
 package com;
 
-import java.awt.Image;
-import java.awt.Rectangle;
-import java.awt.event.ActionListener;
-
-import javax.swing.ImageIcon;
-
-public abstract class Entity extends Sprite implements ActionListener
+public abstract class Entity extends Sprite
 {
 	/**
 	 * This entity's unique identification number.
@@ -53,21 +47,39 @@ public abstract class Entity extends Sprite implements ActionListener
 	 */
 	protected int scaler;
 	/**
-	 * The maximum number of frames this entity has in its longest animation.
+	 * All images used to represent this entity, loaded a state at a time as
+	 * each state is first played.
+	 */
+	protected FrameTable frames;
+	/**
+	 * State whose animation is playing, or -1 if none has been played.
+	 */
+	private int animationState;
+	/**
+	 * Current frame of the playing animation.
 	 */
-	protected int maxAnimationFrames;
+	private int animationFrame;
 	/**
-	 * All images used to represent this entity.
+	 * Number of frames in the playing animation.
 	 */
-	protected Image[][] frames;
+	private int animationFrameCount;
+	/**
+	 * Simulation steps each frame of the playing animation is shown for. 0
+	 * if the animation does not advance.
+	 */
+	private int frameTicks;
+	/**
+	 * Simulation steps left before the next frame is shown.
+	 */
+	private int ticksLeft;
 	
 
 	/**
 	 * Setup a new instance of Entity.
 	 * @param x Starting horizontal pixel coordinate.
 	 * @param y Starting vertical pixel coordinate.
-	 * @param pathNames Path names for each image used to represent this 
-	 * entity.
+	 * @param frames Table of each image used to represent this entity, by
+	 * state and frame. Nothing is loaded until a state is played.
 	 */
 	public Entity(
 			int x, 
@@ -78,12 +90,12 @@ public abstract class Entity extends Sprite implements ActionListener
 			int boundsOffsetY,
 			int scaler, 
 			int eID, 
-			String[][] pathNames, 
-			int maxAnimationFrames) 
+			FrameTable frames)
 	{
 		super(x, y, scaler);
 		this.eID = eID;
-		this.maxAnimationFrames = maxAnimationFrames;
+		this.scaler = scaler;
+		this.frames = frames;
 		this.boundsWidth = boundsWidth;
 		this.boundsHeight = boundsHeight;
 		this.boundsOffsetX = boundsOffsetX;
@@ -91,18 +103,35 @@ public abstract class Entity extends Sprite implements ActionListener
 		
 		dx = 0;
 		dy = 0;
-		
-		loadFrames(pathNames, scaler);
+		animationState = -1;
+	}
+	
+	
+	@Override
+	public int getMinX()
+	{
+		return x + boundsOffsetX;
+	}
+	
+	
+	@Override
+	public int getMinY()
+	{
+		return y + boundsOffsetY;
+	}
+	
+	
+	@Override
+	public int getMaxX()
+	{
+		return x + boundsOffsetX + boundsWidth;
 	}
 	
 	
-	public Rectangle getBounds()
+	@Override
+	public int getMaxY()
 	{
-		return new Rectangle(
-				x + boundsOffsetX,
-				y + boundsOffsetY, 
-				boundsWidth, 
-				boundsHeight);
+		return y + boundsOffsetY + boundsHeight;
 	}
 	
 	
@@ -160,29 +189,58 @@ public abstract class Entity extends Sprite implements ActionListener
 	
 	
 	/**
-	 * Loads each frame of this entity into memory
-	 * @param pathNames Path names to each frame.
+	 * Advances the playing animation by one simulation step. Called once per
+	 * step by the Animator.
 	 */
-	protected void loadFrames(String[][] pathNames, int scaler)
+	public void animate()
 	{
-		frames = new Image[pathNames.length][maxAnimationFrames];
+		if (frameTicks <= 0 || animationFrameCount < 2)
+		{
+			return;
+		}
 		
-		for (int row = 0; row < pathNames.length; row++)
+		if (--ticksLeft > 0)
+		{
+			return;
+		}
+		
+		ticksLeft = frameTicks;
+		animationFrame = (animationFrame + 1) % animationFrameCount;
+		setFrame(animationState, animationFrame);
+	}
+	
+	
+	/**
+	 * @return Current frame of the playing animation.
+	 */
+	public int getAnimationFrame()
+	{
+		return animationFrame;
+	}
+	
+	
+	/**
+	 * Starts playing the animation of a state from its first frame. Does
+	 * nothing if that state's animation is already playing.
+	 * @param state State whose frames to play.
+	 * @param frameCount Number of frames in the state's animation.
+	 * @param frameTicks Simulation steps to show each frame for, or 0 to
+	 * stay on the first frame.
+	 */
+	protected void playAnimation(int state, int frameCount, int frameTicks)
+	{
+		if (state == animationState)
 		{
-			for (int col = 0; col < pathNames[0].length; col++)
-			{
-				if (pathNames[row][col] != null)
-				{
-					ImageIcon icon = new ImageIcon(pathNames[row][col]);
-					Image rawImage = icon.getImage();
-					
-					frames[row][col] = rawImage.getScaledInstance(
-							rawImage.getWidth(null) * scaler,
-							rawImage.getHeight(null) * scaler,
-							0);
-				}
-			}
+			return;
 		}
+		
+		this.animationState = state;
+		this.animationFrame = 0;
+		this.animationFrameCount = frameCount;
+		this.frameTicks = frameTicks;
+		this.ticksLeft = frameTicks;
+		
+		setFrame(state, 0);
 	}
 	
 	
@@ -193,7 +251,7 @@ public abstract class Entity extends Sprite implements ActionListener
 	 */
 	protected void setFrame(int state)
 	{
-		setImage(frames[state][0]);
+		setFrame(state, 0);
 	}
 	
 	
@@ -242,9 +300,11 @@ public abstract class Entity extends Sprite implements ActionListener
  	 */
 	protected void setFrame(int state, int frame)
 	{
-		if (frames[state][frame] != null)
+		AtlasFrame[] stateFrames = frames.get(state);
+		
+		if (frame < stateFrames.length && stateFrames[frame] != null)
 		{
-			setImage(frames[state][frame]);
+			setImage(stateFrames[frame]);
 		}
 		else
 		{
@@ -0,0 +1,931 @@
+package com;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Entities kept as parallel arrays of primitives, one array per field, for
+ * simulating thousands of simple actors. Updating a field of every entity
+ * walks one array from start to end rather than visiting an object per
+ * entity spread over the heap.
+ * <p>
+ * Entities are packed into indices 0 to getSize() - 1, and removing one
+ * moves the last entity into its place, so an index is only valid until the
+ * next removal. Each entity is also given a handle that stays valid until
+ * it is removed. A handle holds a slot and a generation that changes every
+ * time the slot is reused, so the handle of a removed entity is no longer
+ * alive even once its slot holds another entity, until the generation wraps
+ * after GENERATIONS reuses.
+ * <p>
+ * Behaviour is added as EntitySystems run over ranges of indices, reading
+ * and writing the arrays returned by getXs and the like. Those arrays are
+ * replaced by longer ones when the store grows, so they must be fetched
+ * again after adding entities. MOVE and ANIMATE are the systems every store
+ * needs. Adding entities allocates only when the arrays grow, and running
+ * systems allocates nothing.
+ * <p>
+ * A simulation step is split in two phases. savePositions first keeps where
+ * every entity was as a read-only snapshot of the last step. The systems
+ * then work out each entity's next state from it, and MOVE and ANIMATE
+ * finally apply it. Given a ForkJoinPool, the store runs every parallel
+ * system over chunks of entities at once, which gives bit-identical results
+ * to running serially as long as systems keep to the rules of EntitySystem.
+ */
+public class EntityStore
+{
+	/**
+	 * Moves every entity in the range by its velocity.
+	 */
+	public static final EntitySystem MOVE = EntityStore::move;
+	/**
+	 * Advances the playing animation of every entity in the range by one
+	 * simulation step.
+	 */
+	public static final EntitySystem ANIMATE = EntityStore::animate;
+	/**
+	 * Bits of a handle holding its slot.
+	 */
+	private static final int SLOT_BITS = 20;
+	/**
+	 * Most entities a store can hold.
+	 */
+	public static final int MAX_CAPACITY = 1 << SLOT_BITS;
+	/**
+	 * Number of times a slot can be reused before its handles repeat.
+	 */
+	public static final int GENERATIONS = 1 << (31 - SLOT_BITS);
+	/**
+	 * Entities a store has room for before its arrays first grow.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+	/**
+	 * Fewest entities handed to each chunk of a parallel system, below which
+	 * splitting up the work costs more than it saves.
+	 */
+	private static final int MIN_CHUNK_SIZE = 1024;
+	/**
+	 * Chunks per thread of the pool, so threads that finish early can take
+	 * work from the others.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/**
+	 * Entity identification number of each entity.
+	 */
+	private int[] eIDs;
+	/**
+	 * Horizontal coordinate of each entity.
+	 */
+	private int[] xs;
+	/**
+	 * Vertical coordinate of each entity.
+	 */
+	private int[] ys;
+	/**
+	 * Horizontal coordinate of each entity at the start of the current
+	 * simulation step.
+	 */
+	private int[] previousXs;
+	/**
+	 * Vertical coordinate of each entity at the start of the current
+	 * simulation step.
+	 */
+	private int[] previousYs;
+	/**
+	 * Horizontal movement direction and speed of each entity.
+	 */
+	private int[] dxs;
+	/**
+	 * Vertical movement direction and speed of each entity.
+	 */
+	private int[] dys;
+	/**
+	 * Horizontal offset of the collision bounds of each entity.
+	 */
+	private int[] boundsOffsetXs;
+	/**
+	 * Vertical offset of the collision bounds of each entity.
+	 */
+	private int[] boundsOffsetYs;
+	/**
+	 * Width of the collision bounds of each entity.
+	 */
+	private int[] boundsWidths;
+	/**
+	 * Height of the collision bounds of each entity.
+	 */
+	private int[] boundsHeights;
+	/**
+	 * Horizontal offset of the image of each entity.
+	 */
+	private int[] imageOffsetXs;
+	/**
+	 * Vertical offset of the image of each entity.
+	 */
+	private int[] imageOffsetYs;
+	/**
+	 * State whose animation each entity is playing, or -1 if none.
+	 */
+	private int[] animationStates;
+	/**
+	 * Current frame of the animation each entity is playing.
+	 */
+	private int[] animationFrames;
+	/**
+	 * Number of frames in the animation each entity is playing.
+	 */
+	private int[] animationFrameCounts;
+	/**
+	 * Simulation steps each frame of each entity's animation is shown for,
+	 * 0 if it does not advance.
+	 */
+	private int[] frameTicks;
+	/**
+	 * Simulation steps left before each entity shows its next frame.
+	 */
+	private int[] ticksLeft;
+	/**
+	 * Image each entity is drawn with, or null if it has none.
+	 */
+	private AtlasFrame[] images;
+	/**
+	 * Handle of the entity at each index.
+	 */
+	private int[] handles;
+	/**
+	 * Index of the entity in each slot, or -1 if the slot is free.
+	 */
+	private int[] slotIndices;
+	/**
+	 * Generation of each slot, bumped whenever its entity is removed.
+	 */
+	private int[] slotGenerations;
+	/**
+	 * Free slots, used from the end.
+	 */
+	private int[] freeSlots;
+	/**
+	 * Number of free slots.
+	 */
+	private int freeCount;
+	/**
+	 * Number of slots ever used.
+	 */
+	private int slotCount;
+	/**
+	 * Number of entities.
+	 */
+	private int size;
+	/**
+	 * Frames of every state of each entity identification number, set with
+	 * setFrames.
+	 */
+	private AtlasFrame[][][] framesByEID;
+	/**
+	 * Pool parallel systems are run on, or null to run every system
+	 * serially.
+	 */
+	private ForkJoinPool pool;
+	/**
+	 * Chunks of a parallel system, reused every run.
+	 */
+	private Chunk[] chunks;
+	/**
+	 * Task forking and joining the chunks of a parallel system, reused every
+	 * run.
+	 */
+	private ChunkRunner chunkRunner;
+	
+	
+	/**
+	 * Creates a new instance of EntityStore holding no entities.
+	 */
+	public EntityStore()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+	
+	
+	/**
+	 * Creates a new instance of EntityStore with room for a number of
+	 * entities before its arrays grow.
+	 * @param capacity Number of entities to make room for.
+	 */
+	public EntityStore(int capacity)
+	{
+		if (capacity < 1 || capacity > MAX_CAPACITY)
+		{
+			throw new IllegalArgumentException(
+					"Capacity " + capacity + " is out of range.");
+		}
+		
+		eIDs = new int[capacity];
+		xs = new int[capacity];
+		ys = new int[capacity];
+		previousXs = new int[capacity];
+		previousYs = new int[capacity];
+		dxs = new int[capacity];
+		dys = new int[capacity];
+		boundsOffsetXs = new int[capacity];
+		boundsOffsetYs = new int[capacity];
+		boundsWidths = new int[capacity];
+		boundsHeights = new int[capacity];
+		imageOffsetXs = new int[capacity];
+		imageOffsetYs = new int[capacity];
+		animationStates = new int[capacity];
+		animationFrames = new int[capacity];
+		animationFrameCounts = new int[capacity];
+		frameTicks = new int[capacity];
+		ticksLeft = new int[capacity];
+		images = new AtlasFrame[capacity];
+		handles = new int[capacity];
+		slotIndices = new int[capacity];
+		slotGenerations = new int[capacity];
+		freeSlots = new int[capacity];
+		framesByEID = new AtlasFrame[0][][];
+		chunks = new Chunk[0];
+		chunkRunner = new ChunkRunner();
+	}
+	
+	
+	/**
+	 * Adds an entity standing still with no collision bounds and no image.
+	 * @param eID Entity identification number, as returned by
+	 * Entity.getEID.
+	 * @param x Starting horizontal pixel coordinate.
+	 * @param y Starting vertical pixel coordinate.
+	 * @return Handle of the new entity.
+	 */
+	public int add(int eID, int x, int y)
+	{
+		if (size == MAX_CAPACITY)
+		{
+			throw new IllegalStateException(
+					"EntityStore is full at " + MAX_CAPACITY + " entities.");
+		}
+		
+		if (size == xs.length)
+		{
+			grow();
+		}
+		
+		int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+		int index = size++;
+		int handle = slotGenerations[slot] << SLOT_BITS | slot;
+		
+		slotIndices[slot] = index;
+		handles[index] = handle;
+		eIDs[index] = eID;
+		xs[index] = x;
+		ys[index] = y;
+		previousXs[index] = x;
+		previousYs[index] = y;
+		dxs[index] = 0;
+		dys[index] = 0;
+		boundsOffsetXs[index] = 0;
+		boundsOffsetYs[index] = 0;
+		boundsWidths[index] = 0;
+		boundsHeights[index] = 0;
+		imageOffsetXs[index] = 0;
+		imageOffsetYs[index] = 0;
+		animationStates[index] = -1;
+		animationFrames[index] = 0;
+		animationFrameCounts[index] = 0;
+		frameTicks[index] = 0;
+		ticksLeft[index] = 0;
+		images[index] = null;
+		
+		return handle;
+	}
+	
+	
+	/**
+	 * Removes an entity, moving the last entity into its index.
+	 * @param handle Handle of the entity.
+	 * @return Whether the entity was removed, false if it was already gone.
+	 */
+	public boolean remove(int handle)
+	{
+		int index = getIndex(handle);
+		
+		if (index == -1)
+		{
+			return false;
+		}
+		
+		int last = --size;
+		
+		if (index != last)
+		{
+			copy(last, index);
+			slotIndices[handles[index] & (MAX_CAPACITY - 1)] = index;
+		}
+		
+		images[last] = null;
+		
+		int slot = handle & (MAX_CAPACITY - 1);
+		slotIndices[slot] = -1;
+		slotGenerations[slot] = (slotGenerations[slot] + 1) & (GENERATIONS - 1);
+		freeSlots[freeCount++] = slot;
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Removes every entity. Handles given out before stay dead.
+	 */
+	public void clear()
+	{
+		while (size > 0)
+		{
+			remove(handles[size - 1]);
+		}
+	}
+	
+	
+	/**
+	 * @param handle Handle of an entity.
+	 * @return Whether the entity has not been removed.
+	 */
+	public boolean isAlive(int handle)
+	{
+		return getIndex(handle) != -1;
+	}
+	
+	
+	/**
+	 * @param handle Handle of an entity.
+	 * @return Index of the entity, valid until the next removal, or -1 if it
+	 * has been removed.
+	 */
+	public int getIndex(int handle)
+	{
+		int slot = handle & (MAX_CAPACITY - 1);
+		
+		if (handle < 0 || slot >= slotCount ||
+				slotGenerations[slot] != handle >>> SLOT_BITS)
+		{
+			return -1;
+		}
+		
+		return slotIndices[slot];
+	}
+	
+	
+	/**
+	 * @param index Index of an entity, from 0 to getSize() - 1.
+	 * @return Handle of the entity.
+	 */
+	public int getHandle(int index)
+	{
+		return handles[index];
+	}
+	
+	
+	/**
+	 * @return Number of entities.
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+	
+	
+	/**
+	 * @return Entity identification number of each entity, indexed by entity
+	 * index.
+	 */
+	public int[] getEIDs()
+	{
+		return eIDs;
+	}
+	
+	
+	/**
+	 * @return Horizontal coordinate of each entity, indexed by entity index.
+	 */
+	public int[] getXs()
+	{
+		return xs;
+	}
+	
+	
+	/**
+	 * @return Vertical coordinate of each entity, indexed by entity index.
+	 */
+	public int[] getYs()
+	{
+		return ys;
+	}
+	
+	
+	/**
+	 * @return Horizontal coordinate at the start of the current simulation step
+	 * of each entity, indexed by entity index.
+	 */
+	public int[] getPreviousXs()
+	{
+		return previousXs;
+	}
+	
+	
+	/**
+	 * @return Vertical coordinate at the start of the current simulation step
+	 * of each entity, indexed by entity index.
+	 */
+	public int[] getPreviousYs()
+	{
+		return previousYs;
+	}
+	
+	
+	/**
+	 * @return Horizontal movement direction and speed of each entity, indexed
+	 * by entity index.
+	 */
+	public int[] getDXs()
+	{
+		return dxs;
+	}
+	
+	
+	/**
+	 * @return Vertical movement direction and speed of each entity, indexed by
+	 * entity index.
+	 */
+	public int[] getDYs()
+	{
+		return dys;
+	}
+	
+	
+	/**
+	 * @return Horizontal offset of the collision bounds of each entity, indexed
+	 * by entity index.
+	 */
+	public int[] getBoundsOffsetXs()
+	{
+		return boundsOffsetXs;
+	}
+	
+	
+	/**
+	 * @return Vertical offset of the collision bounds of each entity, indexed
+	 * by entity index.
+	 */
+	public int[] getBoundsOffsetYs()
+	{
+		return boundsOffsetYs;
+	}
+	
+	
+	/**
+	 * @return Width of the collision bounds of each entity, indexed by entity
+	 * index.
+	 */
+	public int[] getBoundsWidths()
+	{
+		return boundsWidths;
+	}
+	
+	
+	/**
+	 * @return Height of the collision bounds of each entity, indexed by entity
+	 * index.
+	 */
+	public int[] getBoundsHeights()
+	{
+		return boundsHeights;
+	}
+	
+	
+	/**
+	 * @return Horizontal offset of the image of each entity, indexed by entity
+	 * index.
+	 */
+	public int[] getImageOffsetXs()
+	{
+		return imageOffsetXs;
+	}
+	
+	
+	/**
+	 * @return Vertical offset of the image of each entity, indexed by entity
+	 * index.
+	 */
+	public int[] getImageOffsetYs()
+	{
+		return imageOffsetYs;
+	}
+	
+	
+	/**
+	 * @return Image each entity is drawn with, or null if it has none,
+	 * indexed by entity index.
+	 */
+	public AtlasFrame[] getImages()
+	{
+		return images;
+	}
+	
+	
+	/**
+	 * Sets the pool parallel systems are run on.
+	 * @param pool ForkJoinPool to run parallel systems on, or null to run
+	 * every system serially on the calling thread.
+	 */
+	public void setPool(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+	
+	
+	/**
+	 * @return Pool parallel systems are run on, or null if every system is
+	 * run serially.
+	 */
+	public ForkJoinPool getPool()
+	{
+		return pool;
+	}
+	
+	
+	/**
+	 * Remembers where every entity is as where it was at the start of the
+	 * current simulation step, both to be drawn between the two and as the
+	 * snapshot parallel systems read other entities from. Called once at
+	 * the start of every step, before any system is run.
+	 */
+	public void savePositions()
+	{
+		System.arraycopy(xs, 0, previousXs, 0, size);
+		System.arraycopy(ys, 0, previousYs, 0, size);
+	}
+	
+	
+	/**
+	 * Runs a system over every entity, in chunks on the pool if there is
+	 * one, the system is parallel and there are enough entities to split.
+	 * @param system System to run.
+	 */
+	public void run(EntitySystem system)
+	{
+		if (pool == null || !system.isParallel() || size < MIN_CHUNK_SIZE * 2)
+		{
+			system.update(this, 0, size);
+			return;
+		}
+		
+		int chunkCount = Math.min(
+				pool.getParallelism() * CHUNKS_PER_THREAD,
+				size / MIN_CHUNK_SIZE);
+		
+		if (chunks.length < chunkCount)
+		{
+			int oldLength = chunks.length;
+			chunks = Arrays.copyOf(chunks, chunkCount);
+			
+			for (int i = oldLength; i < chunkCount; i++)
+			{
+				chunks[i] = new Chunk();
+			}
+		}
+		
+		for (int i = 0; i < chunkCount; i++)
+		{
+			Chunk chunk = chunks[i];
+			
+			chunk.reinitialize();
+			chunk.system = system;
+			chunk.start = (int) ((long) size * i / chunkCount);
+			chunk.end = (int) ((long) size * (i + 1) / chunkCount);
+		}
+		
+		chunkRunner.reinitialize();
+		chunkRunner.chunkCount = chunkCount;
+		pool.invoke(chunkRunner);
+	}
+	
+	
+	/**
+	 * Sets the frames played by entities with an entity identification
+	 * number.
+	 * @param eID Entity identification number.
+	 * @param frames Frames of each state, indexed by state and then frame.
+	 */
+	public void setFrames(int eID, AtlasFrame[][] frames)
+	{
+		if (eID >= framesByEID.length)
+		{
+			framesByEID = Arrays.copyOf(framesByEID, eID + 1);
+		}
+		
+		framesByEID[eID] = frames;
+	}
+	
+	
+	/**
+	 * @param handle Handle of a living entity.
+	 * @param dx Horizontal movement direction and speed.
+	 * @param dy Vertical movement direction and speed.
+	 */
+	public void setVelocity(int handle, int dx, int dy)
+	{
+		int index = getLivingIndex(handle);
+		
+		dxs[index] = dx;
+		dys[index] = dy;
+	}
+	
+	
+	/**
+	 * @param handle Handle of a living entity.
+	 * @param offsetX Horizontal offset of the collision bounds.
+	 * @param offsetY Vertical offset of the collision bounds.
+	 * @param width Width of the collision bounds.
+	 * @param height Height of the collision bounds.
+	 */
+	public void setBounds(
+			int handle,
+			int offsetX,
+			int offsetY,
+			int width,
+			int height)
+	{
+		int index = getLivingIndex(handle);
+		
+		boundsOffsetXs[index] = offsetX;
+		boundsOffsetYs[index] = offsetY;
+		boundsWidths[index] = width;
+		boundsHeights[index] = height;
+	}
+	
+	
+	/**
+	 * @param handle Handle of a living entity.
+	 * @param offsetX Horizontal offset of the image.
+	 * @param offsetY Vertical offset of the image.
+	 */
+	public void setImageOffset(int handle, int offsetX, int offsetY)
+	{
+		int index = getLivingIndex(handle);
+		
+		imageOffsetXs[index] = offsetX;
+		imageOffsetYs[index] = offsetY;
+	}
+	
+	
+	/**
+	 * Starts an entity playing the animation of a state from a given frame,
+	 * using the frames set for its entity identification number. Does
+	 * nothing if that state's animation is already playing.
+	 * @param handle Handle of a living entity.
+	 * @param state State whose frames to play.
+	 * @param frameCount Number of frames in the state's animation.
+	 * @param frameTicks Simulation steps to show each frame for, or 0 to
+	 * stay on the first frame.
+	 * @param frame Frame to start from.
+	 */
+	public void playAnimation(
+			int handle,
+			int state,
+			int frameCount,
+			int frameTicks,
+			int frame)
+	{
+		int index = getLivingIndex(handle);
+		
+		if (animationStates[index] == state)
+		{
+			return;
+		}
+		
+		animationStates[index] = state;
+		animationFrames[index] = frameCount > 0 ? frame % frameCount : 0;
+		animationFrameCounts[index] = frameCount;
+		this.frameTicks[index] = frameTicks;
+		ticksLeft[index] = frameTicks;
+		images[index] = getFrame(index);
+	}
+	
+	
+	/**
+	 * Moves every entity in a range by its velocity. Run as MOVE.
+	 * @param start Index of the first entity.
+	 * @param end Index just past the last entity.
+	 */
+	private void move(int start, int end)
+	{
+		int[] xs = this.xs;
+		int[] ys = this.ys;
+		int[] dxs = this.dxs;
+		int[] dys = this.dys;
+		
+		for (int i = start; i < end; i++)
+		{
+			xs[i] += dxs[i];
+			ys[i] += dys[i];
+		}
+	}
+	
+	
+	/**
+	 * Advances the animation of every entity in a range by one simulation
+	 * step. Run as ANIMATE.
+	 * @param start Index of the first entity.
+	 * @param end Index just past the last entity.
+	 */
+	private void animate(int start, int end)
+	{
+		int[] frameTicks = this.frameTicks;
+		int[] ticksLeft = this.ticksLeft;
+		
+		for (int i = start; i < end; i++)
+		{
+			if (frameTicks[i] <= 0 || animationFrameCounts[i] < 2 ||
+					--ticksLeft[i] > 0)
+			{
+				continue;
+			}
+			
+			ticksLeft[i] = frameTicks[i];
+			animationFrames[i] = (animationFrames[i] + 1) % animationFrameCounts[i];
+			images[i] = getFrame(i);
+		}
+	}
+	
+	
+	/**
+	 * @param index Index of an entity.
+	 * @return Frame of the entity's animation it is on, or null if its
+	 * entity identification number has no such frame.
+	 */
+	private AtlasFrame getFrame(int index)
+	{
+		int eID = eIDs[index];
+		int state = animationStates[index];
+		
+		if (eID < 0 || eID >= framesByEID.length || framesByEID[eID] == null ||
+				state < 0 || state >= framesByEID[eID].length)
+		{
+			return null;
+		}
+		
+		AtlasFrame[] frames = framesByEID[eID][state];
+		int frame = animationFrames[index];
+		
+		return frame < frames.length ? frames[frame] : null;
+	}
+	
+	
+	/**
+	 * @param handle Handle of an entity.
+	 * @return Index of the entity.
+	 * @throws IllegalArgumentException If the entity has been removed.
+	 */
+	private int getLivingIndex(int handle)
+	{
+		int index = getIndex(handle);
+		
+		if (index == -1)
+		{
+			throw new IllegalArgumentException(
+					"Entity " + handle + " has been removed.");
+		}
+		
+		return index;
+	}
+	
+	
+	/**
+	 * Copies every field of one entity over another.
+	 * @param from Index of the entity to copy.
+	 * @param to Index of the entity to overwrite.
+	 */
+	private void copy(int from, int to)
+	{
+		handles[to] = handles[from];
+		eIDs[to] = eIDs[from];
+		xs[to] = xs[from];
+		ys[to] = ys[from];
+		previousXs[to] = previousXs[from];
+		previousYs[to] = previousYs[from];
+		dxs[to] = dxs[from];
+		dys[to] = dys[from];
+		boundsOffsetXs[to] = boundsOffsetXs[from];
+		boundsOffsetYs[to] = boundsOffsetYs[from];
+		boundsWidths[to] = boundsWidths[from];
+		boundsHeights[to] = boundsHeights[from];
+		imageOffsetXs[to] = imageOffsetXs[from];
+		imageOffsetYs[to] = imageOffsetYs[from];
+		animationStates[to] = animationStates[from];
+		animationFrames[to] = animationFrames[from];
+		animationFrameCounts[to] = animationFrameCounts[from];
+		frameTicks[to] = frameTicks[from];
+		ticksLeft[to] = ticksLeft[from];
+		images[to] = images[from];
+	}
+	
+	
+	/**
+	 * Doubles the room for entities, up to MAX_CAPACITY.
+	 */
+	private void grow()
+	{
+		int capacity = (int) Math.min((long) xs.length * 2, MAX_CAPACITY);
+		
+		eIDs = Arrays.copyOf(eIDs, capacity);
+		xs = Arrays.copyOf(xs, capacity);
+		ys = Arrays.copyOf(ys, capacity);
+		previousXs = Arrays.copyOf(previousXs, capacity);
+		previousYs = Arrays.copyOf(previousYs, capacity);
+		dxs = Arrays.copyOf(dxs, capacity);
+		dys = Arrays.copyOf(dys, capacity);
+		boundsOffsetXs = Arrays.copyOf(boundsOffsetXs, capacity);
+		boundsOffsetYs = Arrays.copyOf(boundsOffsetYs, capacity);
+		boundsWidths = Arrays.copyOf(boundsWidths, capacity);
+		boundsHeights = Arrays.copyOf(boundsHeights, capacity);
+		imageOffsetXs = Arrays.copyOf(imageOffsetXs, capacity);
+		imageOffsetYs = Arrays.copyOf(imageOffsetYs, capacity);
+		animationStates = Arrays.copyOf(animationStates, capacity);
+		animationFrames = Arrays.copyOf(animationFrames, capacity);
+		animationFrameCounts = Arrays.copyOf(animationFrameCounts, capacity);
+		frameTicks = Arrays.copyOf(frameTicks, capacity);
+		ticksLeft = Arrays.copyOf(ticksLeft, capacity);
+		images = Arrays.copyOf(images, capacity);
+		handles = Arrays.copyOf(handles, capacity);
+		slotIndices = Arrays.copyOf(slotIndices, capacity);
+		slotGenerations = Arrays.copyOf(slotGenerations, capacity);
+		freeSlots = Arrays.copyOf(freeSlots, capacity);
+	}
+	
+	
+	/**
+	 * Range of entities a parallel system is run over.
+	 */
+	private class Chunk extends RecursiveAction
+	{
+		/**
+		 * Generated serial version ID.
+		 */
+		private static final long serialVersionUID = 4106293271573648224L;
+		
+		/**
+		 * System to run.
+		 */
+		private EntitySystem system;
+		/**
+		 * Index of the first entity of the chunk.
+		 */
+		private int start;
+		/**
+		 * Index just past the last entity of the chunk.
+		 */
+		private int end;
+		
+		
+		@Override
+		protected void compute()
+		{
+			system.update(EntityStore.this, start, end);
+		}
+	}
+	
+	
+	/**
+	 * Runs the first chunks of the store in parallel and waits for all of
+	 * them to finish.
+	 */
+	private class ChunkRunner extends RecursiveAction
+	{
+		/**
+		 * Generated serial version ID.
+		 */
+		private static final long serialVersionUID = -3380561754310925047L;
+		
+		/**
+		 * Number of chunks to run.
+		 */
+		private int chunkCount;
+		
+		
+		@Override
+		protected void compute()
+		{
+			for (int i = 1; i < chunkCount; i++)
+			{
+				chunks[i].fork();
+			}
+			
+			// Work on the first chunk here rather than waiting idle
+			chunks[0].invoke();
+			
+			for (int i = 1; i < chunkCount; i++)
+			{
+				chunks[i].join();
+			}
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com;
+
+/**
+ * Behaviour run over the entities of an EntityStore each simulation step,
+ * reading and writing their columns directly.
+ * <p>
+ * A system is handed a range of entity indices rather than the whole store
+ * so that it only ever touches the entities in its range, which lets the
+ * range be split up. When the store has a ForkJoinPool, a parallel system is
+ * run over several ranges at once. It must then only write the entities in
+ * its range, and only read other entities through the positions saved at
+ * the start of the step, getPreviousXs and getPreviousYs, which no system
+ * writes. Every split then gives the same result as running serially.
+ */
+public interface EntitySystem
+{
+	/**
+	 * Runs this system over a range of entities.
+	 * @param store EntityStore holding the entities.
+	 * @param start Index of the first entity to update.
+	 * @param end Index just past the last entity to update.
+	 */
+	void update(EntityStore store, int start, int end);
+	
+	
+	/**
+	 * @return Whether this system may be run over several ranges at once.
+	 * Systems writing entities outside their range, reading other entities'
+	 * current columns or touching anything shared, such as the TileMap, must
+	 * return false to always be run serially.
+	 */
+	default boolean isParallel()
+	{
+		return true;
+	}
+}
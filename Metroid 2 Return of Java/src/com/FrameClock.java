@@ -0,0 +1,179 @@
+package com;
+
+/**
+ * Fixed timestep clock for the game loop. The simulation always advances in
+ * steps of the same length, measured with System.nanoTime, while rendering
+ * happens once per loop with an alpha telling how far the real time is
+ * between the last step and the next one.
+ * <p>
+ * Waiting for the next step sleeps while there is plenty of time left, then
+ * yields and finally spins, since Thread.sleep alone often wakes up
+ * milliseconds late.
+ */
+public class FrameClock
+{
+	/**
+	 * Default most steps run in a single loop to catch up after a slow frame.
+	 */
+	public static final int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+	/**
+	 * Time left before the next step under which the clock stops sleeping and
+	 * starts yielding.
+	 */
+	private static final long SLEEP_THRESHOLD = 2_000_000L;
+	/**
+	 * Time left before the next step under which the clock stops yielding and
+	 * starts spinning.
+	 */
+	private static final long YIELD_THRESHOLD = 200_000L;
+	
+	/**
+	 * Nanosecond length of a simulation step.
+	 */
+	private final long stepTime;
+	/**
+	 * Most steps run in a single loop. Time beyond this is dropped so a slow
+	 * machine falls behind instead of spiralling.
+	 */
+	private final int maxCatchUpSteps;
+	/**
+	 * Moment the clock was last advanced.
+	 */
+	private long lastTime;
+	/**
+	 * Real time not yet simulated.
+	 */
+	private long accumulator;
+	/**
+	 * Total real time dropped because the loop could not catch up.
+	 */
+	private long droppedTime;
+	/**
+	 * Total simulation steps handed out.
+	 */
+	private long stepCount;
+	
+	
+	/**
+	 * Creates a new instance of FrameClock.
+	 * @param stepTime Nanosecond length of a simulation step.
+	 * @param maxCatchUpSteps Most steps run in a single loop.
+	 */
+	public FrameClock(long stepTime, int maxCatchUpSteps)
+	{
+		if (stepTime <= 0 || maxCatchUpSteps < 1)
+		{
+			throw new IllegalArgumentException(
+					"Step time and catch up steps must be positive.");
+		}
+		
+		this.stepTime = stepTime;
+		this.maxCatchUpSteps = maxCatchUpSteps;
+		
+		start();
+	}
+	
+	
+	/**
+	 * Restarts the clock from the current moment with no time owed.
+	 */
+	public void start()
+	{
+		lastTime = System.nanoTime();
+		accumulator = 0;
+	}
+	
+	
+	/**
+	 * Measures the time since the last call and works out how many
+	 * simulation steps it covers.
+	 * @return Number of simulation steps to run now.
+	 */
+	public int advance()
+	{
+		long now = System.nanoTime();
+		accumulator += now - lastTime;
+		lastTime = now;
+		
+		int steps = (int) Math.min(accumulator / stepTime, maxCatchUpSteps);
+		accumulator -= steps * stepTime;
+		
+		if (accumulator >= stepTime)
+		{
+			// Too far behind, give up on the time that cannot be caught up
+			long dropped = accumulator - accumulator % stepTime;
+			droppedTime += dropped;
+			accumulator -= dropped;
+		}
+		
+		stepCount += steps;
+		return steps;
+	}
+	
+	
+	/**
+	 * @return How far the real time is between the last simulation step and
+	 * the next one, from 0 up to but not including 1.
+	 */
+	public double getAlpha()
+	{
+		return (double) accumulator / stepTime;
+	}
+	
+	
+	/**
+	 * Waits until the next simulation step is due.
+	 * @throws InterruptedException If the thread is interrupted while
+	 * sleeping.
+	 */
+	public void waitForNextStep() throws InterruptedException
+	{
+		long deadline = lastTime + stepTime - accumulator;
+		long remaining = deadline - System.nanoTime();
+		
+		while (remaining > SLEEP_THRESHOLD)
+		{
+			Thread.sleep((remaining - SLEEP_THRESHOLD) / 1_000_000L);
+			remaining = deadline - System.nanoTime();
+		}
+		
+		while (remaining > YIELD_THRESHOLD)
+		{
+			Thread.yield();
+			remaining = deadline - System.nanoTime();
+		}
+		
+		while (remaining > 0)
+		{
+			remaining = deadline - System.nanoTime();
+		}
+	}
+	
+	
+	/**
+	 * @return Nanosecond length of a simulation step.
+	 */
+	public long getStepTime()
+	{
+		return stepTime;
+	}
+	
+	
+	/**
+	 * @return Total simulation steps handed out.
+	 */
+	public long getStepCount()
+	{
+		return stepCount;
+	}
+	
+	
+	/**
+	 * @return Total nanoseconds of real time dropped because the loop could
+	 * not catch up.
+	 */
+	public long getDroppedTime()
+	{
+		return droppedTime;
+	}
+}
@@ -0,0 +1,236 @@
+package com;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Animation frames of an entity, indexed by state and frame, loaded one
+ * state at a time the first time the state is needed.
+ * <p>
+ * Frames already packed into the SpriteAtlas loaded at startup are taken
+ * from it. The frames of any other state are acquired from the shared
+ * AssetCache and packed into a small atlas of their own, so the frames of
+ * one animation still share a sheet. States that are likely to be entered
+ * soon can be prefetched, decoding and packing their images on a background
+ * executor so that loading them later only has to look the frames up.
+ * <p>
+ * Frames are loaded on the thread that asks for them, normally the game
+ * thread, and only prefetching happens elsewhere. Loading a state whose
+ * prefetch has not finished waits for it rather than decoding again.
+ */
+public class FrameTable
+{
+	/**
+	 * Path names of the frames of each state, indexed by state.
+	 */
+	private final String[][] pathNames;
+	/**
+	 * Frames of each state, or null for states not loaded yet.
+	 */
+	private final AtlasFrame[][] frames;
+	/**
+	 * Atlas being packed on the prefetch executor for each state, or null for
+	 * states not prefetched or with every frame in the startup atlas.
+	 */
+	private final CompletableFuture<?>[] prefetches;
+	/**
+	 * Whether each state has been prefetched.
+	 */
+	private final boolean[] isPrefetched;
+	/**
+	 * Atlas loaded at startup to look frames up in first, or null.
+	 */
+	private final SpriteAtlas atlas;
+	/**
+	 * Multiplier to scale each image by.
+	 */
+	private final int scaler;
+	/**
+	 * Executor to decode the images of prefetched states on, or null to not
+	 * prefetch.
+	 */
+	private final Executor prefetchExecutor;
+	/**
+	 * Number of states loaded so far.
+	 */
+	private int loadedCount;
+	
+	
+	/**
+	 * Creates a new instance of FrameTable without loading any frames.
+	 * @param pathNames Path names of the frames of each state, indexed by
+	 * state. A state may have no frames.
+	 * @param atlas Atlas loaded at startup to look frames up in first, or
+	 * null to load every state from the AssetCache.
+	 * @param scaler Multiplier to scale each image by, the same as the atlas.
+	 * @param prefetchExecutor Executor to decode the images of prefetched
+	 * states on, or null to not prefetch.
+	 */
+	public FrameTable(
+			String[][] pathNames,
+			SpriteAtlas atlas,
+			int scaler,
+			Executor prefetchExecutor)
+	{
+		this.pathNames = pathNames;
+		this.frames = new AtlasFrame[pathNames.length][];
+		this.prefetches = new CompletableFuture<?>[pathNames.length];
+		this.isPrefetched = new boolean[pathNames.length];
+		this.atlas = atlas;
+		this.scaler = scaler;
+		this.prefetchExecutor = prefetchExecutor;
+	}
+	
+	
+	/**
+	 * @param state State whose frames to get.
+	 * @return Frames of the state, loading them if this is the first time
+	 * they are needed. Frames whose image could not be loaded are null. Must
+	 * not be changed.
+	 */
+	public AtlasFrame[] get(int state)
+	{
+		AtlasFrame[] stateFrames = frames[state];
+		
+		if (stateFrames == null)
+		{
+			stateFrames = load(state);
+			frames[state] = stateFrames;
+			prefetches[state] = null;
+			loadedCount++;
+		}
+		
+		return stateFrames;
+	}
+	
+	
+	/**
+	 * Starts decoding the images of a state and packing them into an atlas in
+	 * the background, if it has not been loaded or prefetched already and
+	 * prefetching is on.
+	 * @param state State likely to be needed soon.
+	 */
+	public void prefetch(int state)
+	{
+		if (prefetchExecutor == null || isPrefetched[state] ||
+				frames[state] != null)
+		{
+			return;
+		}
+		
+		isPrefetched[state] = true;
+		List<String> missing = getMissingPathNames(state);
+		
+		if (!missing.isEmpty())
+		{
+			prefetches[state] = SpriteAtlas.load(
+					missing,
+					scaler,
+					SpriteAtlas.DEFAULT_SHEET_SIZE,
+					prefetchExecutor);
+		}
+	}
+	
+	
+	/**
+	 * @param state State to check.
+	 * @return Whether the frames of the state have been loaded.
+	 */
+	public boolean isLoaded(int state)
+	{
+		return frames[state] != null;
+	}
+	
+	
+	/**
+	 * @param state State to count the frames of.
+	 * @return Number of frames in the state's animation.
+	 */
+	public int getFrameCount(int state)
+	{
+		return pathNames[state].length;
+	}
+	
+	
+	/**
+	 * @return Number of states in this table.
+	 */
+	public int getStateCount()
+	{
+		return pathNames.length;
+	}
+	
+	
+	/**
+	 * @return Number of states whose frames have been loaded.
+	 */
+	public int getLoadedCount()
+	{
+		return loadedCount;
+	}
+	
+	
+	/**
+	 * Looks the frames of a state up in the startup atlas, taking any it
+	 * does not hold from the state's prefetched atlas or packing them into an
+	 * atlas of their own.
+	 * @param state State whose frames to load.
+	 * @return Frames of the state.
+	 */
+	private AtlasFrame[] load(int state)
+	{
+		String[] names = pathNames[state];
+		AtlasFrame[] stateFrames = new AtlasFrame[names.length];
+		List<String> missing = getMissingPathNames(state);
+		SpriteAtlas stateAtlas = null;
+		
+		if (prefetches[state] != null)
+		{
+			stateAtlas = (SpriteAtlas) prefetches[state].join();
+		}
+		else if (!missing.isEmpty())
+		{
+			stateAtlas = new SpriteAtlas(
+					missing,
+					scaler,
+					SpriteAtlas.DEFAULT_SHEET_SIZE);
+		}
+		
+		for (int i = 0; i < names.length; i++)
+		{
+			AtlasFrame frame = atlas == null ? null : atlas.get(names[i]);
+			
+			if (frame == null && stateAtlas != null)
+			{
+				frame = stateAtlas.get(names[i]);
+			}
+			
+			stateFrames[i] = frame;
+		}
+		
+		return stateFrames;
+	}
+	
+	
+	/**
+	 * @param state State whose frames to check.
+	 * @return Path names of the frames of the state that are not in the
+	 * startup atlas.
+	 */
+	private List<String> getMissingPathNames(int state)
+	{
+		List<String> missing = new ArrayList<String>();
+		
+		for (String pathName : pathNames[state])
+		{
+			if (pathName != null && (atlas == null || atlas.get(pathName) == null))
+			{
+				missing.add(pathName);
+			}
+		}
+		
+		return missing;
+	}
+}
@@ -0,0 +1,221 @@
+package com;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import enums.FramePhase;
+
+/**
+ * Time spent in each FramePhase of the game loop, kept in a
+ * LatencyHistogram per phase. Timing a phase allocates nothing, so the loop
+ * can be timed every frame.
+ * <p>
+ * The summary can be written as CSV or JSON, with one row or object per
+ * phase holding its count, average, 50th, 95th and 99th percentiles and
+ * maximum in nanoseconds.
+ */
+public class FrameTimings
+{
+	/**
+	 * Percentiles reported for every phase.
+	 */
+	private static final double[] PERCENTILES = {50, 95, 99};
+	
+	/**
+	 * Histogram of each phase, indexed by ordinal.
+	 */
+	private final LatencyHistogram[] histograms;
+	
+	
+	/**
+	 * Creates a new instance of FrameTimings holding no timings.
+	 */
+	public FrameTimings()
+	{
+		FramePhase[] phases = FramePhase.values();
+		histograms = new LatencyHistogram[phases.length];
+		
+		for (int i = 0; i < phases.length; i++)
+		{
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+	
+	
+	/**
+	 * Records the time from a start time until now in a phase's histogram.
+	 * @param phase Phase that started at startTime and has just ended.
+	 * @param startTime System.nanoTime when the phase started.
+	 * @return System.nanoTime now, to be used as the start time of the next
+	 * phase.
+	 */
+	public long record(FramePhase phase, long startTime)
+	{
+		long now = System.nanoTime();
+		histograms[phase.ordinal()].record(now - startTime);
+		
+		return now;
+	}
+	
+	
+	/**
+	 * Records a duration in a phase's histogram.
+	 * @param phase Phase the duration was spent in.
+	 * @param nanos Duration in nanoseconds.
+	 */
+	public void recordDuration(FramePhase phase, long nanos)
+	{
+		histograms[phase.ordinal()].record(nanos);
+	}
+	
+	
+	/**
+	 * @param phase Phase of the game loop.
+	 * @return Histogram of the time spent in the phase.
+	 */
+	public LatencyHistogram getHistogram(FramePhase phase)
+	{
+		return histograms[phase.ordinal()];
+	}
+	
+	
+	/**
+	 * Forgets every timing recorded so far.
+	 */
+	public void reset()
+	{
+		for (LatencyHistogram histogram : histograms)
+		{
+			histogram.reset();
+		}
+	}
+	
+	
+	/**
+	 * @param phase Phase of the game loop.
+	 * @return One line summary of the time spent in the phase, in
+	 * milliseconds, or a note that it was not timed at all.
+	 */
+	public String getSummary(FramePhase phase)
+	{
+		LatencyHistogram histogram = getHistogram(phase);
+		
+		if (histogram.getCount() == 0)
+		{
+			return String.format(
+					Locale.ROOT,
+					"%-11s not timed",
+					phase.getLabel());
+		}
+		
+		return String.format(
+				Locale.ROOT,
+				"%-11s p50 %6.3f p95 %6.3f p99 %6.3f max %6.3f ms",
+				phase.getLabel(),
+				histogram.getPercentile(50) / 1e6,
+				histogram.getPercentile(95) / 1e6,
+				histogram.getPercentile(99) / 1e6,
+				histogram.getMax() / 1e6);
+	}
+	
+	
+	/**
+	 * Writes the summary of every phase to a file, as JSON if its name ends
+	 * in ".json" and as CSV otherwise.
+	 * @param file File to write.
+	 * @throws IOException If the file could not be written.
+	 */
+	public void write(File file) throws IOException
+	{
+		PrintWriter writer = new PrintWriter(new FileWriter(file));
+		
+		try
+		{
+			if (file.getName().toLowerCase(Locale.ROOT).endsWith(".json"))
+			{
+				writeJson(writer);
+			}
+			else
+			{
+				writeCsv(writer);
+			}
+			
+			if (writer.checkError())
+			{
+				throw new IOException("Could not write " + file + ".");
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+	
+	
+	/**
+	 * Writes a header row, then a row for every phase.
+	 * @param writer Writer to write the CSV to.
+	 */
+	private void writeCsv(PrintWriter writer)
+	{
+		writer.print("phase,count,average_ns");
+		
+		for (double percentile : PERCENTILES)
+		{
+			writer.print(",p" + (int) percentile + "_ns");
+		}
+		
+		writer.println(",max_ns");
+		
+		for (FramePhase phase : FramePhase.values())
+		{
+			LatencyHistogram histogram = getHistogram(phase);
+			
+			writer.print(phase.getLabel());
+			writer.print("," + histogram.getCount());
+			writer.print("," + histogram.getAverage());
+			
+			for (double percentile : PERCENTILES)
+			{
+				writer.print("," + histogram.getPercentile(percentile));
+			}
+			
+			writer.println("," + histogram.getMax());
+		}
+	}
+	
+	
+	/**
+	 * Writes an array holding an object for every phase.
+	 * @param writer Writer to write the JSON to.
+	 */
+	private void writeJson(PrintWriter writer)
+	{
+		FramePhase[] phases = FramePhase.values();
+		
+		writer.println("[");
+		
+		for (int i = 0; i < phases.length; i++)
+		{
+			LatencyHistogram histogram = getHistogram(phases[i]);
+			
+			writer.print("  {\"phase\": \"" + phases[i].getLabel() + "\"");
+			writer.print(", \"count\": " + histogram.getCount());
+			writer.print(", \"average_ns\": " + histogram.getAverage());
+			
+			for (double percentile : PERCENTILES)
+			{
+				writer.print(", \"p" + (int) percentile + "_ns\": " +
+						histogram.getPercentile(percentile));
+			}
+			
+			writer.print(", \"max_ns\": " + histogram.getMax() + "}");
+			writer.println(i < phases.length - 1 ? "," : "");
+		}
+		
+		writer.println("]");
+	}
+}
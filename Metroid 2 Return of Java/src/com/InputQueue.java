@@ -0,0 +1,236 @@
+package com;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.atomic.AtomicLong;
+
+import enums.Button;
+
+/**
+ * Lock free ring buffer of key transitions, handed from the event dispatch
+ * thread to the game thread. There must be only one thread recording and
+ * one thread draining, which lets both sides get by with ordered writes of
+ * their own position and no locks.
+ * <p>
+ * Each transition is stamped with System.nanoTime when recorded, so the
+ * time until the step that drains it can be measured.
+ */
+public class InputQueue
+{
+	/**
+	 * Default number of transitions the queue can hold.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+	
+	/**
+	 * Button ordinal of each transition, shifted left by one, with the
+	 * lowest bit set for a press.
+	 */
+	private final int[] events;
+	/**
+	 * Moment each transition was recorded.
+	 */
+	private final long[] times;
+	/**
+	 * Capacity less one, used to wrap positions into the arrays.
+	 */
+	private final int mask;
+	/**
+	 * Number of transitions ever recorded. Only written by the recording
+	 * thread.
+	 */
+	private final AtomicLong head;
+	/**
+	 * Number of transitions ever drained. Only written by the draining
+	 * thread.
+	 */
+	private final AtomicLong tail;
+	/**
+	 * Transitions thrown away because the queue was full.
+	 */
+	private volatile long droppedCount;
+	/**
+	 * Transitions drained since latency was last reset.
+	 */
+	private long latencyCount;
+	/**
+	 * Total nanoseconds between recording and draining the transitions
+	 * drained since latency was last reset.
+	 */
+	private long totalLatency;
+	/**
+	 * Longest nanoseconds between recording and draining a transition since
+	 * latency was last reset.
+	 */
+	private long maxLatency;
+	
+	
+	/**
+	 * Creates a new instance of InputQueue.
+	 * @param capacity Number of transitions the queue can hold. Rounded up to
+	 * a power of two.
+	 */
+	public InputQueue(int capacity)
+	{
+		if (capacity < 1 || capacity > 1 << 30)
+		{
+			throw new IllegalArgumentException(
+					"Capacity " + capacity + " is out of range.");
+		}
+		
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		size = Math.max(size, 1);
+		
+		this.events = new int[size];
+		this.times = new long[size];
+		this.mask = size - 1;
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+	}
+	
+	
+	/**
+	 * Records a key transition if the key is bound to a button. Must only be
+	 * called from one thread, normally the event dispatch thread.
+	 * @param event Key pressed or released event.
+	 * @return Whether the transition was recorded.
+	 */
+	public boolean record(KeyEvent event)
+	{
+		Button button = Button.fromKeyCode(event.getKeyCode());
+		
+		if (button == null)
+		{
+			return false;
+		}
+		
+		return record(button, event.getID() == KeyEvent.KEY_PRESSED);
+	}
+	
+	
+	/**
+	 * Records a button transition. Must only be called from one thread,
+	 * normally the event dispatch thread.
+	 * @param button Button whose key changed.
+	 * @param isPressed Whether the key was pressed rather than released.
+	 * @return Whether the transition was recorded, false if the queue was
+	 * full.
+	 */
+	public boolean record(Button button, boolean isPressed)
+	{
+		long position = head.get();
+		
+		if (position - tail.get() > mask)
+		{
+			droppedCount++;
+			return false;
+		}
+		
+		int index = (int) position & mask;
+		events[index] = button.ordinal() << 1 | (isPressed ? 1 : 0);
+		times[index] = System.nanoTime();
+		
+		// Publish the transition only after it has been written
+		head.lazySet(position + 1);
+		return true;
+	}
+	
+	
+	/**
+	 * Applies every recorded transition to a new step of an input snapshot.
+	 * Must only be called from one thread, normally the game thread.
+	 * @param state Snapshot to update for the new step.
+	 */
+	public void drain(InputState state)
+	{
+		state.beginStep();
+		
+		long position = tail.get();
+		long end = head.get();
+		
+		if (position == end)
+		{
+			return;
+		}
+		
+		long now = System.nanoTime();
+		
+		for (; position < end; position++)
+		{
+			int index = (int) position & mask;
+			int event = events[index];
+			long latency = now - times[index];
+			
+			state.apply(Button.fromOrdinal(event >>> 1), (event & 1) != 0);
+			
+			latencyCount++;
+			totalLatency += latency;
+			maxLatency = Math.max(maxLatency, latency);
+		}
+		
+		tail.lazySet(end);
+	}
+	
+	
+	/**
+	 * @return Transitions drained since latency was last reset.
+	 */
+	public long getLatencyCount()
+	{
+		return latencyCount;
+	}
+	
+	
+	/**
+	 * @return Average nanoseconds between recording and draining a
+	 * transition since latency was last reset, or 0 if none were drained.
+	 */
+	public long getAverageLatency()
+	{
+		return latencyCount == 0 ? 0 : totalLatency / latencyCount;
+	}
+	
+	
+	/**
+	 * @return Longest nanoseconds between recording and draining a
+	 * transition since latency was last reset.
+	 */
+	public long getMaxLatency()
+	{
+		return maxLatency;
+	}
+	
+	
+	/**
+	 * @return Transitions thrown away because the queue was full.
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount;
+	}
+	
+	
+	/**
+	 * Forgets the latency of every transition drained so far. Must only be
+	 * called from the draining thread.
+	 */
+	public void resetLatency()
+	{
+		latencyCount = 0;
+		totalLatency = 0;
+		maxLatency = 0;
+	}
+	
+	
+	/**
+	 * @return Summary of the latency since it was last reset.
+	 */
+	public String getLatencyReport()
+	{
+		return String.format(
+				"Input latency: %d events, average %.2f ms, max %.2f ms, %d dropped",
+				latencyCount,
+				getAverageLatency() / 1e6,
+				maxLatency / 1e6,
+				droppedCount);
+	}
+}
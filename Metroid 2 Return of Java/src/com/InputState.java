@@ -0,0 +1,101 @@
+package com;
+
+import enums.Button;
+
+/**
+ * Snapshot of the buttons for a single simulation step, stored as bitsets.
+ * Filled in by InputQueue at the start of each step and only read by the
+ * game thread, so entities see the same buttons for the whole step.
+ */
+public class InputState
+{
+	/**
+	 * Buttons held at the end of the step's input.
+	 */
+	private int down;
+	/**
+	 * Buttons pressed since the last step.
+	 */
+	private int pressed;
+	/**
+	 * Buttons released since the last step.
+	 */
+	private int released;
+	
+	
+	/**
+	 * @param button Button to check.
+	 * @return Whether the button is held.
+	 */
+	public boolean isDown(Button button)
+	{
+		return (down & button.getMask()) != 0;
+	}
+	
+	
+	/**
+	 * @param button Button to check.
+	 * @return Whether the button was pressed since the last step, even if it
+	 * has already been released.
+	 */
+	public boolean wasPressed(Button button)
+	{
+		return (pressed & button.getMask()) != 0;
+	}
+	
+	
+	/**
+	 * @param button Button to check.
+	 * @return Whether the button was released since the last step.
+	 */
+	public boolean wasReleased(Button button)
+	{
+		return (released & button.getMask()) != 0;
+	}
+	
+	
+	/**
+	 * @return Bitset of the held buttons, one bit per Button ordinal.
+	 */
+	public int getDown()
+	{
+		return down;
+	}
+	
+	
+	/**
+	 * Starts a new step, keeping the held buttons and forgetting which were
+	 * pressed or released.
+	 */
+	void beginStep()
+	{
+		pressed = 0;
+		released = 0;
+	}
+	
+	
+	/**
+	 * Applies a single key transition.
+	 * @param button Button whose key changed.
+	 * @param isPressed Whether the key was pressed rather than released.
+	 */
+	void apply(Button button, boolean isPressed)
+	{
+		int mask = button.getMask();
+		
+		if (isPressed)
+		{
+			// Key repeat sends more presses while a key is held
+			if ((down & mask) == 0)
+			{
+				pressed |= mask;
+				down |= mask;
+			}
+		}
+		else if ((down & mask) != 0)
+		{
+			released |= mask;
+			down &= ~mask;
+		}
+	}
+}
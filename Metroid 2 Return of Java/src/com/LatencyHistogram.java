@@ -0,0 +1,198 @@
+package com;
+
+/**
+ * Histogram of nanosecond durations in a fixed set of buckets, from which
+ * percentiles can be read. Durations under 16ns each get their own bucket,
+ * longer ones share buckets sixteen to every power of two, so a percentile
+ * is never more than a sixteenth above the true duration.
+ * <p>
+ * Recording allocates nothing, so it can be done every frame. A histogram
+ * must only be recorded into from one thread at a time. Reading it from
+ * another thread gives figures that may be a few durations out of date.
+ */
+public class LatencyHistogram
+{
+	/**
+	 * Bits of each duration below its highest set bit kept by its bucket.
+	 */
+	private static final int SUB_BUCKET_BITS = 4;
+	/**
+	 * Buckets for every power of two.
+	 */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/**
+	 * Highest set bit of the longest duration told apart, about 137 seconds.
+	 * Longer durations are counted in the last bucket.
+	 */
+	private static final int MAX_EXPONENT = 36;
+	/**
+	 * Number of buckets.
+	 */
+	private static final int BUCKETS =
+			(MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	
+	/**
+	 * Durations recorded in each bucket.
+	 */
+	private final long[] counts;
+	/**
+	 * Durations recorded since the histogram was last reset.
+	 */
+	private long count;
+	/**
+	 * Sum of the durations recorded since the histogram was last reset.
+	 */
+	private long total;
+	/**
+	 * Longest duration recorded since the histogram was last reset.
+	 */
+	private long max;
+	
+	
+	/**
+	 * Creates a new instance of LatencyHistogram holding no durations.
+	 */
+	public LatencyHistogram()
+	{
+		this.counts = new long[BUCKETS];
+	}
+	
+	
+	/**
+	 * Adds a duration to the histogram. Negative durations count as 0.
+	 * @param nanos Duration in nanoseconds.
+	 */
+	public void record(long nanos)
+	{
+		long duration = Math.max(nanos, 0);
+		
+		counts[getBucket(duration)]++;
+		count++;
+		total += duration;
+		max = Math.max(max, duration);
+	}
+	
+	
+	/**
+	 * @param percentile Percentage of durations, from 0 to 100.
+	 * @return Duration in nanoseconds that the given percentage of recorded
+	 * durations are no longer than, rounded up to the end of its bucket, or 0
+	 * if nothing was recorded.
+	 */
+	public long getPercentile(double percentile)
+	{
+		if (count == 0)
+		{
+			return 0;
+		}
+		
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		rank = Math.min(Math.max(rank, 1), count);
+		long seen = 0;
+		
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			seen += counts[bucket];
+			
+			if (seen >= rank)
+			{
+				return Math.min(getUpperBound(bucket), max);
+			}
+		}
+		
+		return max;
+	}
+	
+	
+	/**
+	 * @return Durations recorded since the histogram was last reset.
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+	
+	
+	/**
+	 * @return Average nanosecond duration recorded since the histogram was
+	 * last reset, or 0 if nothing was recorded.
+	 */
+	public long getAverage()
+	{
+		return count == 0 ? 0 : total / count;
+	}
+	
+	
+	/**
+	 * @return Longest nanosecond duration recorded since the histogram was
+	 * last reset.
+	 */
+	public long getMax()
+	{
+		return max;
+	}
+	
+	
+	/**
+	 * Forgets every duration recorded so far.
+	 */
+	public void reset()
+	{
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+		{
+			counts[bucket] = 0;
+		}
+		
+		count = 0;
+		total = 0;
+		max = 0;
+	}
+	
+	
+	/**
+	 * @param duration Duration in nanoseconds, not negative.
+	 * @return Bucket the duration is counted in.
+	 */
+	private static int getBucket(long duration)
+	{
+		if (duration < SUB_BUCKETS)
+		{
+			return (int) duration;
+		}
+		
+		int exponent = 63 - Long.numberOfLeadingZeros(duration);
+		
+		if (exponent > MAX_EXPONENT)
+		{
+			return BUCKETS - 1;
+		}
+		
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (duration >>> shift) - SUB_BUCKETS;
+		
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	
+	/**
+	 * @param bucket Bucket of the histogram.
+	 * @return Longest duration in nanoseconds counted in the bucket.
+	 */
+	private static long getUpperBound(int bucket)
+	{
+		if (bucket < SUB_BUCKETS)
+		{
+			return bucket;
+		}
+		
+		if (bucket == BUCKETS - 1)
+		{
+			return Long.MAX_VALUE;
+		}
+		
+		int shift = bucket / SUB_BUCKETS - 1;
+		long subBucket = bucket % SUB_BUCKETS;
+		
+		return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+	}
+}
@@ -0,0 +1,42 @@
+package com;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a map file is malformed.
+ */
+public class MapFormatException extends IOException
+{
+	/**
+	 * Generated serial version ID.
+	 */
+	private static final long serialVersionUID = -2290736166018465210L;
+	/**
+	 * Line of the map file the problem was found on, or 0 if the problem is
+	 * not tied to a line.
+	 */
+	private final int line;
+	
+	
+	/**
+	 * Creates a new instance of MapFormatException.
+	 * @param message Description of the problem.
+	 * @param line Line of the map file the problem was found on, or 0 if the
+	 * problem is not tied to a line.
+	 */
+	public MapFormatException(String message, int line)
+	{
+		super(line > 0 ? "Line " + line + ": " + message : message);
+		this.line = line;
+	}
+	
+	
+	/**
+	 * @return Line of the map file the problem was found on, or 0 if the
+	 * problem is not tied to a line.
+	 */
+	public int getLine()
+	{
+		return line;
+	}
+}
@@ -0,0 +1,512 @@
+package com;
+
+import java.awt.Graphics;
+
+import enums.ProjectileType;
+
+/**
+ * Fixed size pool of projectiles and particles, such as beams and the
+ * sparks they throw off, kept as parallel arrays of primitives. Each one
+ * lives for a number of simulation steps set by its ProjectileType, and
+ * those that collide stop at the first solid tile of the TileMap they sweep
+ * into, bursting into sparks.
+ * <p>
+ * Every array is made up front for the full capacity, and dead slots are
+ * reused through a free list, so after construction spawning, updating and
+ * drawing allocate nothing however many are alive. Spawning into a full pool
+ * drops the new one rather than growing.
+ * <p>
+ * Coordinates are scaled pixels relative to the TileMap origin, ignoring
+ * the position of the TileMap, the same as TileCollider.
+ */
+public class ParticleSystem
+{
+	/**
+	 * Projectiles and particles the game's pool holds.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+	/**
+	 * Every projectile type, indexed by ordinal.
+	 */
+	private static final ProjectileType[] TYPES = ProjectileType.values();
+	/**
+	 * Seed of the sequence spark directions are picked from, so runs play
+	 * out the same way.
+	 */
+	private static final int RANDOM_SEED = 0x2545F491;
+	
+	/**
+	 * Stops colliding projectiles at solid tiles.
+	 */
+	private final TileCollider tileCollider;
+	/**
+	 * Multiplier sizes and speeds are scaled by.
+	 */
+	private final int scaler;
+	/**
+	 * Horizontal coordinate of each slot.
+	 */
+	private final int[] xs;
+	/**
+	 * Vertical coordinate of each slot.
+	 */
+	private final int[] ys;
+	/**
+	 * Horizontal coordinate of each slot at the start of the current
+	 * simulation step.
+	 */
+	private final int[] previousXs;
+	/**
+	 * Vertical coordinate of each slot at the start of the current
+	 * simulation step.
+	 */
+	private final int[] previousYs;
+	/**
+	 * Horizontal velocity of each slot.
+	 */
+	private final int[] dxs;
+	/**
+	 * Vertical velocity of each slot.
+	 */
+	private final int[] dys;
+	/**
+	 * Simulation steps each slot has left to live, 0 if the slot is free.
+	 */
+	private final int[] lives;
+	/**
+	 * Ordinal of the ProjectileType in each slot.
+	 */
+	private final byte[] types;
+	/**
+	 * Free slots below the high water mark, used from the end.
+	 */
+	private final int[] freeSlots;
+	/**
+	 * Number of free slots below the high water mark.
+	 */
+	private int freeCount;
+	/**
+	 * Slot just past the highest slot in use. Only slots below it are
+	 * visited.
+	 */
+	private int highWater;
+	/**
+	 * Number of slots in use.
+	 */
+	private int liveCount;
+	/**
+	 * Projectiles and particles not spawned because the pool was full.
+	 */
+	private long droppedCount;
+	/**
+	 * Scaled pixel width of each type, indexed by ordinal.
+	 */
+	private final int[] widths;
+	/**
+	 * Scaled pixel height of each type, indexed by ordinal.
+	 */
+	private final int[] heights;
+	/**
+	 * Horizontal coordinate of the centre of each hit this step.
+	 */
+	private final int[] hitXs;
+	/**
+	 * Vertical coordinate of the centre of each hit this step.
+	 */
+	private final int[] hitYs;
+	/**
+	 * Sparks thrown off by each hit this step.
+	 */
+	private final int[] hitSparks;
+	/**
+	 * Number of hits this step.
+	 */
+	private int hitCount;
+	/**
+	 * State of the xorshift sequence spark directions are picked from.
+	 */
+	private int randomState;
+	
+	
+	/**
+	 * Creates a new instance of ParticleSystem.
+	 * @param tileMap TileMap whose solid tiles stop colliding projectiles.
+	 * @param scaler Multiplier to scale sizes and speeds by.
+	 * @param capacity Most projectiles and particles alive at once.
+	 */
+	public ParticleSystem(TileMap tileMap, int scaler, int capacity)
+	{
+		if (capacity < 1)
+		{
+			throw new IllegalArgumentException(
+					"Capacity " + capacity + " is out of range.");
+		}
+		
+		this.tileCollider = new TileCollider(tileMap);
+		this.scaler = scaler;
+		this.xs = new int[capacity];
+		this.ys = new int[capacity];
+		this.previousXs = new int[capacity];
+		this.previousYs = new int[capacity];
+		this.dxs = new int[capacity];
+		this.dys = new int[capacity];
+		this.lives = new int[capacity];
+		this.types = new byte[capacity];
+		this.freeSlots = new int[capacity];
+		this.hitXs = new int[capacity];
+		this.hitYs = new int[capacity];
+		this.hitSparks = new int[capacity];
+		this.widths = new int[TYPES.length];
+		this.heights = new int[TYPES.length];
+		this.randomState = RANDOM_SEED;
+		
+		for (ProjectileType type : TYPES)
+		{
+			widths[type.ordinal()] = type.getWidth() * scaler;
+			heights[type.ordinal()] = type.getHeight() * scaler;
+		}
+	}
+	
+	
+	/**
+	 * Adds a projectile or particle.
+	 * @param type Kind to add.
+	 * @param x Horizontal pixel coordinate of its left edge.
+	 * @param y Vertical pixel coordinate of its top edge.
+	 * @param directionX -1 to move left, 1 to move right, 0 to not move
+	 * horizontally.
+	 * @param directionY -1 to move up, 1 to move down, 0 to not move
+	 * vertically.
+	 * @return Whether it was added, false if the pool was full.
+	 */
+	public boolean spawn(
+			ProjectileType type,
+			int x,
+			int y,
+			int directionX,
+			int directionY)
+	{
+		int slot;
+		
+		if (freeCount > 0)
+		{
+			slot = freeSlots[--freeCount];
+		}
+		else if (highWater < lives.length)
+		{
+			slot = highWater++;
+		}
+		else
+		{
+			droppedCount++;
+			return false;
+		}
+		
+		int speed = type.getSpeed() * scaler;
+		
+		xs[slot] = x;
+		ys[slot] = y;
+		previousXs[slot] = x;
+		previousYs[slot] = y;
+		dxs[slot] = directionX * speed;
+		dys[slot] = directionY * speed;
+		lives[slot] = type.getLifetime();
+		types[slot] = (byte) type.ordinal();
+		liveCount++;
+		
+		return true;
+	}
+	
+	
+	/**
+	 * Advances every projectile and particle by one simulation step: ages
+	 * them, moves them, stops colliding ones at solid tiles and throws off
+	 * sparks where they hit.
+	 */
+	public void update()
+	{
+		hitCount = 0;
+		
+		for (int i = 0; i < highWater; i++)
+		{
+			if (lives[i] <= 0)
+			{
+				continue;
+			}
+			
+			previousXs[i] = xs[i];
+			previousYs[i] = ys[i];
+			
+			if (--lives[i] == 0)
+			{
+				free(i);
+				continue;
+			}
+			
+			ProjectileType type = TYPES[types[i]];
+			int dx = dxs[i];
+			int dy = dys[i];
+			
+			if (!type.isColliding())
+			{
+				xs[i] += dx;
+				ys[i] += dy;
+				continue;
+			}
+			
+			int width = widths[types[i]];
+			int height = heights[types[i]];
+			int movedX = tileCollider.moveX(xs[i], ys[i], width, height, dx);
+			int movedY = tileCollider.moveY(xs[i] + movedX, ys[i], width, height, dy);
+			
+			xs[i] += movedX;
+			ys[i] += movedY;
+			
+			if (movedX != dx || movedY != dy)
+			{
+				hitXs[hitCount] = xs[i] + width / 2;
+				hitYs[hitCount] = ys[i] + height / 2;
+				hitSparks[hitCount] = type.getSparkCount();
+				hitCount++;
+				
+				free(i);
+			}
+		}
+		
+		// Sparks are only thrown once every slot has been moved, so none of
+		// them moves in the step it was thrown
+		for (int hit = 0; hit < hitCount; hit++)
+		{
+			for (int spark = 0; spark < hitSparks[hit]; spark++)
+			{
+				throwSpark(hitXs[hit], hitYs[hit]);
+			}
+		}
+		
+		// Let the visited slots shrink back once the top ones are free
+		int oldHighWater = highWater;
+		
+		while (highWater > 0 && lives[highWater - 1] <= 0)
+		{
+			highWater--;
+		}
+		
+		if (highWater < oldHighWater)
+		{
+			compactFreeSlots();
+		}
+	}
+	
+	
+	/**
+	 * Draws every projectile and particle inside a view, one type at a time
+	 * so each colour is only set once, between its last two simulation
+	 * steps.
+	 * @param graphics Incoming graphics object.
+	 * @param offsetX Horizontal pixel position of the TileMap on the view.
+	 * @param offsetY Vertical pixel position of the TileMap on the view.
+	 * @param viewWidth Pixel width of the view.
+	 * @param viewHeight Pixel height of the view.
+	 * @param alpha How far between the last two simulation steps to draw,
+	 * from 0 to 1.
+	 * @return Number of projectiles and particles drawn.
+	 */
+	public int draw(
+			Graphics graphics,
+			int offsetX,
+			int offsetY,
+			int viewWidth,
+			int viewHeight,
+			double alpha)
+	{
+		int drawnCount = 0;
+		
+		for (ProjectileType type : TYPES)
+		{
+			int ordinal = type.ordinal();
+			int width = widths[ordinal];
+			int height = heights[ordinal];
+			boolean isColorSet = false;
+			
+			for (int i = 0; i < highWater; i++)
+			{
+				if (lives[i] <= 0 || types[i] != ordinal)
+				{
+					continue;
+				}
+				
+				int x = offsetX + interpolate(previousXs[i], xs[i], alpha);
+				int y = offsetY + interpolate(previousYs[i], ys[i], alpha);
+				
+				if (x >= viewWidth || y >= viewHeight ||
+						x + width <= 0 || y + height <= 0)
+				{
+					continue;
+				}
+				
+				if (!isColorSet)
+				{
+					graphics.setColor(type.getColor());
+					isColorSet = true;
+				}
+				
+				graphics.fillRect(x, y, width, height);
+				drawnCount++;
+			}
+		}
+		
+		return drawnCount;
+	}
+	
+	
+	/**
+	 * Grows a region to hold every projectile and particle inside a view as
+	 * drawn by draw.
+	 * @param region DirtyRegion to grow.
+	 * @param offsetX Horizontal pixel position of the TileMap on the view.
+	 * @param offsetY Vertical pixel position of the TileMap on the view.
+	 * @param viewWidth Pixel width of the view.
+	 * @param viewHeight Pixel height of the view.
+	 * @param alpha How far between the last two simulation steps to look,
+	 * from 0 to 1.
+	 */
+	public void addDrawnArea(
+			DirtyRegion region,
+			int offsetX,
+			int offsetY,
+			int viewWidth,
+			int viewHeight,
+			double alpha)
+	{
+		for (int i = 0; i < highWater; i++)
+		{
+			if (lives[i] <= 0)
+			{
+				continue;
+			}
+			
+			int x = offsetX + interpolate(previousXs[i], xs[i], alpha);
+			int y = offsetY + interpolate(previousYs[i], ys[i], alpha);
+			int width = widths[types[i]];
+			int height = heights[types[i]];
+			
+			if (x < viewWidth && y < viewHeight &&
+					x + width > 0 && y + height > 0)
+			{
+				region.add(x, y, x + width, y + height);
+			}
+		}
+	}
+	
+	
+	/**
+	 * Removes every projectile and particle.
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < highWater; i++)
+		{
+			lives[i] = 0;
+		}
+		
+		highWater = 0;
+		freeCount = 0;
+		liveCount = 0;
+	}
+	
+	
+	/**
+	 * @return Number of projectiles and particles alive.
+	 */
+	public int getLiveCount()
+	{
+		return liveCount;
+	}
+	
+	
+	/**
+	 * @return Most projectiles and particles alive at once.
+	 */
+	public int getCapacity()
+	{
+		return lives.length;
+	}
+	
+	
+	/**
+	 * @return Projectiles and particles not spawned because the pool was
+	 * full.
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount;
+	}
+	
+	
+	/**
+	 * Returns a slot to the free list.
+	 * @param slot Slot whose projectile or particle has gone.
+	 */
+	private void free(int slot)
+	{
+		lives[slot] = 0;
+		freeSlots[freeCount++] = slot;
+		liveCount--;
+	}
+	
+	
+	/**
+	 * Drops free slots at or above the high water mark from the free list,
+	 * as they are handed out again by raising the mark.
+	 */
+	private void compactFreeSlots()
+	{
+		int kept = 0;
+		
+		for (int i = 0; i < freeCount; i++)
+		{
+			if (freeSlots[i] < highWater)
+			{
+				freeSlots[kept++] = freeSlots[i];
+			}
+		}
+		
+		freeCount = kept;
+	}
+	
+	
+	/**
+	 * Throws a spark out of a point in one of the eight directions.
+	 * @param x Horizontal pixel coordinate of the point.
+	 * @param y Vertical pixel coordinate of the point.
+	 */
+	private void throwSpark(int x, int y)
+	{
+		randomState ^= randomState << 13;
+		randomState ^= randomState >>> 17;
+		randomState ^= randomState << 5;
+		
+		// Pick a cell of the three by three grid of directions, skipping the
+		// middle one that stands still
+		int cell = randomState >>> 29;
+		
+		if (cell >= 4)
+		{
+			cell++;
+		}
+		
+		spawn(ProjectileType.SPARK, x, y, cell % 3 - 1, cell / 3 - 1);
+	}
+	
+	
+	/**
+	 * @param previous Coordinate at the start of the simulation step.
+	 * @param current Coordinate at the end of the simulation step.
+	 * @param alpha How far between the two to look, from 0 to 1.
+	 * @return Coordinate in between.
+	 */
+	private static int interpolate(int previous, int current, double alpha)
+	{
+		return previous + (int) Math.round((current - previous) * alpha);
+	}
+}
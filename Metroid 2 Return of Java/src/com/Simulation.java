@@ -0,0 +1,337 @@
+package com;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import entities.Samus;
+
+import enums.Button;
+
+/**
+ * World of the game without any display: the TileMap, Samus and every other
+ * entity, moved, collided and animated one fixed simulation step at a time
+ * from the buttons recorded into its InputQueue.
+ * <p>
+ * Alongside the Entity objects, simple actors that come in large numbers
+ * are kept in an EntityStore and driven by EntitySystems, which can be run
+ * in parallel by giving the store a ForkJoinPool.
+ * <p>
+ * Everything moves in world pixel coordinates, with the TileMap origin at
+ * the world origin. A Camera follows Samus within the bounds of the
+ * TileMap, and the TileMap is positioned from it every step.
+ * <p>
+ * Nothing here opens a window or waits on a clock, so a Simulation can be
+ * stepped as fast as the machine allows with java.awt.headless=true. A
+ * GameScreen paces the same steps to real time and draws the result.
+ */
+public class Simulation
+{
+	/**
+	 * Unscaled pixel width of the view when no other is given, that of the
+	 * Game Boy screen.
+	 */
+	public static final int DEFAULT_VIEW_WIDTH = 160;
+	/**
+	 * Unscaled pixel height of the view when no other is given, that of the
+	 * Game Boy screen.
+	 */
+	public static final int DEFAULT_VIEW_HEIGHT = 144;
+	/**
+	 * TileMap the entities move within.
+	 */
+	private final TileMap tileMap;
+	/**
+	 * Player controlable character.
+	 */
+	private final Samus samus;
+	/**
+	 * View onto the world, following Samus.
+	 */
+	private final Camera camera;
+	/**
+	 * Every entity, Samus included, in the order they are moved.
+	 */
+	private final List<Entity> entities;
+	/**
+	 * Actors kept as parallel arrays.
+	 */
+	private final EntityStore entityStore;
+	/**
+	 * Systems run over the entity store every simulation step, in order,
+	 * before its actors are moved and animated.
+	 */
+	private final List<EntitySystem> systems;
+	/**
+	 * Pool of beams and the sparks they throw off.
+	 */
+	private final ParticleSystem particles;
+	/**
+	 * Advances the animation of every entity once per simulation step.
+	 */
+	private final Animator animator;
+	/**
+	 * Key transitions recorded since the last simulation step.
+	 */
+	private final InputQueue inputQueue;
+	/**
+	 * Buttons for the current simulation step.
+	 */
+	private final InputState inputState;
+	
+	
+	/**
+	 * Creates a new instance of Simulation.
+	 * @param mapFile TileMap text or binary map file to play.
+	 * @param atlas SpriteAtlas holding every tile and entity image, scaled by
+	 * scaler.
+	 * @param scaler Multiplier to scale the world's coordinates by.
+	 */
+	public Simulation(File mapFile, SpriteAtlas atlas, int scaler)
+	{
+		this(
+				mapFile,
+				atlas,
+				scaler,
+				DEFAULT_VIEW_WIDTH * scaler,
+				DEFAULT_VIEW_HEIGHT * scaler);
+	}
+	
+	
+	/**
+	 * Creates a new instance of Simulation with a view of a given size.
+	 * @param mapFile TileMap text or binary map file to play.
+	 * @param atlas SpriteAtlas holding every tile and entity image, scaled by
+	 * scaler.
+	 * @param scaler Multiplier to scale the world's coordinates by.
+	 * @param viewWidth Pixel width of the camera's view, in scaled world
+	 * pixels.
+	 * @param viewHeight Pixel height of the camera's view, in scaled world
+	 * pixels.
+	 */
+	public Simulation(
+			File mapFile,
+			SpriteAtlas atlas,
+			int scaler,
+			int viewWidth,
+			int viewHeight)
+	{
+		this.tileMap = new TileMap(mapFile, new TileImageLoader(atlas), scaler);
+		this.animator = new Animator();
+		this.inputQueue = new InputQueue(InputQueue.DEFAULT_CAPACITY);
+		this.inputState = new InputState();
+		this.entityStore = new EntityStore();
+		this.systems = new ArrayList<EntitySystem>();
+		this.particles = new ParticleSystem(
+				tileMap,
+				scaler,
+				ParticleSystem.DEFAULT_CAPACITY);
+		
+		// Temporary entity loading for testing
+		// TODO: Entity loading
+		samus = new Samus(75, 92, scaler, tileMap, atlas);
+		entities = new ArrayList<Entity>();
+		entities.add(samus);
+		
+		int blockSize = tileMap.getScaledBlockSize();
+		
+		camera = new Camera(
+				viewWidth,
+				viewHeight,
+				Camera.DEFAULT_DEAD_ZONE_WIDTH * scaler,
+				Camera.DEFAULT_DEAD_ZONE_HEIGHT * scaler);
+		camera.setBounds(
+				0,
+				0,
+				tileMap.getColumns() * blockSize,
+				tileMap.getRows() * blockSize);
+		camera.follow(samus);
+		camera.savePosition();
+		moveTileMap();
+		tileMap.savePosition();
+	}
+	
+	
+	/**
+	 * Advances the world by one simulation step.
+	 */
+	public void step()
+	{
+		readInput();
+		update();
+	}
+	
+	
+	/**
+	 * First half of a simulation step: applies the key transitions recorded
+	 * since the last step and lets Samus respond to the buttons held,
+	 * firing a beam for every press of SHOOT.
+	 */
+	public void readInput()
+	{
+		inputQueue.drain(inputState);
+		samus.handleInput(inputState);
+		
+		if (inputState.wasPressed(Button.SHOOT))
+		{
+			samus.shoot(particles);
+		}
+	}
+	
+	
+	/**
+	 * Second half of a simulation step: moves, collides and animates every
+	 * entity, projectile and particle, then moves the camera after Samus.
+	 */
+	public void update()
+	{
+		tileMap.savePosition();
+		camera.savePosition();
+		
+		// Entity objects are always moved serially, as they may collide with
+		// and change the TileMap they all share
+		for (int i = 0; i < entities.size(); i++)
+		{
+			Entity entity = entities.get(i);
+			
+			entity.savePosition();
+			entity.move();
+		}
+		
+		entityStore.savePositions();
+		
+		for (int i = 0; i < systems.size(); i++)
+		{
+			entityStore.run(systems.get(i));
+		}
+		
+		entityStore.run(EntityStore.MOVE);
+		entityStore.run(EntityStore.ANIMATE);
+		
+		particles.update();
+		animator.tick(entities);
+		
+		camera.follow(samus);
+		moveTileMap();
+	}
+	
+	
+	/**
+	 * Positions the TileMap on the view so the camera's view of the world is
+	 * what is drawn by TileMap.draw.
+	 */
+	private void moveTileMap()
+	{
+		tileMap.setPosition(-camera.getX(), -camera.getY());
+	}
+	
+	
+	/**
+	 * Advances the world by a number of simulation steps, one straight after
+	 * another.
+	 * @param ticks Number of simulation steps to run.
+	 */
+	public void step(long ticks)
+	{
+		for (long tick = 0; tick < ticks; tick++)
+		{
+			step();
+		}
+	}
+	
+	
+	/**
+	 * Adds an entity to be moved and animated every simulation step.
+	 * @param entity Entity to add.
+	 */
+	public void addEntity(Entity entity)
+	{
+		entities.add(entity);
+	}
+	
+	
+	/**
+	 * Adds a system to run over the entity store every simulation step,
+	 * after the systems already added.
+	 * @param system System to add.
+	 */
+	public void addSystem(EntitySystem system)
+	{
+		systems.add(system);
+	}
+	
+	
+	/**
+	 * @return Actors kept as parallel arrays, moved and animated every
+	 * simulation step.
+	 */
+	public EntityStore getEntityStore()
+	{
+		return entityStore;
+	}
+	
+	
+	/**
+	 * @return Pool of beams and the sparks they throw off.
+	 */
+	public ParticleSystem getParticles()
+	{
+		return particles;
+	}
+	
+	
+	/**
+	 * @return Simulation steps run so far.
+	 */
+	public long getTickCount()
+	{
+		return animator.getTickCount();
+	}
+	
+	
+	/**
+	 * @return TileMap the entities move within.
+	 */
+	public TileMap getTileMap()
+	{
+		return tileMap;
+	}
+	
+	
+	/**
+	 * @return Player controlable character.
+	 */
+	public Samus getSamus()
+	{
+		return samus;
+	}
+	
+	
+	/**
+	 * @return View onto the world, following Samus.
+	 */
+	public Camera getCamera()
+	{
+		return camera;
+	}
+	
+	
+	/**
+	 * @return Every entity, Samus included. Must only be changed through
+	 * addEntity.
+	 */
+	public List<Entity> getEntities()
+	{
+		return entities;
+	}
+	
+	
+	/**
+	 * @return Queue that key transitions are recorded into for the next
+	 * simulation step.
+	 */
+	public InputQueue getInputQueue()
+	{
+		return inputQueue;
+	}
+}
@@ -1,6 +1,5 @@
 package com;
 
-import java.awt.Image;
 import java.awt.Rectangle;
 
 public abstract class Sprite 
@@ -13,6 +12,16 @@ public abstract class Sprite
 	 * Vertical coordinate of this Sprite.
 	 */
 	protected int y;
+	/**
+	 * Horizontal coordinate of this Sprite at the start of the current
+	 * simulation step.
+	 */
+	private int previousX;
+	/**
+	 * Vertical coordinate of this Sprite at the start of the current
+	 * simulation step.
+	 */
+	private int previousY;
 	/**
 	 * Width of this Sprite.
 	 */
@@ -24,7 +33,7 @@ public abstract class Sprite
 	/**
 	 * Image used for this tile.
 	 */
-	protected Image image;
+	protected AtlasFrame image;
 	
 	
 	/**
@@ -40,6 +49,8 @@ public abstract class Sprite
 	{
 		this.x = x * scaler;
 		this.y = y * scaler;
+		this.previousX = this.x;
+		this.previousY = this.y;
 	}
 	
 	
@@ -82,9 +93,90 @@ public abstract class Sprite
 	
 	
 	/**
-	 * @return Collision bounds of this sprite.
+	 * Remembers the current coordinates as where this Sprite was at the start
+	 * of a simulation step, to be drawn between the two.
+	 */
+	public void savePosition()
+	{
+		previousX = x;
+		previousY = y;
+	}
+	
+	
+	/**
+	 * @param alpha How far between the start of the simulation step and now
+	 * to look, from 0 to 1.
+	 * @return The horizontal coordinate of this Sprite to draw at.
+	 */
+	public int getInterpolatedX(double alpha)
+	{
+		return previousX + (int) Math.round((x - previousX) * alpha);
+	}
+	
+	
+	/**
+	 * @param alpha How far between the start of the simulation step and now
+	 * to look, from 0 to 1.
+	 * @return The vertical coordinate of this Sprite to draw at.
+	 */
+	public int getInterpolatedY(double alpha)
+	{
+		return previousY + (int) Math.round((y - previousY) * alpha);
+	}
+	
+	
+	/**
+	 * @return Collision bounds of this sprite. Allocates a new Rectangle, so
+	 * code run every frame should use getBounds(Rectangle) or the min and
+	 * max accessors instead.
+	 */
+	public Rectangle getBounds()
+	{
+		return getBounds(new Rectangle());
+	}
+	
+	
+	/**
+	 * Copies the collision bounds of this sprite into an existing Rectangle.
+	 * @param bounds Rectangle to fill.
+	 * @return The given Rectangle.
+	 */
+	public Rectangle getBounds(Rectangle bounds)
+	{
+		bounds.setBounds(
+				getMinX(),
+				getMinY(),
+				getMaxX() - getMinX(),
+				getMaxY() - getMinY());
+		
+		return bounds;
+	}
+	
+	
+	/**
+	 * @return Leftmost pixel of the collision bounds of this sprite.
+	 */
+	public abstract int getMinX();
+	
+	
+	/**
+	 * @return Topmost pixel of the collision bounds of this sprite.
+	 */
+	public abstract int getMinY();
+	
+	
+	/**
+	 * @return Pixel just right of the collision bounds of this sprite, so
+	 * that the width is getMaxX() - getMinX().
+	 */
+	public abstract int getMaxX();
+	
+	
+	/**
+	 * @return Pixel just below the collision bounds of this sprite, so that
+	 * the height is getMaxY() - getMinY().
 	 */
-	public abstract Rectangle getBounds();
+	public abstract int getMaxY();
 	
 	
 	/**
@@ -109,7 +201,7 @@ public abstract class Sprite
 	 * @return The image representing this tile. Returns null if the image has
 	 * not been loaded.
 	 */
-	public Image getImage()
+	public AtlasFrame getImage()
 	{
 		return image;
 	}
@@ -120,7 +212,7 @@ public abstract class Sprite
 	 * the correct image into this tile.
 	 * @param image Image to represent this tile.
 	 */
-	public void setImage(Image image)
+	public void setImage(AtlasFrame image)
 	{
 		this.image = image;
 	}
@@ -0,0 +1,321 @@
+package com;
+
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Packs many small images into a few large sheets at startup. Each image is
+ * taken from the shared AssetCache and copied into a sheet once, then handed
+ * out as an AtlasFrame looked up by its path name. Drawing frames that share a
+ * sheet keeps the renderer reading from one source surface instead of switching
+ * between an image per frame. Sheets are compatible with the screen and only as
+ * transparent as their frames need, so they can be drawn without converting
+ * pixels.
+ * <p>
+ * Frames are packed in shelves: the tallest frames first, left to right,
+ * starting a new shelf below when a row is full and a new sheet when a
+ * sheet is full.
+ */
+public class SpriteAtlas
+{
+	/**
+	 * Default largest pixel width and height of a sheet.
+	 */
+	public static final int DEFAULT_SHEET_SIZE = 1024;
+	/**
+	 * Empty pixels left between frames.
+	 */
+	private static final int PADDING = 1;
+	
+	/**
+	 * Every packed frame keyed by the path name of its image.
+	 */
+	private final Map<String, AtlasFrame> frames;
+	/**
+	 * Every sheet the frames were packed into.
+	 */
+	private final List<BufferedImage> sheets;
+	
+	
+	/**
+	 * Creates a new instance of SpriteAtlas holding the images at the given
+	 * path names. Path names of images that cannot be loaded are left out.
+	 * @param pathNames Path names of the images to pack. Null and repeated
+	 * path names are ignored.
+	 * @param scaler Multiplier to scale each image by.
+	 * @param sheetSize Largest pixel width and height of a sheet.
+	 */
+	public SpriteAtlas(List<String> pathNames, int scaler, int sheetSize)
+	{
+		this.frames = new HashMap<String, AtlasFrame>();
+		this.sheets = new ArrayList<BufferedImage>();
+		
+		AssetCache assets = AssetCache.getShared();
+		List<Source> sources = loadSources(assets, pathNames, scaler, sheetSize);
+		
+		// Packing the tallest frames first keeps each shelf close to full
+		Collections.sort(
+				sources,
+				(a, b) -> Integer.compare(b.height, a.height));
+		
+		pack(sources, sheetSize);
+		
+		// The sheets hold their own copies of the images
+		for (Source source : sources)
+		{
+			assets.release(source.pathName, scaler);
+		}
+	}
+	
+	
+	/**
+	 * Decodes every image in parallel, then packs them into a new atlas. The
+	 * images stay pinned in the AssetCache until they have been packed.
+	 * @param pathNames Path names of the images to pack.
+	 * @param scaler Multiplier to scale each image by.
+	 * @param sheetSize Largest pixel width and height of a sheet.
+	 * @param executor Executor to decode the images and pack the atlas on.
+	 * @return Future completed with the atlas.
+	 */
+	public static CompletableFuture<SpriteAtlas> load(
+			List<String> pathNames,
+			int scaler,
+			int sheetSize,
+			Executor executor)
+	{
+		AssetCache assets = AssetCache.getShared();
+		
+		return assets
+				.preload(pathNames, scaler, executor, true)
+				.thenApplyAsync(loaded ->
+				{
+					try
+					{
+						return new SpriteAtlas(pathNames, scaler, sheetSize);
+					}
+					finally
+					{
+						assets.releaseAll(pathNames, scaler);
+					}
+				},
+				executor);
+	}
+	
+	
+	/**
+	 * @param pathNames Arrays of path names, any of which may be null.
+	 * @return Every path name in the arrays in order, without repeats.
+	 */
+	public static List<String> collect(String[]... pathNames)
+	{
+		LinkedHashSet<String> collected = new LinkedHashSet<String>();
+		
+		for (String[] names : pathNames)
+		{
+			if (names != null)
+			{
+				collected.addAll(Arrays.asList(names));
+			}
+		}
+		
+		collected.remove(null);
+		return new ArrayList<String>(collected);
+	}
+	
+	
+	/**
+	 * @param pathName Path name of a packed image.
+	 * @return The frame holding the image, or null if the image is not in
+	 * this atlas.
+	 */
+	public AtlasFrame get(String pathName)
+	{
+		return frames.get(pathName);
+	}
+	
+	
+	/**
+	 * @return Number of frames in this atlas.
+	 */
+	public int getFrameCount()
+	{
+		return frames.size();
+	}
+	
+	
+	/**
+	 * @return Number of sheets the frames were packed into.
+	 */
+	public int getSheetCount()
+	{
+		return sheets.size();
+	}
+	
+	
+	/**
+	 * @param index Index of a sheet.
+	 * @return The sheet at the given index.
+	 */
+	public BufferedImage getSheet(int index)
+	{
+		return sheets.get(index);
+	}
+	
+	
+	/**
+	 * Acquires every scaled image from an AssetCache.
+	 * @param assets AssetCache to load the images through.
+	 * @param pathNames Path names of the images to load.
+	 * @param scaler Multiplier to scale each image by.
+	 * @param sheetSize Largest pixel width and height of a sheet.
+	 * @return Every image that could be loaded and fits on a sheet.
+	 */
+	private static List<Source> loadSources(
+			AssetCache assets,
+			List<String> pathNames,
+			int scaler,
+			int sheetSize)
+	{
+		List<Source> sources = new ArrayList<Source>();
+		
+		for (String pathName : new LinkedHashSet<String>(pathNames))
+		{
+			if (pathName == null || pathName.isEmpty())
+			{
+				continue;
+			}
+			
+			BufferedImage image = assets.acquire(pathName, scaler);
+			
+			if (image == null)
+			{
+				continue;
+			}
+			
+			if (image.getWidth() > sheetSize || image.getHeight() > sheetSize)
+			{
+				System.err.println(
+						"SpriteAtlas: " + pathName + " is larger than a sheet.");
+				assets.release(pathName, scaler);
+				continue;
+			}
+			
+			sources.add(new Source(pathName, image));
+		}
+		
+		return sources;
+	}
+	
+	
+	/**
+	 * Works out where each image goes, then draws the images into sheets
+	 * just large enough to hold them.
+	 * @param sources Images to pack, tallest first.
+	 * @param sheetSize Largest pixel width and height of a sheet.
+	 */
+	private void pack(List<Source> sources, int sheetSize)
+	{
+		List<Integer> sheetWidths = new ArrayList<Integer>();
+		List<Integer> sheetHeights = new ArrayList<Integer>();
+		List<Integer> sheetTransparencies = new ArrayList<Integer>();
+		int sheet = -1;
+		int shelfX = sheetSize;
+		int shelfY = 0;
+		int shelfHeight = 0;
+		
+		for (Source source : sources)
+		{
+			if (shelfX + source.width > sheetSize)
+			{
+				// Start a new shelf, and a new sheet if the shelf does not fit
+				shelfY += shelfHeight + PADDING;
+				shelfX = 0;
+				shelfHeight = source.height;
+				
+				if (sheet == -1 || shelfY + shelfHeight > sheetSize)
+				{
+					sheet++;
+					shelfY = 0;
+					sheetWidths.add(0);
+					sheetHeights.add(0);
+					sheetTransparencies.add(Transparency.OPAQUE);
+				}
+			}
+			
+			source.sheet = sheet;
+			source.x = shelfX;
+			source.y = shelfY;
+			
+			sheetWidths.set(sheet, Math.max(sheetWidths.get(sheet), shelfX + source.width));
+			sheetHeights.set(sheet, Math.max(sheetHeights.get(sheet), shelfY + source.height));
+			sheetTransparencies.set(sheet, Math.max(
+					sheetTransparencies.get(sheet),
+					CompatibleImages.getTransparency(source.image)));
+			shelfX += source.width + PADDING;
+		}
+		
+		for (int i = 0; i < sheetWidths.size(); i++)
+		{
+			sheets.add(CompatibleImages.create(
+					sheetWidths.get(i),
+					sheetHeights.get(i),
+					sheetTransparencies.get(i)));
+		}
+		
+		for (Source source : sources)
+		{
+			BufferedImage sheetImage = sheets.get(source.sheet);
+			Graphics2D graphics = sheetImage.createGraphics();
+			
+			try
+			{
+				graphics.drawImage(source.image, source.x, source.y, null);
+			}
+			finally
+			{
+				graphics.dispose();
+			}
+			
+			frames.put(source.pathName, new AtlasFrame(
+					sheetImage,
+					source.x,
+					source.y,
+					source.width,
+					source.height));
+		}
+	}
+	
+	
+	/**
+	 * A loaded image waiting to be packed, and where it was placed.
+	 */
+	private static class Source
+	{
+		private final String pathName;
+		private final BufferedImage image;
+		private final int width;
+		private final int height;
+		private int sheet;
+		private int x;
+		private int y;
+		
+		
+		private Source(String pathName, BufferedImage image)
+		{
+			this.pathName = pathName;
+			this.image = image;
+			this.width = image.getWidth();
+			this.height = image.getHeight();
+		}
+	}
+}
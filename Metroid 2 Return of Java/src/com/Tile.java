@@ -1,47 +1,57 @@
 package com;
 
-import java.awt.Rectangle;
-
-public abstract class Tile extends Sprite
+/**
+ * A type of tile. A single instance is shared by every cell of a TileMap
+ * holding this type, so it only stores what is common to all of them. Data
+ * belonging to a single cell, such as its position and visibility, is kept
+ * by the TileMap.
+ */
+public abstract class Tile
 {
 	/**
 	 * This tile's identification number.
 	 */
 	private final int ID;
+	/**
+	 * Character used to represent this tile in tile map text files.
+	 */
+	private final char symbol;
 	/**
 	 * Whether or not this tile is solid.
 	 */
 	private final boolean isSolid;
 	/**
-	 * Whether or not this tile is visible.
+	 * Image used for this tile.
 	 */
-	private boolean isVisible;
+	private AtlasFrame image;
 	
 	
 	/**
 	 * Sets up a new instance of Tile.
-	 * @param x Desired horizontal coordintate.
-	 * @param y Desired vertical coordintate.
 	 * @param ID This tile's identification number.
-	 * @param pathName Path to desired Tile image.
+	 * @param symbol Character used to represent this tile in tile map text
+	 * files.
 	 * @param isSolid Whether or not this tile is solid.
+	 * @param imageLoader Stores each image used to represent a Tile. May be 
+	 * null for tools that only need the tile's data, leaving it without an 
+	 * image.
 	 */
 	public Tile(
-			int x, 
-			int y, 
-			int scaler, 
 			int ID, 
+			char symbol,
 			boolean isSolid,
 			TileImageLoader imageLoader)
 	{
-		super(x, y, scaler);
 		this.ID = ID;
+		this.symbol = symbol;
 		this.isSolid = isSolid;
-		this.isVisible = true;
 		
-		imageLoader.loadImage(this);
+		if (imageLoader != null)
+		{
+			imageLoader.loadImage(this);
+		}
 	}
-
+	
 	
 	/**
 	 * @return This tile's identification number.
@@ -52,9 +62,12 @@ public abstract class Tile extends Sprite
 	}
 	
 	
-	public Rectangle getBounds()
+	/**
+	 * @return Character used to represent this tile in tile map text files.
+	 */
+	public char getSymbol()
 	{
-		return new Rectangle(x, y, TileMap.BLOCK_SIZE, TileMap.BLOCK_SIZE);
+		return symbol;
 	}
 	
 	
@@ -68,20 +81,22 @@ public abstract class Tile extends Sprite
 	
 	
 	/**
-	 * @return Whether or not this tile is visible.
+	 * @return The image representing this tile. Returns null if the image has
+	 * not been loaded.
 	 */
-	public boolean isVisible()
+	public AtlasFrame getImage()
 	{
-		return isVisible;
+		return image;
 	}
 	
 	
 	/**
-	 * Set whether this block should be visible.
-	 * @param isVisible Whether or not this tile should be visible.
+	 * Method to be called by an instance of TileImageLoader to load
+	 * the correct image into this tile.
+	 * @param image Image to represent this tile.
 	 */
-	public void setVisible(boolean isVisible)
+	public void setImage(AtlasFrame image)
 	{
-		this.isVisible = isVisible;
+		this.image = image;
 	}
 }
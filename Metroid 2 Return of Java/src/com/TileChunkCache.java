@@ -0,0 +1,512 @@
+package com;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+
+/**
+ * Caches square groups of tiles from a TileMap as pre-rendered images, so
+ * drawing the map costs one image draw per visible chunk instead of one per
+ * visible tile. A chunk is only redrawn when a tile inside it changes, and
+ * the least recently drawn chunks are evicted once the cache is full.
+ * <p>
+ * Chunks are found by indexing a grid covering the map and kept in least
+ * recently drawn order by a list linked through the chunks themselves, so
+ * drawing chunks that are already cached allocates nothing. Evicted chunks
+ * stay in the grid, and the image of the last one evicted is kept with its
+ * Graphics for the next chunk drawn, so scrolling across the map allocates
+ * nothing either once every chunk has been seen.
+ */
+public class TileChunkCache
+{
+	/**
+	 * Default number of tiles along each side of a chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 8;
+	/**
+	 * Default number of chunks held before the least recently drawn one is
+	 * evicted.
+	 */
+	public static final int DEFAULT_MAX_CHUNKS = 32;
+	
+	/**
+	 * TileMap the chunks are drawn from.
+	 */
+	private final TileMap tileMap;
+	/**
+	 * Number of tiles along each side of a chunk.
+	 */
+	private final int chunkSize;
+	/**
+	 * Number of chunks held before the least recently drawn one is evicted.
+	 */
+	private final int maxChunks;
+	/**
+	 * Number of chunk columns covering the TileMap.
+	 */
+	private final int chunkCols;
+	/**
+	 * Chunks indexed by chunk row * chunkCols + chunk column, whether cached
+	 * or evicted. Null where a chunk has never been drawn.
+	 */
+	private final Chunk[] chunks;
+	/**
+	 * Most recently drawn cached chunk, or null if none are cached.
+	 */
+	private Chunk newest;
+	/**
+	 * Least recently drawn cached chunk, or null if none are cached.
+	 */
+	private Chunk oldest;
+	/**
+	 * Number of chunks currently held.
+	 */
+	private int chunkCount;
+	/**
+	 * Image of an evicted chunk kept to be drawn over by the next new chunk.
+	 */
+	private BufferedImage spareImage;
+	/**
+	 * Graphics of the spare image, or null if there is no spare image.
+	 */
+	private Graphics2D spareGraphics;
+	/**
+	 * Number of chunks that have been drawn into their image.
+	 */
+	private long renderCount;
+	/**
+	 * Number of chunks that have been evicted.
+	 */
+	private long evictionCount;
+	
+	
+	/**
+	 * Creates a new instance of TileChunkCache.
+	 * @param tileMap TileMap the chunks are drawn from.
+	 * @param chunkSize Number of tiles along each side of a chunk.
+	 * @param maxChunks Number of chunks held before the least recently drawn
+	 * one is evicted. Should cover at least the chunks visible on one screen.
+	 */
+	public TileChunkCache(TileMap tileMap, int chunkSize, int maxChunks)
+	{
+		if (chunkSize < 1 || maxChunks < 1)
+		{
+			throw new IllegalArgumentException(
+					"Chunk size and chunk count must be positive.");
+		}
+		
+		this.tileMap = tileMap;
+		this.chunkSize = chunkSize;
+		this.maxChunks = maxChunks;
+		this.chunkCols = (tileMap.getColumns() + chunkSize - 1) / chunkSize;
+			
+		int chunkRows = (tileMap.getRows() + chunkSize - 1) / chunkSize;
+		this.chunks = new Chunk[chunkRows * chunkCols];
+	}
+	
+	
+	/**
+	 * Draws every chunk overlapping a view of the given size.
+	 * @param graphics Incoming graphics object.
+	 * @param observer Object to be notified as the chunk images are drawn.
+	 * @param viewWidth Pixel width of the area being drawn to.
+	 * @param viewHeight Pixel height of the area being drawn to.
+	 * @param xOffset Horizontal pixel position of the TileMap.
+	 * @param yOffset Vertical pixel position of the TileMap.
+	 * @return Number of chunk images drawn.
+	 */
+	public int draw(
+			Graphics graphics,
+			ImageObserver observer,
+			int viewWidth,
+			int viewHeight,
+			int xOffset,
+			int yOffset)
+	{
+		int chunkPixels = chunkSize * tileMap.getScaledBlockSize();
+		int chunkRows = (tileMap.getRows() + chunkSize - 1) / chunkSize;
+		
+		int firstRow = Math.max(0, Math.floorDiv(-yOffset, chunkPixels));
+		int lastRow = Math.min(
+				chunkRows - 1,
+				Math.floorDiv(viewHeight - 1 - yOffset, chunkPixels));
+		int firstCol = Math.max(0, Math.floorDiv(-xOffset, chunkPixels));
+		int lastCol = Math.min(
+				chunkCols - 1,
+				Math.floorDiv(viewWidth - 1 - xOffset, chunkPixels));
+		int drawnCount = 0;
+		
+		for (int row = firstRow; row <= lastRow; row++)
+		{
+			for (int col = firstCol; col <= lastCol; col++)
+			{
+				Chunk chunk = getChunk(row, col, chunkPixels);
+				
+				if (chunk.image != null)
+				{
+					graphics.drawImage(
+							chunk.image,
+							col * chunkPixels + xOffset,
+							row * chunkPixels + yOffset,
+							observer);
+					drawnCount++;
+				}
+			}
+		}
+		
+		return drawnCount;
+	}
+	
+	
+	/**
+	 * Marks the chunk holding a tile as needing to be redrawn.
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 */
+	public void invalidate(int row, int col)
+	{
+		if (row < 0 || row >= tileMap.getRows() ||
+				col < 0 || col >= tileMap.getColumns())
+		{
+			return;
+		}
+		
+		Chunk chunk = chunks[(row / chunkSize) * chunkCols + col / chunkSize];
+		
+		if (chunk != null)
+		{
+			chunk.isDirty = true;
+		}
+	}
+	
+	
+	/**
+	 * Marks every chunk as needing to be redrawn.
+	 */
+	public void invalidateAll()
+	{
+		for (Chunk chunk = newest; chunk != null; chunk = chunk.older)
+		{
+			chunk.isDirty = true;
+		}
+	}
+	
+	
+	/**
+	 * Evicts every chunk and releases their images.
+	 */
+	public void clear()
+	{
+		while (oldest != null)
+		{
+			remove(oldest);
+		}
+		
+		if (spareImage != null)
+		{
+			spareGraphics.dispose();
+			spareImage.flush();
+			spareImage = null;
+			spareGraphics = null;
+		}
+	}
+	
+	
+	/**
+	 * @return Number of chunks currently held.
+	 */
+	public int getChunkCount()
+	{
+		return chunkCount;
+	}
+	
+	
+	/**
+	 * @return Number of chunks that have been drawn into their image.
+	 */
+	public long getRenderCount()
+	{
+		return renderCount;
+	}
+	
+	
+	/**
+	 * @return Number of chunks that have been evicted.
+	 */
+	public long getEvictionCount()
+	{
+		return evictionCount;
+	}
+	
+	
+	/**
+	 * Gets a cached chunk and marks it as the most recently drawn, drawing it
+	 * first if it is missing or out of date. Caching a new chunk evicts the
+	 * least recently drawn one if the cache is full.
+	 * @param row Chunk row.
+	 * @param col Chunk column.
+	 * @param chunkPixels Pixel size of a chunk.
+	 * @return Up to date chunk.
+	 */
+	private Chunk getChunk(int row, int col, int chunkPixels)
+	{
+		int index = row * chunkCols + col;
+		Chunk chunk = chunks[index];
+		
+		if (chunk == null)
+		{
+			chunk = new Chunk(index);
+			chunks[index] = chunk;
+		}
+		
+		if (chunk.isCached)
+		{
+			unlink(chunk);
+		}
+		else
+		{
+			chunk.isCached = true;
+			chunkCount++;
+			
+			if (chunkCount > maxChunks)
+			{
+				remove(oldest);
+			}
+		}
+		
+		// Link as the newest chunk
+		chunk.older = newest;
+		chunk.newer = null;
+		
+		if (newest != null)
+		{
+			newest.newer = chunk;
+		}
+		
+		newest = chunk;
+		
+		if (oldest == null)
+		{
+			oldest = chunk;
+		}
+		
+		if (chunk.isDirty)
+		{
+			render(chunk, row, col, chunkPixels);
+		}
+		
+		return chunk;
+	}
+	
+	
+	/**
+	 * Draws the tiles of a chunk into its image. Chunks without a visible
+	 * tile are left without an image.
+	 * @param chunk Chunk to draw.
+	 * @param row Chunk row.
+	 * @param col Chunk column.
+	 * @param chunkPixels Pixel size of a chunk.
+	 */
+	private void render(Chunk chunk, int row, int col, int chunkPixels)
+	{
+		int firstRow = row * chunkSize;
+		int firstCol = col * chunkSize;
+		
+		if (!hasVisibleTile(firstRow, firstCol))
+		{
+			evict(chunk);
+			chunk.isDirty = false;
+			return;
+		}
+		
+		if (chunk.image == null)
+		{
+			takeImage(chunk, chunkPixels);
+		}
+		
+		Graphics2D graphics = chunk.graphics;
+		
+		// Clear whatever the image held before
+		graphics.setComposite(AlphaComposite.Clear);
+		graphics.fillRect(0, 0, chunkPixels, chunkPixels);
+		graphics.setComposite(AlphaComposite.SrcOver);
+		
+		// Images that are still loading leave the chunk dirty to retry later
+		chunk.isDirty = !tileMap.drawTiles(
+				graphics,
+				null,
+				firstRow,
+				firstRow + chunkSize - 1,
+				firstCol,
+				firstCol + chunkSize - 1,
+				-firstCol * tileMap.getScaledBlockSize(),
+				-firstRow * tileMap.getScaledBlockSize());
+		
+		renderCount++;
+	}
+	
+	
+	/**
+	 * @param firstRow First tile row of a chunk.
+	 * @param firstCol First tile column of a chunk.
+	 * @return Whether the chunk holds at least one visible tile.
+	 */
+	private boolean hasVisibleTile(int firstRow, int firstCol)
+	{
+		for (int row = firstRow; row < firstRow + chunkSize; row++)
+		{
+			for (int col = firstCol; col < firstCol + chunkSize; col++)
+			{
+				if (tileMap.isVisible(row, col))
+				{
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	
+	/**
+	 * Gives a chunk an image to draw into and its Graphics, reusing the image
+	 * of the last evicted chunk if there is one.
+	 * @param chunk Chunk without an image.
+	 * @param chunkPixels Pixel size of a chunk.
+	 */
+	private void takeImage(Chunk chunk, int chunkPixels)
+	{
+		if (spareImage != null && spareImage.getWidth() == chunkPixels)
+		{
+			chunk.image = spareImage;
+			chunk.graphics = spareGraphics;
+			spareImage = null;
+			spareGraphics = null;
+			return;
+		}
+		
+		chunk.image = CompatibleImages.create(
+				chunkPixels,
+				chunkPixels,
+				Transparency.BITMASK);
+		chunk.graphics = chunk.image.createGraphics();
+	}
+	
+	
+	/**
+	 * Releases the image of a chunk, keeping it as the spare image if there
+	 * is not one already.
+	 * @param chunk Chunk being evicted.
+	 */
+	private void evict(Chunk chunk)
+	{
+		if (chunk.image != null)
+		{
+			if (spareImage == null)
+			{
+				spareImage = chunk.image;
+				spareGraphics = chunk.graphics;
+			}
+			else
+			{
+				chunk.graphics.dispose();
+				chunk.image.flush();
+			}
+			
+			chunk.image = null;
+			chunk.graphics = null;
+			evictionCount++;
+		}
+		
+		chunk.isDirty = true;
+	}
+	
+	
+	/**
+	 * Evicts a chunk and stops caching it. The chunk stays in the grid to be
+	 * cached again later.
+	 * @param chunk Cached chunk to remove.
+	 */
+	private void remove(Chunk chunk)
+	{
+		evict(chunk);
+		unlink(chunk);
+		chunk.isCached = false;
+		chunkCount--;
+	}
+	
+	
+	/**
+	 * Takes a chunk out of the least recently drawn order.
+	 * @param chunk Linked chunk.
+	 */
+	private void unlink(Chunk chunk)
+	{
+		if (chunk.newer != null)
+		{
+			chunk.newer.older = chunk.older;
+		}
+		else if (newest == chunk)
+		{
+			newest = chunk.older;
+		}
+		
+		if (chunk.older != null)
+		{
+			chunk.older.newer = chunk.newer;
+		}
+		else if (oldest == chunk)
+		{
+			oldest = chunk.newer;
+		}
+		
+		chunk.newer = null;
+		chunk.older = null;
+	}
+	
+	
+	/**
+	 * A square group of tiles and the image they are drawn into.
+	 */
+	private static class Chunk
+	{
+		/**
+		 * Index of this chunk in the grid of chunks.
+		 */
+		private final int index;
+		/**
+		 * Pre-rendered tiles, or null if the chunk has no visible tile.
+		 */
+		private BufferedImage image;
+		/**
+		 * Graphics drawing into the image, kept for as long as the image is,
+		 * or null if there is no image.
+		 */
+		private Graphics2D graphics;
+		/**
+		 * Whether the chunk is in the least recently drawn order.
+		 */
+		private boolean isCached;
+		/**
+		 * Whether the image needs to be redrawn before it is used.
+		 */
+		private boolean isDirty = true;
+		/**
+		 * Next more recently drawn chunk, or null if this is the newest.
+		 */
+		private Chunk newer;
+		/**
+		 * Next less recently drawn chunk, or null if this is the oldest.
+		 */
+		private Chunk older;
+		
+		
+		private Chunk(int index)
+		{
+			this.index = index;
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package com;
+
+/**
+ * Moves axis aligned boxes through a TileMap without letting them enter
+ * solid tiles. Rather than testing a box against every tile, each move only
+ * tests the cells the leading edge of the box sweeps into, looked up
+ * straight from the TileMap grid. Moves are resolved one axis at a time so
+ * a box can slide along a wall, and nothing is allocated per move.
+ * <p>
+ * Boxes are given in scaled pixel coordinates relative to the TileMap
+ * origin, ignoring the position of the TileMap, the same as
+ * TileMap.getTileBounds.
+ */
+public class TileCollider
+{
+	/**
+	 * TileMap whose solid tiles block movement.
+	 */
+	private final TileMap tileMap;
+	
+	
+	/**
+	 * Creates a new instance of TileCollider.
+	 * @param tileMap TileMap whose solid tiles block movement.
+	 */
+	public TileCollider(TileMap tileMap)
+	{
+		this.tileMap = tileMap;
+	}
+	
+	
+	/**
+	 * Works out how far a box can move horizontally before touching a solid
+	 * tile.
+	 * @param left Leftmost pixel of the box.
+	 * @param top Topmost pixel of the box.
+	 * @param width Pixel width of the box.
+	 * @param height Pixel height of the box.
+	 * @param dx Pixels to move right, or left if negative.
+	 * @return Pixels the box can move, between 0 and dx.
+	 */
+	public int moveX(int left, int top, int width, int height, int dx)
+	{
+		return sweep(left, width, top, height, dx, true);
+	}
+	
+	
+	/**
+	 * Works out how far a box can move vertically before touching a solid
+	 * tile.
+	 * @param left Leftmost pixel of the box.
+	 * @param top Topmost pixel of the box.
+	 * @param width Pixel width of the box.
+	 * @param height Pixel height of the box.
+	 * @param dy Pixels to move down, or up if negative.
+	 * @return Pixels the box can move, between 0 and dy.
+	 */
+	public int moveY(int left, int top, int width, int height, int dy)
+	{
+		return sweep(top, height, left, width, dy, false);
+	}
+	
+	
+	/**
+	 * @param left Leftmost pixel of the box.
+	 * @param top Topmost pixel of the box.
+	 * @param width Pixel width of the box.
+	 * @param height Pixel height of the box.
+	 * @return Whether any cell the box overlaps holds a solid tile.
+	 */
+	public boolean isOverlapping(int left, int top, int width, int height)
+	{
+		if (width <= 0 || height <= 0)
+		{
+			return false;
+		}
+		
+		int blockSize = tileMap.getScaledBlockSize();
+		int firstRow = Math.floorDiv(top, blockSize);
+		int lastRow = Math.floorDiv(top + height - 1, blockSize);
+		int firstCol = Math.floorDiv(left, blockSize);
+		int lastCol = Math.floorDiv(left + width - 1, blockSize);
+		
+		for (int row = firstRow; row <= lastRow; row++)
+		{
+			for (int col = firstCol; col <= lastCol; col++)
+			{
+				if (tileMap.isSolid(row, col))
+				{
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	
+	/**
+	 * Moves the leading edge of a box along one axis a cell at a time,
+	 * stopping at the first line of cells holding a solid tile.
+	 * @param start First pixel of the box along the axis of movement.
+	 * @param size Pixel size of the box along the axis of movement.
+	 * @param crossStart First pixel of the box along the other axis.
+	 * @param crossSize Pixel size of the box along the other axis.
+	 * @param delta Pixels to move along the axis.
+	 * @param isHorizontal Whether the axis of movement is horizontal.
+	 * @return Pixels the box can move, between 0 and delta.
+	 */
+	private int sweep(
+			int start,
+			int size,
+			int crossStart,
+			int crossSize,
+			int delta,
+			boolean isHorizontal)
+	{
+		if (delta == 0 || size <= 0 || crossSize <= 0)
+		{
+			return delta;
+		}
+		
+		int blockSize = tileMap.getScaledBlockSize();
+		int firstCross = Math.floorDiv(crossStart, blockSize);
+		int lastCross = Math.floorDiv(crossStart + crossSize - 1, blockSize);
+		
+		if (delta > 0)
+		{
+			int end = start + size - 1;
+			int lastLine = Math.floorDiv(end + delta, blockSize);
+			
+			for (int line = Math.floorDiv(end, blockSize) + 1; line <= lastLine; line++)
+			{
+				if (isLineSolid(line, firstCross, lastCross, isHorizontal))
+				{
+					return line * blockSize - start - size;
+				}
+			}
+		}
+		else
+		{
+			int lastLine = Math.floorDiv(start + delta, blockSize);
+			
+			for (int line = Math.floorDiv(start, blockSize) - 1; line >= lastLine; line--)
+			{
+				if (isLineSolid(line, firstCross, lastCross, isHorizontal))
+				{
+					return (line + 1) * blockSize - start;
+				}
+			}
+		}
+		
+		return delta;
+	}
+	
+	
+	/**
+	 * @param line Column if the axis of movement is horizontal, otherwise row.
+	 * @param firstCross First cell along the other axis.
+	 * @param lastCross Last cell along the other axis, inclusive.
+	 * @param isHorizontal Whether the axis of movement is horizontal.
+	 * @return Whether any cell of the line within the range holds a solid
+	 * tile.
+	 */
+	private boolean isLineSolid(
+			int line,
+			int firstCross,
+			int lastCross,
+			boolean isHorizontal)
+	{
+		for (int cross = firstCross; cross <= lastCross; cross++)
+		{
+			boolean isSolid = isHorizontal ?
+					tileMap.isSolid(cross, line) :
+					tileMap.isSolid(line, cross);
+			
+			if (isSolid)
+			{
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
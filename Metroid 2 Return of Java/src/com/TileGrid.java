@@ -0,0 +1,71 @@
+package com;
+
+/**
+ * Tile identification numbers of every cell of a map, row by row, as read
+ * from or written to a map file. Empty cells hold TileSet.EMPTY.
+ */
+public class TileGrid
+{
+	/**
+	 * Number of tile rows.
+	 */
+	private final int rows;
+	/**
+	 * Number of tile columns.
+	 */
+	private final int cols;
+	/**
+	 * Identification number of the tile in each cell, row by row.
+	 */
+	private final byte[] tiles;
+	
+	
+	/**
+	 * Creates a new instance of TileGrid.
+	 * @param rows Number of tile rows.
+	 * @param cols Number of tile columns.
+	 * @param tiles Identification number of the tile in each cell, row by
+	 * row. Must hold exactly rows * cols cells.
+	 */
+	public TileGrid(int rows, int cols, byte[] tiles)
+	{
+		if (rows < 0 || cols < 0 || tiles.length != rows * cols)
+		{
+			throw new IllegalArgumentException(
+					"A " + rows + "x" + cols + " grid cannot hold " +
+					tiles.length + " cells.");
+		}
+		
+		this.rows = rows;
+		this.cols = cols;
+		this.tiles = tiles;
+	}
+	
+	
+	/**
+	 * @return Number of tile rows.
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+	
+	
+	/**
+	 * @return Number of tile columns.
+	 */
+	public int getColumns()
+	{
+		return cols;
+	}
+	
+	
+	/**
+	 * @return Identification number of the tile in each cell, row by row.
+	 * The array is not copied.
+	 */
+	public byte[] getTiles()
+	{
+		return tiles;
+	}
+}
@@ -1,28 +1,56 @@
 package com;
 
-import java.awt.Image;
-
-import javax.swing.ImageIcon;
+import java.util.Arrays;
 
 public class TileImageLoader 
 {
-	/**
-	 * All tile images.
-	 */
-	private Image[] tileImages;
 	/**
 	 * Parallel array with tileImages, stores the corresponding path name to 
 	 * each image.
 	 */
-	private String[] pathNames =
+	private static final String[] PATH_NAMES =
 			{
 					"src/resources/four_rocks.png"
 			};
 	
+	/**
+	 * All tile images.
+	 */
+	private AtlasFrame[] tileImages;
+	
 	
+	/**
+	 * Creates a new instance of TileImageLoader with its own SpriteAtlas
+	 * holding only the tile images.
+	 * @param scaler Multiplier to scale each image by.
+	 */
 	public TileImageLoader(int scaler)
 	{
-		loadImages(scaler);
+		this(new SpriteAtlas(
+				Arrays.asList(PATH_NAMES),
+				scaler,
+				SpriteAtlas.DEFAULT_SHEET_SIZE));
+	}
+	
+	
+	/**
+	 * Creates a new instance of TileImageLoader taking the tile images from
+	 * a shared SpriteAtlas.
+	 * @param atlas SpriteAtlas holding every path name from getPathNames.
+	 */
+	public TileImageLoader(SpriteAtlas atlas)
+	{
+		loadImages(atlas);
+	}
+	
+	
+	/**
+	 * @return Path name of the image of each tile, indexed by tile
+	 * identification number.
+	 */
+	public static String[] getPathNames()
+	{
+		return PATH_NAMES.clone();
 	}
 	
 	
@@ -37,22 +65,16 @@ public class TileImageLoader
 	
 	
 	/**
-	 * Loads an image to be used for this Sprite from a given path name.
-	 * @param pathName Path to the desired image.
+	 * Looks up the frame of every tile image in a SpriteAtlas.
+	 * @param atlas SpriteAtlas holding the tile images.
 	 */
-	private void loadImages(int scaler)
+	private void loadImages(SpriteAtlas atlas)
 	{
-		tileImages = new Image[pathNames.length];
+		tileImages = new AtlasFrame[PATH_NAMES.length];
 		
-		for (int i = 0; i < pathNames.length; i++)
+		for (int i = 0; i < PATH_NAMES.length; i++)
 		{
-			ImageIcon icon = new ImageIcon(pathNames[i]);
-			Image rawImage = icon.getImage();
-			
-			tileImages[i] = rawImage.getScaledInstance(
-					rawImage.getWidth(null) * scaler, 
-					rawImage.getHeight(null) * scaler, 
-					0);
+			tileImages[i] = atlas.get(PATH_NAMES[i]);
 		}
 	}
 }
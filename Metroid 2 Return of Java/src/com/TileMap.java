@@ -1,14 +1,13 @@
 package com;
 
 import java.awt.Graphics;
-import java.io.BufferedReader;
+import java.awt.Rectangle;
+import java.awt.image.ImageObserver;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.BitSet;
 
 import screens.GameScreen;
-import tiles.TestTile;
 
 public class TileMap 
 {
@@ -17,9 +16,26 @@ public class TileMap
 	 */
 	public static final int BLOCK_SIZE = 16;
 	/**
-	 * All tiles in the TileMap.
+	 * Identification number of the tile in each cell, row by row. Empty cells
+	 * hold TileSet.EMPTY.
 	 */
-	private Tile[][] tileMap;
+	private byte[] tileMap;
+	/**
+	 * Cells whose tile has been hidden, indexed the same as tileMap.
+	 */
+	private BitSet hiddenTiles;
+	/**
+	 * Shared table of every type of tile in the TileMap.
+	 */
+	private TileSet tileSet;
+	/**
+	 * Number of tile rows.
+	 */
+	private int rows;
+	/**
+	 * Number of tile columns.
+	 */
+	private int cols;
 	/**
 	 * Multiplier to scale the size of the screen by.
 	 */
@@ -32,47 +48,500 @@ public class TileMap
 	 * Vertical pixel position.
 	 */
 	private int yOffset;
+	/**
+	 * Horizontal pixel position at the start of the current simulation step.
+	 */
+	private int previousXOffset;
+	/**
+	 * Vertical pixel position at the start of the current simulation step.
+	 */
+	private int previousYOffset;
+	/**
+	 * Pre-rendered chunks of tiles. Null if chunk caching is off.
+	 */
+	private TileChunkCache chunkCache;
+	/**
+	 * Area of the cells changed since the screen last took them, in scaled
+	 * pixel coordinates ignoring the position of this TileMap.
+	 */
+	private DirtyRegion changedTiles;
+	/**
+	 * Number of images handed to Graphics by the last draw: one per tile, or
+	 * one per chunk when chunk caching is on.
+	 */
+	private int drawnImageCount;
 	
 	
 	/**
 	 * Creates a new instance of TileMap.
-	 * @param tileSheet TileMap text.
+	 * @param tileSheet TileMap text or binary map file.
 	 * @param tileLoader Instance of TileImageLoader.
 	 * @param scaler Multiplier to scale the size of the screen by.
 	 */
 	public TileMap(File tileSheet, TileImageLoader tileLoader, int scaler)
 	{
+		this(tileSheet, new TileSet(tileLoader), scaler);
+	}
+	
+	
+	/**
+	 * Creates a new instance of TileMap.
+	 * @param tileSheet TileMap text or binary map file.
+	 * @param tileSet Shared table of every type of tile.
+	 * @param scaler Multiplier to scale the size of the screen by.
+	 */
+	public TileMap(File tileSheet, TileSet tileSet, int scaler)
+	{
+		this.tileSet = tileSet;
 		this.scaler = scaler;
+		this.changedTiles = new DirtyRegion();
 		
-		loadTiles(tileSheet, tileLoader);
+		loadTiles(tileSheet);
 	}
 	
 	
 	/**
-	 * Draws each visible tile in this TileMap.
+	 * Draws each visible tile in this TileMap that lands in the view of the
+	 * screen's camera, at the position between simulation steps that the
+	 * screen is rendering.
 	 * @param graphics Incoming graphics object.
 	 * @param screen GameScreen instance.
 	 */
 	public void draw(Graphics graphics, GameScreen screen)
 	{
-		Tile drawTile;
+		draw(
+				graphics, 
+				screen,
+				screen.getSimulation().getCamera(),
+				screen.getRenderAlpha());
+	}
+	
+	
+	/**
+	 * Draws each visible tile in this TileMap that lands inside a view of the 
+	 * given size, at the current position of the TileMap.
+	 * @param graphics Incoming graphics object.
+	 * @param observer Object to be notified as the tile images are drawn.
+	 * @param viewWidth Pixel width of the area being drawn to.
+	 * @param viewHeight Pixel height of the area being drawn to.
+	 */
+	public void draw(
+			Graphics graphics, 
+			ImageObserver observer, 
+			int viewWidth, 
+			int viewHeight)
+	{
+		draw(graphics, observer, viewWidth, viewHeight, 1);
+	}
+	
+	
+	/**
+	 * Draws each visible tile in this TileMap that lands inside the view of a
+	 * camera, at the position between simulation steps that is rendering.
+	 * @param graphics Incoming graphics object.
+	 * @param observer Object to be notified as the tile images are drawn.
+	 * @param camera Camera whose view is being drawn, in the same pixel
+	 * coordinates as the tiles.
+	 * @param alpha How far between the last two simulation steps to draw the
+	 * view, from 0 to 1.
+	 */
+	public void draw(
+			Graphics graphics, 
+			ImageObserver observer, 
+			Camera camera,
+			double alpha)
+	{
+		drawAt(
+				graphics, 
+				observer, 
+				camera.getWidth(),
+				camera.getHeight(),
+				-camera.getDrawX(alpha),
+				-camera.getDrawY(alpha));
+	}
+	
+	
+	/**
+	 * Draws each visible tile in this TileMap that lands inside a view of the 
+	 * given size. Only the rows and columns overlapping the view are visited, 
+	 * so the cost of drawing depends on the view size and not the map size.
+	 * When chunk caching is on, the tiles are drawn from pre-rendered chunks 
+	 * instead of one tile at a time.
+	 * @param graphics Incoming graphics object.
+	 * @param observer Object to be notified as the tile images are drawn.
+	 * @param viewWidth Pixel width of the area being drawn to.
+	 * @param viewHeight Pixel height of the area being drawn to.
+	 * @param alpha How far between the position saved at the start of the
+	 * simulation step and the current position to draw the TileMap, from 0
+	 * to 1.
+	 */
+	public void draw(
+			Graphics graphics, 
+			ImageObserver observer, 
+			int viewWidth, 
+			int viewHeight,
+			double alpha)
+	{
+		drawAt(
+				graphics, 
+				observer, 
+				viewWidth,
+				viewHeight,
+				getDrawXOffset(alpha),
+				getDrawYOffset(alpha));
+	}
+	
+	
+	/**
+	 * Draws each visible tile in this TileMap that lands inside a view of the 
+	 * given size, with the TileMap origin at a given position on the view.
+	 * @param graphics Incoming graphics object.
+	 * @param observer Object to be notified as the tile images are drawn.
+	 * @param viewWidth Pixel width of the area being drawn to.
+	 * @param viewHeight Pixel height of the area being drawn to.
+	 * @param drawX Horizontal pixel position to draw the TileMap origin at.
+	 * @param drawY Vertical pixel position to draw the TileMap origin at.
+	 */
+	private void drawAt(
+			Graphics graphics, 
+			ImageObserver observer, 
+			int viewWidth, 
+			int viewHeight,
+			int drawX, 
+			int drawY)
+	{
+		drawnImageCount = 0;
+		
+		if (chunkCache != null)
+		{
+			// Chunks rendered on the way count their tiles through drawTiles,
+			// so the count is only set once they are done
+			drawnImageCount = chunkCache.draw(
+					graphics, 
+					observer, 
+					viewWidth, 
+					viewHeight, 
+					drawX,
+					drawY);
+			return;
+		}
+		
+		int scaledBlockSize = getScaledBlockSize();
+		
+		// Tile (row, col) is drawn at (col, row) * scaledBlockSize + offset
+		drawTiles(
+				graphics, 
+				observer, 
+				Math.floorDiv(-drawY, scaledBlockSize),
+				Math.floorDiv(viewHeight - 1 - drawY, scaledBlockSize),
+				Math.floorDiv(-drawX, scaledBlockSize),
+				Math.floorDiv(viewWidth - 1 - drawX, scaledBlockSize),
+				drawX,
+				drawY);
+	}
+	
+	
+	/**
+	 * @return Number of images handed to Graphics by the last draw: one per
+	 * visible tile in view with a loaded image, or one per chunk in view when
+	 * chunk caching is on.
+	 */
+	public int getDrawnImageCount()
+	{
+		return drawnImageCount;
+	}
+	
+	
+	/**
+	 * Sets whether this TileMap draws from a cache of pre-rendered chunks 
+	 * rather than drawing each tile every frame.
+	 * @param isChunkCached Whether or not to draw from a chunk cache.
+	 */
+	public void setChunkCached(boolean isChunkCached)
+	{
+		if (isChunkCached && chunkCache == null)
+		{
+			chunkCache = new TileChunkCache(
+					this, 
+					TileChunkCache.DEFAULT_CHUNK_SIZE, 
+					TileChunkCache.DEFAULT_MAX_CHUNKS);
+		}
+		else if (!isChunkCached && chunkCache != null)
+		{
+			chunkCache.clear();
+			chunkCache = null;
+		}
+	}
+	
+	
+	/**
+	 * @return The chunk cache used for drawing, or null if chunk caching is 
+	 * off.
+	 */
+	public TileChunkCache getChunkCache()
+	{
+		return chunkCache;
+	}
+	
+	
+	/**
+	 * @return Shared table of every type of tile in this TileMap.
+	 */
+	public TileSet getTileSet()
+	{
+		return tileSet;
+	}
+	
+	
+	/**
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @return Identification number of the tile at the given row and column,
+	 * or TileSet.EMPTY if the cell is empty or outside of this TileMap.
+	 */
+	public int getTileID(int row, int col)
+	{
+		if (!contains(row, col))
+		{
+			return TileSet.EMPTY;
+		}
+		
+		return tileMap[row * cols + col];
+	}
+	
+	
+	/**
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @return The type of tile at the given row and column, or null if the
+	 * cell is empty or outside of this TileMap.
+	 */
+	public Tile getTile(int row, int col)
+	{
+		return tileSet.get(getTileID(row, col));
+	}
+	
+	
+	/**
+	 * Places a type of tile into a cell of this TileMap, making the cell
+	 * visible. Any cached drawing of the cell is redrawn on the next frame.
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @param tile Type of tile to place, or null to empty the cell.
+	 */
+	public void setTile(int row, int col, Tile tile)
+	{
+		if (!contains(row, col))
+		{
+			throw new IndexOutOfBoundsException(
+					"Cell " + row + ", " + col + " is outside of the TileMap.");
+		}
+		
+		int index = row * cols + col;
+		
+		if (tile != null && tileSet.get(tile.getID()) != tile)
+		{
+			throw new IllegalArgumentException(
+					"Tile " + tile.getID() + " is not in this TileMap's set.");
+		}
+		
+		tileMap[index] = (byte) (tile == null ? TileSet.EMPTY : tile.getID());
+		hiddenTiles.clear(index);
+		tileChanged(row, col);
+	}
+	
+	
+	/**
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @return Whether the cell holds a solid tile. Cells outside of this
+	 * TileMap are not solid.
+	 */
+	public boolean isSolid(int row, int col)
+	{
+		Tile tile = getTile(row, col);
+		
+		return tile != null && tile.isSolid();
+	}
+	
+	
+	/**
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @return Whether the cell holds a tile that is visible.
+	 */
+	public boolean isVisible(int row, int col)
+	{
+		return getTileID(row, col) != TileSet.EMPTY &&
+				!hiddenTiles.get(row * cols + col);
+	}
+	
+	
+	/**
+	 * Set whether the tile in a cell should be visible. Any cached drawing of
+	 * the cell is redrawn on the next frame.
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @param isVisible Whether or not the tile should be visible.
+	 */
+	public void setVisible(int row, int col, boolean isVisible)
+	{
+		if (!contains(row, col) || isVisible(row, col) == isVisible)
+		{
+			return;
+		}
+		
+		hiddenTiles.set(row * cols + col, !isVisible);
+		tileChanged(row, col);
+	}
+	
+	
+	/**
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @return Collision bounds of the cell in scaled pixel coordinates,
+	 * ignoring the position of this TileMap.
+	 */
+	public Rectangle getTileBounds(int row, int col)
+	{
+		return getTileBounds(row, col, new Rectangle());
+	}
+	
+	
+	/**
+	 * Copies the collision bounds of a cell into an existing Rectangle.
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @param bounds Rectangle to fill.
+	 * @return The given Rectangle, holding the bounds of the cell in scaled
+	 * pixel coordinates, ignoring the position of this TileMap.
+	 */
+	public Rectangle getTileBounds(int row, int col, Rectangle bounds)
+	{
+		int scaledBlockSize = getScaledBlockSize();
+		
+		bounds.setBounds(
+				col * scaledBlockSize,
+				row * scaledBlockSize,
+				scaledBlockSize,
+				scaledBlockSize);
+		
+		return bounds;
+	}
+	
+	
+	/**
+	 * Draws each visible tile within a range of rows and columns. The range is 
+	 * clamped to the bounds of this TileMap.
+	 * @param graphics Incoming graphics object.
+	 * @param observer Object to be notified as the tile images are drawn.
+	 * @param firstRow First row to draw.
+	 * @param lastRow Last row to draw, inclusive.
+	 * @param firstCol First column to draw.
+	 * @param lastCol Last column to draw, inclusive.
+	 * @param drawX Horizontal pixel position to draw the TileMap origin at.
+	 * @param drawY Vertical pixel position to draw the TileMap origin at.
+	 * @return Whether every tile image was completely drawn.
+	 */
+	boolean drawTiles(
+			Graphics graphics, 
+			ImageObserver observer, 
+			int firstRow, 
+			int lastRow, 
+			int firstCol, 
+			int lastCol, 
+			int drawX, 
+			int drawY)
+	{
+		int scaledBlockSize = getScaledBlockSize();
+		boolean isComplete = true;
 		
-		for (int row = 0; row < tileMap.length; row++)
+		firstRow = Math.max(0, firstRow);
+		lastRow = Math.min(rows - 1, lastRow);
+		firstCol = Math.max(0, firstCol);
+		lastCol = Math.min(cols - 1, lastCol);
+		
+		for (int row = firstRow; row <= lastRow; row++)
 		{
-			for (int col = 0; col < tileMap[0].length; col++)
+			int index = row * cols + firstCol;
+			
+			for (int col = firstCol; col <= lastCol; col++, index++)
 			{
-				drawTile = tileMap[row][col];
+				int ID = tileMap[index];
 				
-				if (drawTile != null && drawTile.isVisible())
+				if (ID != TileSet.EMPTY && !hiddenTiles.get(index))
 				{
-					graphics.drawImage(
-							drawTile.getImage(),
-							drawTile.getX() + xOffset,
-							drawTile.getY() + yOffset,
-							screen);
+					AtlasFrame image = tileSet.get(ID).getImage();
+					
+					// Tiles whose image failed to load are left blank
+					if (image != null)
+					{
+						drawnImageCount++;
+						isComplete &= image.draw(
+								graphics,
+								col * scaledBlockSize + drawX,
+								row * scaledBlockSize + drawY,
+								observer);
+					}
 				}
 			}
 		}
+		
+		return isComplete;
+	}
+	
+	
+	/**
+	 * @return Pixel size of a tile after scaling.
+	 */
+	int getScaledBlockSize()
+	{
+		return BLOCK_SIZE * scaler;
+	}
+	
+	
+	/**
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 * @return Whether the cell is inside of this TileMap.
+	 */
+	private boolean contains(int row, int col)
+	{
+		return row >= 0 && row < rows && col >= 0 && col < cols;
+	}
+	
+	
+	/**
+	 * Marks any cached drawing of a cell as out of date, and adds the cell to
+	 * the changed tiles.
+	 * @param row Tile row.
+	 * @param col Tile column.
+	 */
+	private void tileChanged(int row, int col)
+	{
+		if (chunkCache != null)
+		{
+			chunkCache.invalidate(row, col);
+		}
+		
+		int scaledBlockSize = getScaledBlockSize();
+		
+		changedTiles.add(
+				col * scaledBlockSize,
+				row * scaledBlockSize,
+				(col + 1) * scaledBlockSize,
+				(row + 1) * scaledBlockSize);
+	}
+	
+	
+	/**
+	 * @return Area of the cells changed by setTile or setVisible, in scaled
+	 * pixel coordinates ignoring the position of this TileMap. The screen
+	 * clears it once the cells have been redrawn.
+	 */
+	public DirtyRegion getChangedTiles()
+	{
+		return changedTiles;
 	}
 	
 	
@@ -88,6 +557,41 @@ public class TileMap
 	}
 	
 	
+	/**
+	 * Remembers the current pixel position as where the TileMap was at the
+	 * start of a simulation step, to be drawn between the two.
+	 */
+	public void savePosition()
+	{
+		previousXOffset = xOffset;
+		previousYOffset = yOffset;
+	}
+	
+	
+	/**
+	 * @param alpha How far between the start of the simulation step and now
+	 * to look, from 0 to 1.
+	 * @return Horizontal pixel position to draw at.
+	 */
+	public int getDrawXOffset(double alpha)
+	{
+		return previousXOffset +
+				(int) Math.round((xOffset - previousXOffset) * alpha);
+	}
+	
+	
+	/**
+	 * @param alpha How far between the start of the simulation step and now
+	 * to look, from 0 to 1.
+	 * @return Vertical pixel position to draw at.
+	 */
+	public int getDrawYOffset(double alpha)
+	{
+		return previousYOffset +
+				(int) Math.round((yOffset - previousYOffset) * alpha);
+	}
+	
+	
 	/**
 	 * @return Horizontal pixel position.
 	 */
@@ -107,116 +611,48 @@ public class TileMap
 	
 	
 	/**
-	 * Loads each Tile dictated by a tile map text file into the TileMap.
-	 * @param tileSheet TileMap text.
-	 * @param tileLoader Stores each image used to represent a Tile.
+	 * @return Number of tile rows in this TileMap.
 	 */
-	private void loadTiles(File tileSheet, TileImageLoader tileLoader)
+	public int getRows()
 	{
-		try 
-		{
-			createTileMap(tileSheet);
-			
-			BufferedReader reader = new BufferedReader(new FileReader(tileSheet));
-			String tileRow;
-			int blockSize = BLOCK_SIZE;
-			int x = 0;
-			int y = 0;
-			
-			// Iterate through tileMap creating each Tile
-			for (int row = 0; row < tileMap.length; row++)
-			{
-				tileRow = reader.readLine();
-				
-				for (int col = 0; col < tileRow.length(); col++)
-				{
-					tileMap[row][col] = makeTile(
-							x, 
-							y, 
-							tileRow.charAt(col), 
-							tileLoader);
-					
-					x += blockSize;
-				}
-				
-				y += blockSize;
-				x = 0;
-			}
-			
-			reader.close();
-		} 
-		catch (IOException exception) 
-		{
-			System.err.println(
-					"TileMap text: " + tileSheet.getName() + 
-					" had an error while parsing.");
-			exception.printStackTrace();
-		}
+		return rows;
 	}
 	
 	
 	/**
-	 * Counts the rows and columns in the tile map text file and creates an 
-	 * approproately sized tileMap array.
-	 * @param tileSheet TileMap text.
-	 * @throws FileNotFoundException If the pathname to the TileMap text is 
-	 * invalid.
+	 * @return Number of tile columns in this TileMap.
 	 */
-	private void createTileMap(File tileSheet) throws FileNotFoundException
+	public int getColumns()
 	{
-		BufferedReader reader = new BufferedReader(new FileReader(tileSheet));
-		int height = 0;
-		int width;
-		
-		try 
-		{
-			// Count first line size for width, update height
-			String firstLine = reader.readLine();
-			height++;
-			width = firstLine.length();
-			
-			// Iterate through document for height
-			while (reader.readLine() != null)
-			{
-				height++;
-			}
-			
-			// Finish up
-			reader.close();
-			tileMap = new Tile[height][width];
-		} 
-		catch (IOException exception) 
-		{
-			System.err.println("Error parsing map size.");
-			exception.printStackTrace();
-		}
+		return cols;
 	}
 	
 	
 	/**
-	 * Gets a new instance of a Tile based on its representation in the 
-	 * tile map text file.
-	 * @param x Horizontal pixel coordinate.
-	 * @param y Vertical pixel coordinate.
-	 * @param tileLoader Stores each image used to represent a Tile.
-	 * @param ID Character used to represent this Tile in the tile map text 
-	 * file.
-	 * @return New instance of requested Tile.
+	 * Loads each Tile dictated by a tile map text or binary map file into the 
+	 * TileMap. A map that cannot be loaded is reported and leaves the TileMap 
+	 * empty.
+	 * @param tileSheet TileMap text or binary map file.
 	 */
-	private Tile makeTile(int x, int y, char ID, TileImageLoader tileLoader)
+	private void loadTiles(File tileSheet)
 	{
-		Tile output = null;
+		TileGrid grid;
 		
-		switch (ID)
+		try 
 		{
-			case '.':
-				break;
-				
-			case '0':
-				output = new TestTile(x, y, scaler, tileLoader);
-				break;
+			grid = TileMapLoader.load(tileSheet, tileSet);
+		}
+		catch (IOException exception) 
+		{
+			System.err.println(
+					"TileMap: " + tileSheet.getName() + 
+					" could not be loaded. " + exception.getMessage());
+			grid = new TileGrid(0, 0, new byte[0]);
 		}
 		
-		return output;
+		rows = grid.getRows();
+		cols = grid.getColumns();
+		tileMap = grid.getTiles();
+		hiddenTiles = new BitSet();
 	}
 }
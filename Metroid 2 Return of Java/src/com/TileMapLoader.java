@@ -0,0 +1,252 @@
+package com;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads tile map files into a TileGrid. The file is memory mapped and its
+ * bytes are parsed in a single pass. Text maps are sized as their rows are
+ * found, while binary maps are handed to BinaryMapFormat.
+ */
+public final class TileMapLoader
+{
+	/**
+	 * Character used to represent an empty cell in tile map text files.
+	 */
+	public static final char EMPTY_SYMBOL = '.';
+	/**
+	 * Number of bytes copied out of the mapped file at a time.
+	 */
+	private static final int WINDOW_SIZE = 64 * 1024;
+	/**
+	 * Marks a character that does not represent a tile in the symbol table.
+	 */
+	private static final byte UNKNOWN = -2;
+	
+	
+	private TileMapLoader()
+	{
+	}
+	
+	
+	/**
+	 * Reads a tile map file in either the text or the binary map format,
+	 * telling them apart by the start of the file.
+	 * @param tileSheet TileMap text or binary map file.
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @return Tile identification numbers of every cell of the map.
+	 * @throws MapFormatException If the map file is malformed.
+	 * @throws IOException If the file could not be read.
+	 */
+	public static TileGrid load(File tileSheet, TileSet tileSet)
+			throws IOException
+	{
+		ByteBuffer buffer = map(tileSheet);
+		
+		if (BinaryMapFormat.isBinaryMap(buffer))
+		{
+			return BinaryMapFormat.read(buffer, tileSet);
+		}
+		
+		return parseText(buffer, tileSet);
+	}
+	
+	
+	/**
+	 * Reads a tile map text file. Every row must have as many tiles as the
+	 * first, and every character must be a tile in the TileSet or the empty
+	 * symbol. Rows may end with either "\n" or "\r\n", and blank lines at the
+	 * end of the file are ignored.
+	 * @param tileSheet TileMap text.
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @return Tile identification numbers of every cell of the map.
+	 * @throws MapFormatException If the map text is malformed.
+	 * @throws IOException If the file could not be read.
+	 */
+	public static TileGrid loadText(File tileSheet, TileSet tileSet)
+			throws IOException
+	{
+		return parseText(map(tileSheet), tileSet);
+	}
+	
+	
+	/**
+	 * Memory maps a whole map file.
+	 * @param tileSheet Map file.
+	 * @return Read only buffer over the file.
+	 * @throws IOException If the file could not be mapped.
+	 */
+	private static ByteBuffer map(File tileSheet) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(
+				tileSheet.toPath(),
+				StandardOpenOption.READ))
+		{
+			if (channel.size() > Integer.MAX_VALUE)
+			{
+				throw new MapFormatException("Map file is too large.", 0);
+			}
+			
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+	
+	
+	/**
+	 * Parses the bytes of a tile map text file.
+	 * @param buffer Bytes of the map text.
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @return Tile identification numbers of every cell of the map.
+	 * @throws MapFormatException If the map text is malformed.
+	 */
+	private static TileGrid parseText(ByteBuffer buffer, TileSet tileSet)
+			throws MapFormatException
+	{
+		byte[] symbolIDs = makeSymbolTable(tileSet);
+		byte[] window = new byte[WINDOW_SIZE];
+		// A map never holds more tiles than its file holds bytes
+		byte[] tiles = new byte[buffer.remaining()];
+		int size = 0;
+		int rows = 0;
+		int cols = -1;
+		int col = 0;
+		int line = 1;
+		int blankLine = 0;
+		boolean isAfterReturn = false;
+		
+		while (buffer.hasRemaining())
+		{
+			int length = Math.min(window.length, buffer.remaining());
+			buffer.get(window, 0, length);
+			
+			for (int i = 0; i < length; i++)
+			{
+				byte symbol = window[i];
+				
+				if (symbol == '\r' || symbol == '\n')
+				{
+					// Treat "\r\n" as a single line ending
+					if (symbol == '\n' && isAfterReturn)
+					{
+						isAfterReturn = false;
+						continue;
+					}
+					
+					isAfterReturn = symbol == '\r';
+					
+					if (col == 0)
+					{
+						// Blank lines are only allowed at the end of the file
+						if (blankLine == 0)
+						{
+							blankLine = line;
+						}
+					}
+					else
+					{
+						cols = endRow(cols, col, line, blankLine);
+						rows++;
+						col = 0;
+					}
+					
+					line++;
+					continue;
+				}
+				
+				isAfterReturn = false;
+				byte ID = symbolIDs[symbol & 0xFF];
+				
+				if (ID == UNKNOWN)
+				{
+					throw new MapFormatException(
+							"Unknown tile symbol '" + (char) (symbol & 0xFF) +
+							"' in column " + (col + 1) + ".",
+							line);
+				}
+				
+				tiles[size++] = ID;
+				col++;
+			}
+		}
+		
+		// The last row may not end with a line ending
+		if (col > 0)
+		{
+			cols = endRow(cols, col, line, blankLine);
+			rows++;
+		}
+		
+		if (rows == 0)
+		{
+			throw new MapFormatException("Map file holds no tiles.", 0);
+		}
+		
+		return new TileGrid(rows, cols, Arrays.copyOf(tiles, size));
+	}
+	
+	
+	/**
+	 * @param tileSet Table of every type of tile the map may hold.
+	 * @return Tile identification number for every byte value, EMPTY for the
+	 * empty symbol or UNKNOWN if the byte does not represent a tile.
+	 */
+	private static byte[] makeSymbolTable(TileSet tileSet)
+	{
+		byte[] symbolIDs = new byte[256];
+		
+		for (int symbol = 0; symbol < symbolIDs.length; symbol++)
+		{
+			int ID = tileSet.getID((char) symbol);
+			
+			if (ID != TileSet.EMPTY)
+			{
+				symbolIDs[symbol] = (byte) ID;
+			}
+			else if (symbol == EMPTY_SYMBOL)
+			{
+				symbolIDs[symbol] = TileSet.EMPTY;
+			}
+			else
+			{
+				symbolIDs[symbol] = UNKNOWN;
+			}
+		}
+		
+		return symbolIDs;
+	}
+	
+	
+	/**
+	 * Checks a row that has just been read against the rows before it.
+	 * @param cols Number of tiles in each earlier row, or -1 if this is the
+	 * first row.
+	 * @param rowLength Number of tiles in the row.
+	 * @param line Line the row was read from.
+	 * @param blankLine First blank line found before the row, or 0 if there
+	 * was none.
+	 * @return Number of tiles in each row.
+	 * @throws MapFormatException If the row does not fit with the earlier
+	 * rows.
+	 */
+	private static int endRow(int cols, int rowLength, int line, int blankLine)
+			throws MapFormatException
+	{
+		if (blankLine != 0)
+		{
+			throw new MapFormatException("Blank row inside of the map.", blankLine);
+		}
+		
+		if (cols != -1 && rowLength != cols)
+		{
+			throw new MapFormatException(
+					"Row has " + rowLength + " tiles, expected " + cols + ".",
+					line);
+		}
+		
+		return rowLength;
+	}
+}
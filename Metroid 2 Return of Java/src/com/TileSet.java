@@ -0,0 +1,129 @@
+package com;
+
+import tiles.TestTile;
+
+/**
+ * Table of every type of tile, looked up by identification number or by the
+ * character representing it in tile map text files. One TileSet can be
+ * shared by any number of TileMaps.
+ */
+public class TileSet
+{
+	/**
+	 * Identification number of an empty cell.
+	 */
+	public static final int EMPTY = -1;
+	/**
+	 * Number of tile identification numbers that fit in a TileMap cell.
+	 */
+	public static final int MAX_TILES = Byte.MAX_VALUE + 1;
+	/**
+	 * Number of characters that can represent a tile in tile map text files.
+	 */
+	private static final int SYMBOLS = 128;
+	
+	/**
+	 * Every tile indexed by its identification number.
+	 */
+	private final Tile[] tiles;
+	/**
+	 * Tile identification numbers indexed by the character representing them.
+	 */
+	private final int[] symbolIDs;
+	
+	
+	/**
+	 * Creates a new instance of TileSet holding every tile in the game.
+	 * @param tileLoader Stores each image used to represent a Tile.
+	 */
+	public TileSet(TileImageLoader tileLoader)
+	{
+		this(new TestTile(tileLoader));
+	}
+	
+	
+	/**
+	 * Creates a new instance of TileSet holding the given tiles.
+	 * @param tiles Tiles to hold, each with a unique identification number
+	 * and character.
+	 */
+	public TileSet(Tile... tiles)
+	{
+		int maxID = EMPTY;
+		
+		for (Tile tile : tiles)
+		{
+			if (tile.getID() < 0 || tile.getID() >= MAX_TILES)
+			{
+				throw new IllegalArgumentException(
+						"Tile ID " + tile.getID() + " is out of range.");
+			}
+			
+			maxID = Math.max(maxID, tile.getID());
+		}
+		
+		this.tiles = new Tile[maxID + 1];
+		this.symbolIDs = new int[SYMBOLS];
+		
+		for (int i = 0; i < SYMBOLS; i++)
+		{
+			symbolIDs[i] = EMPTY;
+		}
+		
+		for (Tile tile : tiles)
+		{
+			if (tile.getSymbol() >= SYMBOLS ||
+					this.tiles[tile.getID()] != null ||
+					symbolIDs[tile.getSymbol()] != EMPTY)
+			{
+				throw new IllegalArgumentException(
+						"Tile ID " + tile.getID() + " or symbol '" +
+						tile.getSymbol() + "' is invalid or already used.");
+			}
+			
+			this.tiles[tile.getID()] = tile;
+			symbolIDs[tile.getSymbol()] = tile.getID();
+		}
+	}
+	
+	
+	/**
+	 * @param ID Tile identification number.
+	 * @return The tile with the given identification number, or null if
+	 * there is none.
+	 */
+	public Tile get(int ID)
+	{
+		if (ID < 0 || ID >= tiles.length)
+		{
+			return null;
+		}
+		
+		return tiles[ID];
+	}
+	
+	
+	/**
+	 * @param symbol Character representing a tile in tile map text files.
+	 * @return Identification number of the tile the character represents, or
+	 * EMPTY if it does not represent a tile.
+	 */
+	public int getID(char symbol)
+	{
+		if (symbol >= SYMBOLS)
+		{
+			return EMPTY;
+		}
+		
+		return symbolIDs[symbol];
+	}
+	
+	
+	/**
+	 * @return Number of tile identification numbers in use, including gaps.
+	 */
+	public int size()
+	{
+		return tiles.length;
+	}
+}
@@ -1,17 +1,22 @@
 package entities;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.KeyEvent;
-
-import javax.swing.Timer;
+import java.util.concurrent.ForkJoinPool;
 
 import com.Entity;
+import com.FrameTable;
+import com.InputState;
+import com.ParticleSystem;
+import com.SpriteAtlas;
+import com.TileCollider;
 import com.TileMap;
 
+import enums.Button;
+import enums.ProjectileType;
 import enums.SamusState;
 
 /**
- * Player controlled character. Handles moving the TileMap.
+ * Player controlled character, moving through the TileMap in world pixel
+ * coordinates. The Camera follows her.
  * @author Lucas Gomez
  * @version 1.0
  */
@@ -22,177 +27,190 @@ public class Samus extends Entity
 	 * Pixel coordinate movement speed.
 	 */
 	private static final int SPEED = 2;
-	/**
-	 * Movement animation speed.
-	 */
-	private static final int DELAY = 75;
 	/*
-	 * Collision bounds information for when Samus is standing
+	 * Collision bounds information for when Samus is standing, in unscaled
+	 * pixels
 	 */
-	private static final int STAND_BOUNDS_WIDTH = 65;
-	private static final int STAND_BOUNDS_HEIGHT = 180;
-	private static final int STAND_BOUNDS_OFFSET_X = 25;
+	private static final int STAND_BOUNDS_WIDTH = 13;
+	private static final int STAND_BOUNDS_HEIGHT = 36;
+	private static final int STAND_BOUNDS_OFFSET_X = 5;
 	private static final int STAND_BOUNDS_OFFSET_Y = 0;
+	/**
+	 * Unscaled pixels from the top of Samus' collision bounds to the top of
+	 * the beams she fires.
+	 */
+	private static final int CANNON_OFFSET_Y = 14;
 	
 	/**
 	 * Current state.
 	 */
 	private SamusState state;
 	/**
-	 * Updates the image representing Samus to refect the current state.
+	 * Stops Samus from moving into solid tiles of the TileMap.
 	 */
-	private Timer animator;
-	/**
-	 * Current TileMap Samus is moving within.
-	 */
-	private TileMap tileMap;
+	private TileCollider tileCollider;
 	/**
 	 * Movement speed based on the scale of the screen.
 	 */
 	private int scaledSpeed;
 	/**
-	 * Current frame of animation. Remains 0 if current state is not animated.
+	 * Whether Samus last faced left rather than right.
 	 */
-	private int animationFrame;
+	private boolean isFacingLeft;
 	
 	
 	/**
 	 * Creates a new instance of Samus.
 	 * @param x Starting horizontal pixel coordinate.
 	 * @param y Starting vertical pixel coordinate.
+	 * @param atlas SpriteAtlas holding at least the images of the initial
+	 * SamusState. The images of other states are loaded the first time
+	 * Samus enters them.
 	 */
-	public Samus(int x, int y, int scaler, TileMap tileMap) 
+	public Samus(int x, int y, int scaler, TileMap tileMap, SpriteAtlas atlas)
 	{
 		super(
 				x, 
 				y, 
-				STAND_BOUNDS_WIDTH,
-				STAND_BOUNDS_HEIGHT,
-				STAND_BOUNDS_OFFSET_X,
-				STAND_BOUNDS_OFFSET_Y,
+				STAND_BOUNDS_WIDTH * scaler,
+				STAND_BOUNDS_HEIGHT * scaler,
+				STAND_BOUNDS_OFFSET_X * scaler,
+				STAND_BOUNDS_OFFSET_Y * scaler,
 				scaler, 
 				ENTITY_ID_NUMBER, 
-				SamusState.getPathNamesArray(), 
-				SamusState.getMaxFrames());
-		this.tileMap = tileMap;
-		this.animator = new Timer(DELAY, this);
-		this.animationFrame = 0;
+				new FrameTable(
+						SamusState.getPathNamesArray(),
+						atlas,
+						scaler,
+						ForkJoinPool.commonPool()));
+		this.tileCollider = new TileCollider(tileMap);
 		
 		scaledSpeed = SPEED * scaler;
 		
-		state = SamusState.STAND_FRONT;
-		animator.start();
+		state = SamusState.getInitialState();
+		playState();
 	}
 
 	
 	@Override
 	public void move() 
 	{
-		tileMap.setPosition(
-				tileMap.getXOffset() + -dx, 
-				tileMap.getYOffset() + dy);
+		collide();
+		
+		x += dx;
+		y += dy;
 	}
 	
 	
+	/**
+	 * Shortens this step's movement so Samus stops against solid tiles
+	 * instead of entering them.
+	 */
 	public void collide()
 	{
+		int left = getMinX();
+		int top = getMinY();
+		int width = getMaxX() - getMinX();
+		int height = getMaxY() - getMinY();
 		
+		dx = tileCollider.moveX(left, top, width, height, dx);
+		dy = tileCollider.moveY(left + dx, top, width, height, dy);
 	}
 	
 	
 	@Override
-	public void actionPerformed(ActionEvent e)
+	public void animate()
+	{
+		playState();
+		super.animate();
+	}
+	
+	
+	/**
+	 * Switches to the animation of the current state if it is not already
+	 * playing, and starts loading the frames of the states likely to come
+	 * next in the background.
+	 */
+	private void playState()
 	{
 		switch (state)
 		{
 			case STAND_FRONT:
-				setImageOffset(0, -10);
-				setFrame(state.getStateID());
-				break;
-				
-			case STAND_LEFT:
-				setImageOffset(0, 0);
-				setFrame(state.getStateID());
-				break;
-				
-			case STAND_RIGHT:
-				setImageOffset(0, 0);
-				setFrame(state.getStateID());
-				break;
-				
-			case WALK_LEFT:
-				setImageOffset(0, 0);
-				setFrame(state.getStateID(), animationFrame);
-				if (animationFrame == 2)
-				{
-					animationFrame = 0;
-				}
-				else
-				{
-					animationFrame++;
-				}
+				setImageOffset(0, -2 * scaler);
 				break;
 				
 			case WALK_RIGHT:
-				setImageOffset(-27, 0);
-				setFrame(state.getStateID(), animationFrame);
-				if (animationFrame == 2)
-				{
-					animationFrame = 0;
-				}
-				else
-				{
-					animationFrame++;
-				}
+				setImageOffset(-5 * scaler, 0);
 				break;
 				
 			default:
+				setImageOffset(0, 0);
 				break;
 		}
+		
+		playAnimation(
+				state.getStateID(),
+				state.getPathNames().length,
+				state.getFrameTicks());
+		
+		for (SamusState next : state.getNextStates())
+		{
+			frames.prefetch(next.getStateID());
+		}
 	}
 	
 	
 	/**
-	 * Samus' behavior when a key is pressed.
-	 * @param event Which key is being pressed.
+	 * Fires a beam from Samus' arm cannon the way she last faced.
+	 * @param particles ParticleSystem to add the beam to.
 	 */
-	public void keyPressed(KeyEvent event)
+	public void shoot(ParticleSystem particles)
 	{
-		int key = event.getKeyCode();
-		
-		if (key == KeyEvent.VK_LEFT)
-		{
-			state = SamusState.WALK_LEFT;
-			dx = -scaledSpeed;
-		}
+		int beamWidth = ProjectileType.BEAM.getWidth() * scaler;
+		int beamX = isFacingLeft ? getMinX() - beamWidth : getMaxX();
+		int beamY = getMinY() + CANNON_OFFSET_Y * scaler;
 		
-		if (key == KeyEvent.VK_RIGHT)
-		{
-			state = SamusState.WALK_RIGHT;
-			dx = scaledSpeed;
-		}
+		particles.spawn(
+				ProjectileType.BEAM,
+				beamX,
+				beamY,
+				isFacingLeft ? -1 : 1,
+				0);
 	}
 	
 	
 	/**
-	 * Samus' behavior when a key is released.
-	 * @param event Which key is being released.
+	 * Samus' behavior for the buttons held during a simulation step. A button
+	 * pressed and released again since the last step counts as held for this
+	 * step, so a quick tap still takes a step. When both directions are held,
+	 * the one pressed last wins, and releasing it walks the other way.
+	 * @param input Snapshot of the buttons for the current step.
 	 */
-	public void keyReleased(KeyEvent event)
+	public void handleInput(InputState input)
 	{
-		int key = event.getKeyCode();
+		boolean isLeftDown =
+				input.isDown(Button.LEFT) || input.wasPressed(Button.LEFT);
+		boolean isRightDown =
+				input.isDown(Button.RIGHT) || input.wasPressed(Button.RIGHT);
 		
-		if (key == KeyEvent.VK_LEFT)
+		if (isLeftDown && (input.wasPressed(Button.LEFT) || !isRightDown))
 		{
-			animationFrame = 0;
-			state = SamusState.STAND_LEFT;
-			dx = 0;
+			isFacingLeft = true;
 		}
 		
-		if (key == KeyEvent.VK_RIGHT)
+		if (isRightDown && (input.wasPressed(Button.RIGHT) || !isLeftDown))
+		{
+			isFacingLeft = false;
+		}
+		
+		if (isLeftDown || isRightDown)
+		{
+			state = isFacingLeft ? SamusState.WALK_LEFT : SamusState.WALK_RIGHT;
+			dx = isFacingLeft ? -scaledSpeed : scaledSpeed;
+		}
+		else if (state == SamusState.WALK_LEFT || state == SamusState.WALK_RIGHT)
 		{
-			animationFrame = 0;
-			state = SamusState.STAND_RIGHT;
+			state = isFacingLeft ? SamusState.STAND_LEFT : SamusState.STAND_RIGHT;
 			dx = 0;
 		}
 	}
@@ -0,0 +1,78 @@
+package enums;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Every button the player can hold, and the key bound to it.
+ */
+public enum Button
+{
+	LEFT(KeyEvent.VK_LEFT),
+	RIGHT(KeyEvent.VK_RIGHT),
+	UP(KeyEvent.VK_UP),
+	DOWN(KeyEvent.VK_DOWN),
+	SHOOT(KeyEvent.VK_X);
+	
+	
+	/**
+	 * Every button, indexed by ordinal.
+	 */
+	private static final Button[] BUTTONS = values();
+	
+	/**
+	 * Key code of the key bound to this button.
+	 */
+	private int keyCode;
+	
+	
+	private Button(int keyCode)
+	{
+		this.keyCode = keyCode;
+	}
+	
+	
+	/**
+	 * @param keyCode Key code of a KeyEvent.
+	 * @return The button bound to the key, or null if there is none.
+	 */
+	public static Button fromKeyCode(int keyCode)
+	{
+		for (Button button : BUTTONS)
+		{
+			if (button.keyCode == keyCode)
+			{
+				return button;
+			}
+		}
+		
+		return null;
+	}
+	
+	
+	/**
+	 * @param ordinal Ordinal of a button.
+	 * @return The button with the given ordinal.
+	 */
+	public static Button fromOrdinal(int ordinal)
+	{
+		return BUTTONS[ordinal];
+	}
+	
+	
+	/**
+	 * @return Bit representing this button in a button bitset.
+	 */
+	public int getMask()
+	{
+		return 1 << ordinal();
+	}
+	
+	
+	/**
+	 * @return Key code of the key bound to this button.
+	 */
+	public int getKeyCode()
+	{
+		return keyCode;
+	}
+}
@@ -0,0 +1,52 @@
+package enums;
+
+/**
+ * Part of a frame of the game loop whose time FrameTimings measures.
+ */
+public enum FramePhase
+{
+	/**
+	 * Applying the recorded key transitions and Samus' response to them.
+	 */
+	INPUT("input"),
+	/**
+	 * Moving, colliding and animating every entity.
+	 */
+	UPDATE("update"),
+	/**
+	 * Drawing the TileMap.
+	 */
+	TILE_DRAW("tile draw"),
+	/**
+	 * Drawing every entity and its collision bounds.
+	 */
+	ENTITY_DRAW("entity draw"),
+	/**
+	 * Scaling the frame buffer up onto the screen and showing the back
+	 * buffer.
+	 */
+	PRESENT("present");
+	
+	/**
+	 * Name shown in timing reports.
+	 */
+	private final String label;
+	
+	
+	/**
+	 * @param label Name shown in timing reports.
+	 */
+	private FramePhase(String label)
+	{
+		this.label = label;
+	}
+	
+	
+	/**
+	 * @return Name shown in timing reports.
+	 */
+	public String getLabel()
+	{
+		return label;
+	}
+}
@@ -0,0 +1,136 @@
+package enums;
+
+import java.awt.Color;
+
+/**
+ * Every kind of projectile and particle a ParticleSystem can hold. Sizes and
+ * speeds are in unscaled pixels.
+ */
+public enum ProjectileType
+{
+	/**
+	 * Samus' power beam, a short range shot that bursts into sparks on
+	 * walls.
+	 */
+	BEAM(4, 2, 4, 16, new Color(0xF8F8F8), true, 4),
+	/**
+	 * Missile, slower than the beam but flying much further.
+	 */
+	MISSILE(8, 4, 3, 90, new Color(0xA8A8A8), true, 12),
+	/**
+	 * Spark thrown off where a shot hits a wall, passing through tiles.
+	 */
+	SPARK(1, 1, 1, 10, new Color(0xF8F8F8), false, 0);
+	
+	/**
+	 * Pixel width.
+	 */
+	private final int width;
+	/**
+	 * Pixel height.
+	 */
+	private final int height;
+	/**
+	 * Pixels moved each simulation step along each axis it moves along.
+	 */
+	private final int speed;
+	/**
+	 * Simulation steps before it disappears.
+	 */
+	private final int lifetime;
+	/**
+	 * Colour it is drawn in.
+	 */
+	private final Color color;
+	/**
+	 * Whether it stops at solid tiles.
+	 */
+	private final boolean isColliding;
+	/**
+	 * Sparks thrown off when it hits a solid tile.
+	 */
+	private final int sparkCount;
+	
+	
+	private ProjectileType(
+			int width,
+			int height,
+			int speed,
+			int lifetime,
+			Color color,
+			boolean isColliding,
+			int sparkCount)
+	{
+		this.width = width;
+		this.height = height;
+		this.speed = speed;
+		this.lifetime = lifetime;
+		this.color = color;
+		this.isColliding = isColliding;
+		this.sparkCount = sparkCount;
+	}
+	
+	
+	/**
+	 * @return Unscaled pixel width.
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+	
+	
+	/**
+	 * @return Unscaled pixel height.
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+	
+	
+	/**
+	 * @return Unscaled pixels moved each simulation step along each axis it
+	 * moves along.
+	 */
+	public int getSpeed()
+	{
+		return speed;
+	}
+	
+	
+	/**
+	 * @return Simulation steps before it disappears.
+	 */
+	public int getLifetime()
+	{
+		return lifetime;
+	}
+	
+	
+	/**
+	 * @return Colour it is drawn in.
+	 */
+	public Color getColor()
+	{
+		return color;
+	}
+	
+	
+	/**
+	 * @return Whether it stops at solid tiles.
+	 */
+	public boolean isColliding()
+	{
+		return isColliding;
+	}
+	
+	
+	/**
+	 * @return Sparks thrown off when it hits a solid tile.
+	 */
+	public int getSparkCount()
+	{
+		return sparkCount;
+	}
+}
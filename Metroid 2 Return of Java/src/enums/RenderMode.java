@@ -0,0 +1,37 @@
+package enums;
+
+/**
+ * How GameScreen gets each frame onto the screen.
+ */
+public enum RenderMode
+{
+	/**
+	 * The game thread draws each frame into a page flipped BufferStrategy on
+	 * a Canvas and shows it itself.
+	 */
+	ACTIVE,
+	/**
+	 * The game thread asks Swing to repaint, and the frame is drawn later in
+	 * paintComponent on the event dispatch thread.
+	 */
+	PASSIVE;
+	
+	
+	/**
+	 * @param name Name of a render mode, in any case. May be null.
+	 * @param defaultMode Mode to use if the name does not match a mode.
+	 * @return The render mode with the given name, or defaultMode.
+	 */
+	public static RenderMode fromName(String name, RenderMode defaultMode)
+	{
+		for (RenderMode mode : values())
+		{
+			if (mode.name().equalsIgnoreCase(name))
+			{
+				return mode;
+			}
+		}
+		
+		return defaultMode;
+	}
+}
@@ -0,0 +1,48 @@
+package enums;
+
+/**
+ * Resolution GameScreen draws the world at.
+ */
+public enum RenderScale
+{
+	/**
+	 * The world is drawn at Game Boy resolution from unscaled images into a
+	 * frame buffer, which is scaled up onto the screen once per frame.
+	 */
+	NATIVE,
+	/**
+	 * The world is drawn straight onto the screen from images scaled up when
+	 * they are loaded.
+	 */
+	SCALED;
+	
+	
+	/**
+	 * @param screenScaler Multiplier the screen is scaled up by.
+	 * @return Multiplier the world's images and coordinates are scaled up
+	 * by.
+	 */
+	public int getWorldScaler(int screenScaler)
+	{
+		return this == NATIVE ? 1 : screenScaler;
+	}
+	
+	
+	/**
+	 * @param name Name of a render scale, in any case. May be null.
+	 * @param defaultScale Scale to use if the name does not match a scale.
+	 * @return The render scale with the given name, or defaultScale.
+	 */
+	public static RenderScale fromName(String name, RenderScale defaultScale)
+	{
+		for (RenderScale scale : values())
+		{
+			if (scale.name().equalsIgnoreCase(name))
+			{
+				return scale;
+			}
+		}
+		
+		return defaultScale;
+	}
+}
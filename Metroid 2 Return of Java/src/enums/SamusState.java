@@ -13,10 +13,10 @@ public enum SamusState
 			new String[] { "src/resources/samus_stand_right.png" }),
 	STAND_POINT_UP_LEFT(
 			3, 
-			new String[] { "" }),
+			new String[0]),
 	STAND_POINT_UP_RIGHT(
 			4, 
-			new String[] { "" }),
+			new String[0]),
 	WALK_LEFT(
 			5, 
 			new String[] 
@@ -24,7 +24,8 @@ public enum SamusState
 						"src/resources/samus_walk_left_1.png",
 						"src/resources/samus_walk_left_2.png",
 						"src/resources/samus_walk_left_3.png"
-					}),
+					},
+			5),
 	WALK_RIGHT(
 			6, 
 			new String[] 
@@ -32,43 +33,67 @@ public enum SamusState
 						"src/resources/samus_walk_right_1.png",
 						"src/resources/samus_walk_right_2.png",
 						"src/resources/samus_walk_right_3.png"
-					}),
+					},
+			5),
 	WALK_LEFT_SHOOT(
 			7, 
-			new String[] { "" }),
+			new String[0]),
 	WALK_RIGHT_SHOOT(
 			8, 
-			new String[] { "" }),
+			new String[0]),
 	CROUCH_LEFT(
 			9, 
-			new String[] { "" }),
+			new String[0]),
 	CROUCH_RIGHT(
 			10, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_SHOOT_LEFT(
 			11, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_SHOOT_RIGHT(
 			12, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_SHOOT_UP_LEFT(
 			13, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_SHOOT_UP_RIGHT(
 			14, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_SHOOT_DOWN_LEFT(
 			15, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_SHOOT_DOWN_RIGHT(
 			16, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_FLIP_LEFT(
 			17, 
-			new String[] { "" }),
+			new String[0]),
 	JUMP_FLIP_RIGHT(
 			18, 
-			new String[] { "" });
+			new String[0]);
+	
+	/**
+	 * Most frames of any state's animation.
+	 */
+	private static final int MAX_FRAMES;
+	
+	static
+	{
+		int maxFrames = 0;
+		
+		for (SamusState state : values())
+		{
+			maxFrames = Math.max(maxFrames, state.pathNames.length);
+		}
+		
+		MAX_FRAMES = maxFrames;
+		
+		STAND_FRONT.nextStates = new SamusState[] { WALK_LEFT, WALK_RIGHT };
+		STAND_LEFT.nextStates = new SamusState[] { WALK_LEFT, WALK_RIGHT };
+		STAND_RIGHT.nextStates = new SamusState[] { WALK_RIGHT, WALK_LEFT };
+		WALK_LEFT.nextStates = new SamusState[] { STAND_LEFT, WALK_RIGHT };
+		WALK_RIGHT.nextStates = new SamusState[] { STAND_RIGHT, WALK_LEFT };
+	}
 	
 
 	/**
@@ -79,31 +104,56 @@ public enum SamusState
 	 * The path name to the image representing this state.
 	 */
 	private String[] pathNames;
+	/**
+	 * Simulation steps each frame of this state's animation is shown for. 0
+	 * if this state is not animated.
+	 */
+	private int frameTicks;
+	/**
+	 * States Samus is likely to enter next from this one, whose frames are
+	 * worth loading ahead of time.
+	 */
+	private SamusState[] nextStates;
 	
 	
 	private SamusState(int stateID, String[] pathNames)
+	{
+		this(stateID, pathNames, 0);
+	}
+	
+	
+	private SamusState(int stateID, String[] pathNames, int frameTicks)
 	{
 		this.stateID = stateID;
 		this.pathNames = pathNames;
+		this.frameTicks = frameTicks;
+		this.nextStates = new SamusState[0];
+	}
+	
+	
+	/**
+	 * @return The state Samus starts in, the only one whose frames are
+	 * needed to show the first scene.
+	 */
+	public static SamusState getInitialState()
+	{
+		return STAND_FRONT;
 	}
 	
 	
 	/**
-	 * @return A String array containing all the path names in this enum.
+	 * @return Path names of the frames of every state, indexed by state ID.
+	 * Each state's array is only as long as its animation, and states
+	 * without frames yet have empty arrays.
 	 */
 	public static String[][] getPathNamesArray()
 	{
-		int states = SamusState.values().length;
-		int maxFrames = SamusState.getMaxFrames();
-		
-		String[][] pathNames = new String[states][maxFrames];
+		SamusState[] states = values();
+		String[][] pathNames = new String[states.length][];
 		
-		for (SamusState state : SamusState.values())
+		for (SamusState state : states)
 		{
-			for (int i = 0; i < state.getPathNames().length; i++)
-			{
-				pathNames[state.getStateID()][i] = state.getPathNames()[i];
-			}
+			pathNames[state.getStateID()] = state.pathNames.clone();
 		}
 		
 		return pathNames;
@@ -115,17 +165,7 @@ public enum SamusState
 	 */
 	public static int getMaxFrames()
 	{
-		int maxFrames = 0;
-		
-		for (SamusState state : SamusState.values())
-		{
-			if (maxFrames < state.pathNames.length)
-			{
-				maxFrames = state.pathNames.length;
-			}
-		}
-		
-		return maxFrames;
+		return MAX_FRAMES;
 	}
 	
 	
@@ -138,6 +178,16 @@ public enum SamusState
 	}
 	
 	
+	/**
+	 * @return Simulation steps each frame of this state's animation is shown
+	 * for. 0 if this state is not animated.
+	 */
+	public int getFrameTicks()
+	{
+		return frameTicks;
+	}
+	
+	
 	/**
 	 * @return The path name to the image representing this state.
 	 */
@@ -145,4 +195,14 @@ public enum SamusState
 	{
 		return pathNames;
 	}
+	
+	
+	/**
+	 * @return States Samus is likely to enter next from this one, whose
+	 * frames are worth loading ahead of time. Must not be changed.
+	 */
+	public SamusState[] getNextStates()
+	{
+		return nextStates;
+	}
 }
@@ -1,23 +1,52 @@
 package screens;
 
+import java.awt.BorderLayout;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
+import com.AtlasFrame;
+import com.Camera;
+import com.CompatibleImages;
+import com.DirtyRegion;
 import com.Entity;
+import com.EntityStore;
+import com.FrameClock;
+import com.FrameTimings;
+import com.InputQueue;
+import com.Simulation;
+import com.SpriteAtlas;
 import com.TileImageLoader;
 import com.TileMap;
 
-import entities.Samus;
+import enums.FramePhase;
+import enums.RenderMode;
+import enums.RenderScale;
+import enums.SamusState;
 
 /**
  * JPanel that runs an instance of Metroid 2: Return of Samus.
@@ -30,67 +59,316 @@ public class GameScreen extends JPanel implements Runnable
 	 * Generated serial version ID.
 	 */
 	private static final long serialVersionUID = 7729757206765452799L;
+	/**
+	 * System property that turns on printing the input latency report.
+	 */
+	private static final String INPUT_LATENCY_PROPERTY = "metroid.inputLatency";
+	/**
+	 * Simulation steps between input latency reports.
+	 */
+	private static final int INPUT_LATENCY_REPORT_STEPS = 600;
+	/**
+	 * System property naming a file the frame timings are written to when
+	 * the game exits, as JSON if the name ends in ".json" and CSV otherwise.
+	 */
+	private static final String FRAME_TIMINGS_PROPERTY = "metroid.frameTimings";
+	/**
+	 * Key showing and hiding the frame timing overlay.
+	 */
+	private static final int TIMING_OVERLAY_KEY = KeyEvent.VK_F3;
+	/**
+	 * Frames between updates of the text of the frame timing overlay.
+	 */
+	private static final int TIMING_OVERLAY_REFRESH_FRAMES = 30;
+	/**
+	 * Font of the frame timing overlay.
+	 */
+	private static final Font TIMING_OVERLAY_FONT =
+			new Font(Font.MONOSPACED, Font.PLAIN, 12);
+	/**
+	 * Colour behind the text of the frame timing overlay.
+	 */
+	private static final Color TIMING_OVERLAY_BACKGROUND = new Color(0, 0, 0, 192);
+	/**
+	 * Path name of the map loaded when no other map is given.
+	 */
+	public static final String DEFAULT_MAP = "src/maps/test_map";
 	/**
 	 * Multiplier to scale the size of the screen by.
 	 */
 	private int scaler;
 	/**
-	 * How long each frame should take in milliseconds.
+	 * Frame buffer the world is drawn into at native resolution before being
+	 * scaled up onto the screen, or null if the world is drawn at the
+	 * screen's scale.
 	 */
-	private long frameTime;
+	private BufferedImage frameBuffer;
 	/**
-	 * Whether or not this game is running.
+	 * Graphics drawing into the frame buffer, kept for the life of the
+	 * screen so rendering a frame does not create one.
+	 */
+	private Graphics2D frameGraphics;
+	/**
+	 * Paces the game loop in fixed simulation steps.
+	 */
+	private FrameClock frameClock;
+	/**
+	 * World being played, stepped once per simulation step.
+	 */
+	private Simulation simulation;
+	/**
+	 * Whether to print the input latency report every
+	 * INPUT_LATENCY_REPORT_STEPS simulation steps.
+	 */
+	private boolean isReportingInputLatency;
+	/**
+	 * Time spent in each phase of the game loop.
+	 */
+	private FrameTimings frameTimings;
+	/**
+	 * Nanoseconds spent presenting the frame being drawn so far.
+	 */
+	private long presentTime;
+	/**
+	 * Whether the frame timing overlay is drawn over the game.
 	 */
-	private boolean isRunning;
+	private volatile boolean isTimingOverlayShown;
 	/**
-	 * Stores each image used to represent a Tile.
+	 * Lines of text of the frame timing overlay, one per phase and one for
+	 * the number of things drawn.
 	 */
-	private TileImageLoader tileLoader;
+	private String[] timingOverlayLines;
+	/**
+	 * Frames drawn with the frame timing overlay since its text was last
+	 * updated.
+	 */
+	private int timingOverlayFrames;
+	/**
+	 * How far between the last two simulation steps the current frame is
+	 * being rendered, from 0 to 1.
+	 */
+	private volatile double renderAlpha;
+	/**
+	 * Whether or not this game is running.
+	 */
+	private volatile boolean isRunning;
 	/**
 	 * Game loop.
 	 */
 	private Thread gameThread;
 	/**
-	 * Player controlable character.
+	 * How each frame gets onto the screen. Read on the event dispatch thread
+	 * while painting, and changed on the game thread if active rendering
+	 * falls back to passive.
+	 */
+	private volatile RenderMode renderMode;
+	/**
+	 * Surface drawn to in active rendering. Null in passive rendering.
+	 */
+	private Canvas canvas;
+	/**
+	 * Page flipping buffers of the canvas. Created by the game thread once
+	 * the canvas is displayable.
+	 */
+	private BufferStrategy bufferStrategy;
+	/**
+	 * Whether the back buffer still holds the last frame shown, so only the
+	 * part of it that changed needs redrawing.
+	 */
+	private boolean isBackBufferKept;
+	/**
+	 * Area of the view that changed since the last frame, in view pixel
+	 * coordinates before scaling up to the screen.
+	 */
+	private DirtyRegion dirtyRegion;
+	/**
+	 * Dirty region in screen pixel coordinates, reused every frame.
+	 */
+	private Rectangle dirtyBounds;
+	/**
+	 * Whether the whole screen must be redrawn on the next frame, such as
+	 * after it was uncovered.
+	 */
+	private volatile boolean isFullRedrawRequested;
+	/**
+	 * TileMap position the last frame was drawn at.
+	 */
+	private int drawnMapX;
+	/**
+	 * TileMap position the last frame was drawn at.
+	 */
+	private int drawnMapY;
+	/**
+	 * Number of entities whose image and area in the last frame are held in
+	 * drawnFrames and drawnAreas.
+	 */
+	private int trackedCount;
+	/**
+	 * Image each entity was drawn with in the last frame, or null if it was
+	 * out of view.
+	 */
+	private AtlasFrame[] drawnFrames;
+	/**
+	 * Area each entity covered in the last frame, four values per entity in
+	 * the order of getMinX, getMinY, getMaxX and getMaxY.
 	 */
-	private Samus samus;
+	private int[] drawnAreas;
 	/**
-	 * Naive storage of current TileMap.
-	 * TODO: TileMap loading
+	 * Area covering the images of every actor of the entity store drawn in
+	 * the last frame.
 	 */
-	private TileMap tileMap;
+	private DirtyRegion drawnActors;
 	/**
-	 * All entities to render for each frame.
+	 * Area covering every projectile and particle drawn in the last frame.
 	 */
-	private List<Entity> entities;
+	private DirtyRegion drawnParticles;
+	/**
+	 * Number of tile or chunk images drawn in the last frame.
+	 */
+	private int drawnTileCount;
+	/**
+	 * Number of entities drawn in the last frame.
+	 */
+	private int drawnEntityCount;
+	/**
+	 * Number of actors of the entity store drawn in the last frame.
+	 */
+	private int drawnActorCount;
+	/**
+	 * Number of projectiles and particles drawn in the last frame.
+	 */
+	private int drawnParticleCount;
+	
+	
+	/**
+	 * Creates a new instance of GameScreen, loading its images on the calling
+	 * thread.
+	 * @param width Width of this screen.
+	 * @param height Height of this screen.
+	 * @param frameTime How long each simulation step should take in
+	 * nanoseconds.
+	 * @param renderMode How each frame gets onto the screen.
+	 * @param renderScale Resolution the world is drawn at.
+	 */
+	public GameScreen(
+			int width,
+			int height,
+			int scaler,
+			long frameTime,
+			RenderMode renderMode,
+			RenderScale renderScale)
+	{
+		this(
+				width,
+				height,
+				scaler,
+				frameTime,
+				renderMode,
+				renderScale,
+				createAtlas(renderScale.getWorldScaler(scaler)));
+	}
 	
 	
 	/**
 	 * Creates a new instance of GameScreen.
 	 * @param width Width of this screen.
 	 * @param height Height of this screen.
+	 * @param frameTime How long each simulation step should take in
+	 * nanoseconds.
+	 * @param renderMode How each frame gets onto the screen.
+	 * @param renderScale Resolution the world is drawn at.
+	 * @param atlas Atlas from loadAssets holding the images of the first
+	 * scene, scaled by renderScale's world scaler.
+	 */
+	public GameScreen(
+			int width,
+			int height,
+			int scaler,
+			long frameTime,
+			RenderMode renderMode,
+			RenderScale renderScale,
+			SpriteAtlas atlas)
+	{
+		this(
+				width,
+				height,
+				scaler,
+				frameTime,
+				renderMode,
+				renderScale,
+				atlas,
+				new File(DEFAULT_MAP));
+	}
+	
+	
+	/**
+	 * Creates a new instance of GameScreen playing a given map.
+	 * @param width Width of this screen.
+	 * @param height Height of this screen.
+	 * @param frameTime How long each simulation step should take in
+	 * nanoseconds.
+	 * @param renderMode How each frame gets onto the screen.
+	 * @param renderScale Resolution the world is drawn at.
+	 * @param atlas Atlas from loadAssets holding the images of the first
+	 * scene, scaled by renderScale's world scaler.
+	 * @param mapFile TileMap text or binary map file to play.
 	 */
-	public GameScreen(int width, int height, int scaler, long frameTime)
+	public GameScreen(
+			int width,
+			int height,
+			int scaler,
+			long frameTime,
+			RenderMode renderMode,
+			RenderScale renderScale,
+			SpriteAtlas atlas,
+			File mapFile)
 	{
-		this.frameTime = frameTime;
+		this.frameClock = new FrameClock(
+				frameTime,
+				FrameClock.DEFAULT_MAX_CATCH_UP_STEPS);
+		this.isReportingInputLatency = Boolean.getBoolean(INPUT_LATENCY_PROPERTY);
+		this.frameTimings = new FrameTimings();
+		this.timingOverlayLines = new String[0];
 		this.scaler = scaler;
+		this.dirtyRegion = new DirtyRegion();
+		this.dirtyBounds = new Rectangle();
+		this.drawnFrames = new AtlasFrame[0];
+		this.drawnAreas = new int[0];
+		this.drawnActors = new DirtyRegion();
+		this.drawnParticles = new DirtyRegion();
+		isFullRedrawRequested = true;
 		isRunning = true;
-		tileLoader = new TileImageLoader(scaler);
 		
-		tileMap = new TileMap(
-				new File("src/maps/test_map"), 
-				tileLoader, 
-				scaler);
+		int worldScaler = renderScale.getWorldScaler(scaler);
+		
+		if (renderScale == RenderScale.NATIVE)
+		{
+			frameBuffer = CompatibleImages.create(width, height, Transparency.OPAQUE);
+			frameGraphics = frameBuffer.createGraphics();
+		}
+		
+		simulation = new Simulation(
+				mapFile,
+				atlas,
+				worldScaler,
+				width * worldScaler,
+				height * worldScaler);
+		simulation.getTileMap().setChunkCached(true);
+		
+		String timingsPathName = System.getProperty(FRAME_TIMINGS_PROPERTY);
 		
-		// Temporary entity loading for testing
-		// TODO: Entity loading
-		samus = new Samus(75, 92, scaler, tileMap);
-		entities = new ArrayList<Entity>();
-		entities.add(samus);
+		if (timingsPathName != null)
+		{
+			Runtime.getRuntime().addShutdownHook(new Thread(
+					() -> writeFrameTimings(new File(timingsPathName)),
+					"Frame timings writer"));
+		}
 		
-		addKeyListener(new ControlAdapter());
+		ControlAdapter controlAdapter = new ControlAdapter();
+		addKeyListener(controlAdapter);
 		
 		setProperties(width * scaler, height * scaler);
+		setRenderMode(renderMode, controlAdapter);
 	}
 	
 	
@@ -98,16 +376,19 @@ public class GameScreen extends JPanel implements Runnable
 	public void paintComponent(Graphics graphics)
 	{
 		super.paintComponent(graphics);
-		Graphics2D graphics2D = (Graphics2D) graphics;
-		
-		graphics2D.setPaint(Color.BLUE);
-		
-		tileMap.draw(graphics, this);
 		
-		for (Entity entity : entities)
+		if (renderMode == RenderMode.PASSIVE)
 		{
-			drawEntity(entity, graphics);
-			graphics2D.draw(entity.getBounds());
+			render(graphics);
+			
+			// Swing shows the frame itself after painting, so only scaling up
+			// the frame buffer is there to time
+			if (frameBuffer != null)
+			{
+				frameTimings.recordDuration(FramePhase.PRESENT, presentTime);
+			}
+			
+			presentTime = 0;
 		}
 	}
 	
@@ -125,28 +406,23 @@ public class GameScreen extends JPanel implements Runnable
 	@Override
 	public void run() 
 	{
-		long frameMoment;
-		long renderTime;
-		long sleepTime;
-		
-		frameMoment = System.currentTimeMillis();
+		frameClock.start();
 		
 		while(isRunning)
 		{
-			doFrame();
-			repaint();
+			int steps = frameClock.advance();
 			
-			renderTime = System.currentTimeMillis() - frameMoment;
-			sleepTime = frameTime - renderTime;
-			
-			if (sleepTime < 0)
+			for (int step = 0; step < steps; step++)
 			{
-				sleepTime = 2;
+				doFrame();
 			}
 			
+			renderAlpha = frameClock.getAlpha();
+			present();
+			
 			try
 			{
-				Thread.sleep(sleepTime);
+				frameClock.waitForNextStep();
 			}
 			catch (InterruptedException exception)
 			{
@@ -160,9 +436,393 @@ public class GameScreen extends JPanel implements Runnable
 						"Error", 
 						JOptionPane.ERROR_MESSAGE);
 			}
+		}
+	}
+	
+	
+	/**
+	 * @return How each frame gets onto the screen. Falls back to passive
+	 * rendering if active rendering could not be set up.
+	 */
+	public RenderMode getRenderMode()
+	{
+		return renderMode;
+	}
+	
+	
+	/**
+	 * Adds an entity to be moved, animated and drawn every frame.
+	 * @param entity Entity to add.
+	 */
+	public void addEntity(Entity entity)
+	{
+		simulation.addEntity(entity);
+	}
+	
+	
+	/**
+	 * @return Time spent in each phase of the game loop.
+	 */
+	public FrameTimings getFrameTimings()
+	{
+		return frameTimings;
+	}
+	
+	
+	/**
+	 * Shows or hides the frame timing overlay, redrawing the whole screen on
+	 * the next frame so nothing of a hidden overlay is left behind.
+	 * @param isTimingOverlayShown Whether the overlay is drawn over the game.
+	 */
+	public void setTimingOverlayShown(boolean isTimingOverlayShown)
+	{
+		this.isTimingOverlayShown = isTimingOverlayShown;
+		isFullRedrawRequested = true;
+	}
+	
+	
+	/**
+	 * @return Number of tile images drawn in the last frame, or of chunk
+	 * images when the TileMap is chunk cached.
+	 */
+	public int getDrawnTileCount()
+	{
+		return drawnTileCount;
+	}
+	
+	
+	/**
+	 * @return Number of entities drawn in the last frame. Entities out of
+	 * view are not drawn.
+	 */
+	public int getDrawnEntityCount()
+	{
+		return drawnEntityCount;
+	}
+	
+	
+	/**
+	 * @return Number of actors of the entity store drawn in the last frame.
+	 * Actors out of view are not drawn.
+	 */
+	public int getDrawnActorCount()
+	{
+		return drawnActorCount;
+	}
+	
+	
+	/**
+	 * @return Number of projectiles and particles drawn in the last frame.
+	 */
+	public int getDrawnParticleCount()
+	{
+		return drawnParticleCount;
+	}
+	
+	
+	/**
+	 * @return World being played.
+	 */
+	public Simulation getSimulation()
+	{
+		return simulation;
+	}
+	
+	
+	/**
+	 * @return Queue that key transitions are recorded into for the next
+	 * simulation step.
+	 */
+	public InputQueue getInputQueue()
+	{
+		return simulation.getInputQueue();
+	}
+	
+	
+	/**
+	 * @return How far between the last two simulation steps the current frame
+	 * is being rendered, from 0 to 1.
+	 */
+	public double getRenderAlpha()
+	{
+		return renderAlpha;
+	}
+	
+	
+	/**
+	 * Works out which part of the screen the next frame changes, by comparing
+	 * the position of the camera and the image and area of each entity in
+	 * view with the last frame. Any scrolling changes the whole screen.
+	 * @return Whether anything needs to be redrawn.
+	 */
+	boolean updateDirtyRegion()
+	{
+		TileMap tileMap = simulation.getTileMap();
+		Camera camera = simulation.getCamera();
+		List<Entity> entities = simulation.getEntities();
+		
+		dirtyRegion.clear();
+		
+		// The timing overlay changes every frame and may cover anything
+		if (isFullRedrawRequested || isTimingOverlayShown)
+		{
+			isFullRedrawRequested = false;
+			dirtyRegion.addAll();
+		}
+		
+		// The world is drawn with the camera's view at the screen origin
+		int mapX = -camera.getDrawX(renderAlpha);
+		int mapY = -camera.getDrawY(renderAlpha);
+		
+		if (mapX != drawnMapX || mapY != drawnMapY)
+		{
+			dirtyRegion.addAll();
+			drawnMapX = mapX;
+			drawnMapY = mapY;
+		}
+		
+		DirtyRegion changedTiles = tileMap.getChangedTiles();
+		
+		if (!changedTiles.isEmpty())
+		{
+			dirtyRegion.add(
+					changedTiles.getMinX() + mapX,
+					changedTiles.getMinY() + mapY,
+					changedTiles.getMaxX() + mapX,
+					changedTiles.getMaxY() + mapY);
+			changedTiles.clear();
+		}
+		
+		if (drawnFrames.length < entities.size())
+		{
+			drawnFrames = Arrays.copyOf(drawnFrames, entities.size());
+			drawnAreas = Arrays.copyOf(drawnAreas, entities.size() * 4);
+		}
+		
+		for (int i = 0; i < entities.size(); i++)
+		{
+			updateDirtyEntity(i, entities.get(i), camera, mapX, mapY);
+		}
+		
+		// Entities that are gone leave behind the area they were drawn in
+		for (int i = entities.size(); i < trackedCount; i++)
+		{
+			dirtyRegion.add(
+					drawnAreas[i * 4],
+					drawnAreas[i * 4 + 1],
+					drawnAreas[i * 4 + 2],
+					drawnAreas[i * 4 + 3]);
+			drawnFrames[i] = null;
+		}
+		
+		trackedCount = entities.size();
+		updateDirtyActors(camera, mapX, mapY);
+		
+		// Particles are tracked together too, where they were and where they
+		// are now
+		addDirtyArea(drawnParticles);
+		drawnParticles.clear();
+		simulation.getParticles().addDrawnArea(
+				drawnParticles,
+				mapX,
+				mapY,
+				camera.getWidth(),
+				camera.getHeight(),
+				renderAlpha);
+		addDirtyArea(drawnParticles);
+		
+		return !dirtyRegion.isEmpty();
+	}
+	
+	
+	/**
+	 * Fills a rectangle with the part of the screen the next frame changes,
+	 * as worked out by updateDirtyRegion.
+	 * @param bounds Rectangle to fill.
+	 * @return The given Rectangle, holding the changed area in screen pixel
+	 * coordinates. Empty if nothing changed.
+	 */
+	Rectangle getDirtyBounds(Rectangle bounds)
+	{
+		int displayScaler = frameBuffer == null ? 1 : scaler;
+		
+		if (dirtyRegion.isFull())
+		{
+			bounds.setBounds(0, 0, getWidth(), getHeight());
+		}
+		else if (dirtyRegion.isEmpty())
+		{
+			bounds.setBounds(0, 0, 0, 0);
+		}
+		else
+		{
+			bounds.setBounds(
+					dirtyRegion.getMinX() * displayScaler,
+					dirtyRegion.getMinY() * displayScaler,
+					(dirtyRegion.getMaxX() - dirtyRegion.getMinX()) * displayScaler,
+					(dirtyRegion.getMaxY() - dirtyRegion.getMinY()) * displayScaler);
+		}
+		
+		return bounds;
+	}
+	
+	
+	/**
+	 * Adds an entity to the dirty region if its image or the area it covers
+	 * changed since the last frame, adding both where it was and where it
+	 * is. The area includes the outline of its collision bounds. An entity
+	 * out of view covers no area.
+	 * @param index Position of the entity in the list of entities.
+	 * @param entity Entity to compare with the last frame.
+	 * @param camera Camera whose view is being drawn.
+	 * @param mapX Horizontal pixel position of the world origin on the view.
+	 * @param mapY Vertical pixel position of the world origin on the view.
+	 */
+	private void updateDirtyEntity(
+			int index,
+			Entity entity,
+			Camera camera,
+			int mapX,
+			int mapY)
+	{
+		AtlasFrame image = entity.getImage();
+		int minX = entity.getMinX();
+		int minY = entity.getMinY();
+		// The outline covers the pixels at the max coordinates too
+		int maxX = entity.getMaxX() + 1;
+		int maxY = entity.getMaxY() + 1;
+		
+		if (image != null)
+		{
+			int imageX = entity.getInterpolatedX(renderAlpha) + entity.getXImageOffset();
+			int imageY = entity.getInterpolatedY(renderAlpha) + entity.getYImageOffset();
 			
-			frameMoment = System.currentTimeMillis();
+			minX = Math.min(minX, imageX);
+			minY = Math.min(minY, imageY);
+			maxX = Math.max(maxX, imageX + image.getWidth());
+			maxY = Math.max(maxY, imageY + image.getHeight());
+		}
+		
+		if (camera.isVisible(minX, minY, maxX, maxY))
+		{
+			minX += mapX;
+			minY += mapY;
+			maxX += mapX;
+			maxY += mapY;
+		}
+		else
+		{
+			image = null;
+			minX = 0;
+			minY = 0;
+			maxX = 0;
+			maxY = 0;
+		}
+		
+		int area = index * 4;
+		
+		if (index < trackedCount &&
+				drawnFrames[index] == image &&
+				drawnAreas[area] == minX &&
+				drawnAreas[area + 1] == minY &&
+				drawnAreas[area + 2] == maxX &&
+				drawnAreas[area + 3] == maxY)
+		{
+			return;
 		}
+		
+		if (index < trackedCount)
+		{
+			dirtyRegion.add(
+					drawnAreas[area],
+					drawnAreas[area + 1],
+					drawnAreas[area + 2],
+					drawnAreas[area + 3]);
+		}
+		
+		dirtyRegion.add(minX, minY, maxX, maxY);
+		drawnFrames[index] = image;
+		drawnAreas[area] = minX;
+		drawnAreas[area + 1] = minY;
+		drawnAreas[area + 2] = maxX;
+		drawnAreas[area + 3] = maxY;
+	}
+	
+	
+	/**
+	 * Adds the area covering every actor of the entity store in view to the
+	 * dirty region, both where they were drawn in the last frame and where
+	 * they are now. Actors are not compared one by one, as there may be
+	 * thousands of them.
+	 * @param camera Camera whose view is being drawn.
+	 * @param mapX Horizontal pixel position of the world origin on the view.
+	 * @param mapY Vertical pixel position of the world origin on the view.
+	 */
+	private void updateDirtyActors(Camera camera, int mapX, int mapY)
+	{
+		EntityStore store = simulation.getEntityStore();
+		AtlasFrame[] images = store.getImages();
+		int[] xs = store.getXs();
+		int[] ys = store.getYs();
+		int[] previousXs = store.getPreviousXs();
+		int[] previousYs = store.getPreviousYs();
+		int[] imageOffsetXs = store.getImageOffsetXs();
+		int[] imageOffsetYs = store.getImageOffsetYs();
+		
+		addDirtyArea(drawnActors);
+		drawnActors.clear();
+		
+		for (int i = 0; i < store.getSize(); i++)
+		{
+			AtlasFrame image = images[i];
+			
+			if (image != null)
+			{
+				int imageX = interpolate(previousXs[i], xs[i]) + imageOffsetXs[i];
+				int imageY = interpolate(previousYs[i], ys[i]) + imageOffsetYs[i];
+				int imageMaxX = imageX + image.getWidth();
+				int imageMaxY = imageY + image.getHeight();
+				
+				if (camera.isVisible(imageX, imageY, imageMaxX, imageMaxY))
+				{
+					drawnActors.add(
+							imageX + mapX,
+							imageY + mapY,
+							imageMaxX + mapX,
+							imageMaxY + mapY);
+				}
+			}
+		}
+		
+		addDirtyArea(drawnActors);
+	}
+	
+	
+	/**
+	 * Grows the dirty region to hold another region.
+	 * @param area Region to add, in view pixel coordinates.
+	 */
+	private void addDirtyArea(DirtyRegion area)
+	{
+		if (!area.isEmpty())
+		{
+			dirtyRegion.add(
+					area.getMinX(),
+					area.getMinY(),
+					area.getMaxX(),
+					area.getMaxY());
+		}
+	}
+	
+	
+	/**
+	 * @param previous Coordinate at the start of the simulation step.
+	 * @param current Coordinate at the end of the simulation step.
+	 * @return Coordinate to draw at for the current render alpha.
+	 */
+	private int interpolate(int previous, int current)
+	{
+		return previous + (int) Math.round((current - previous) * renderAlpha);
 	}
 	
 	
@@ -190,50 +850,573 @@ public class GameScreen extends JPanel implements Runnable
 	
 	
 	/**
-	 * Updates the game state before each frame is rendered.
+	 * Decodes every tile image and the images of Samus' initial state in
+	 * parallel, then packs them into one atlas. The images of her other
+	 * states are loaded as she enters them.
+	 * @param scaler Multiplier to scale each image by.
+	 * @param executor Executor to load the images on.
+	 * @return Future completed with the SpriteAtlas holding the images.
+	 */
+	public static CompletableFuture<SpriteAtlas> loadAssets(
+			int scaler,
+			Executor executor)
+	{
+		return SpriteAtlas.load(
+				getAssetPathNames(),
+				scaler,
+				SpriteAtlas.DEFAULT_SHEET_SIZE,
+				executor);
+	}
+	
+	
+	/**
+	 * Packs every tile image and the images of Samus' initial state into one
+	 * atlas.
+	 * @param scaler Multiplier to scale each image by.
+	 * @return SpriteAtlas holding the images.
+	 */
+	private static SpriteAtlas createAtlas(int scaler)
+	{
+		return new SpriteAtlas(
+				getAssetPathNames(),
+				scaler,
+				SpriteAtlas.DEFAULT_SHEET_SIZE);
+	}
+	
+	
+	/**
+	 * @return Path names of the images the first scene needs: every tile
+	 * image and the images of Samus' initial state.
+	 */
+	private static List<String> getAssetPathNames()
+	{
+		List<String> pathNames = SpriteAtlas.collect(
+				SamusState.getInitialState().getPathNames());
+		pathNames.addAll(Arrays.asList(TileImageLoader.getPathNames()));
+		
+		return pathNames;
+	}
+	
+	
+	/**
+	 * Sets up how each frame gets onto the screen. Active rendering places a
+	 * Canvas over this screen to draw into, which also takes keyboard focus.
+	 * @param renderMode How each frame gets onto the screen.
+	 * @param controlAdapter Key listener for the canvas.
+	 */
+	private void setRenderMode(RenderMode renderMode, KeyAdapter controlAdapter)
+	{
+		this.renderMode = renderMode;
+		
+		if (renderMode == RenderMode.ACTIVE)
+		{
+			canvas = new FrameCanvas();
+			canvas.setBackground(Color.BLACK);
+			canvas.setFocusable(true);
+			canvas.addKeyListener(controlAdapter);
+			
+			setIgnoreRepaint(true);
+			setLayout(new BorderLayout());
+			add(canvas, BorderLayout.CENTER);
+		}
+	}
+	
+	
+	/**
+	 * Gets the current frame onto the screen, either by drawing and showing
+	 * the parts of it that changed straight away or by asking Swing to
+	 * repaint the whole screen. Nothing is drawn if nothing changed.
+	 */
+	private void present()
+	{
+		if (!updateDirtyRegion())
+		{
+			return;
+		}
+		
+		getDirtyBounds(dirtyBounds);
+		
+		if (renderMode == RenderMode.ACTIVE && prepareBufferStrategy())
+		{
+			presentActive();
+		}
+		else
+		{
+			// Swing paints later, from whatever state the world is in by
+			// then, which may lie outside the area worked out here
+			repaint();
+		}
+	}
+	
+	
+	/**
+	 * Creates the canvas' page flipping buffers the first time they are
+	 * needed. Falls back to passive rendering if they cannot be created.
+	 * @return Whether the buffers are ready to be drawn to.
+	 */
+	private boolean prepareBufferStrategy()
+	{
+		if (bufferStrategy != null)
+		{
+			return true;
+		}
+		
+		if (!canvas.isDisplayable())
+		{
+			return false;
+		}
+		
+		try
+		{
+			canvas.createBufferStrategy(2);
+			bufferStrategy = canvas.getBufferStrategy();
+			
+			// Blitted buffers and copied flips leave the last frame in the
+			// back buffer, other flips leave an older or undefined one
+			BufferCapabilities capabilities = bufferStrategy.getCapabilities();
+			isBackBufferKept = !capabilities.isPageFlipping() ||
+					capabilities.getFlipContents() ==
+					BufferCapabilities.FlipContents.COPIED;
+			EventQueue.invokeLater(() -> canvas.requestFocusInWindow());
+			return true;
+		}
+		catch (IllegalStateException exception)
+		{
+			System.err.println(
+					"Active rendering unavailable, using passive rendering. " +
+					exception.getMessage());
+			
+			// Set before posting so the event dispatch thread paints passively
+			// from the moment the canvas is gone
+			renderMode = RenderMode.PASSIVE;
+			
+			EventQueue.invokeLater(() ->
+			{
+				remove(canvas);
+				setIgnoreRepaint(false);
+				requestFocusInWindow();
+				revalidate();
+			});
+			
+			return false;
+		}
+	}
+	
+	
+	/**
+	 * Draws the current frame into the back buffer and shows it, redrawing
+	 * if the buffer's contents were lost along the way. Only the dirty bounds
+	 * are redrawn if the back buffer still holds the last frame.
+	 */
+	private void presentActive()
+	{
+		boolean isPartial = isBackBufferKept && !dirtyRegion.isFull();
+		
+		do
+		{
+			boolean isRestored;
+			
+			do
+			{
+				Graphics graphics = bufferStrategy.getDrawGraphics();
+				
+				try
+				{
+					if (isPartial)
+					{
+						graphics.clipRect(
+								dirtyBounds.x,
+								dirtyBounds.y,
+								dirtyBounds.width,
+								dirtyBounds.height);
+					}
+					
+					graphics.setColor(Color.BLACK);
+					graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+					render(graphics);
+				}
+				finally
+				{
+					graphics.dispose();
+				}
+				
+				isRestored = bufferStrategy.contentsRestored();
+				isPartial &= !isRestored;
+			}
+			while (isRestored);
+			
+			long time = System.nanoTime();
+			bufferStrategy.show();
+			presentTime += System.nanoTime() - time;
+			
+			// A lost buffer holds nothing of the last frame
+			isPartial = false;
+		}
+		while (bufferStrategy.contentsLost());
+		
+		// Flush the frame to the display now rather than when the system
+		// gets around to it
+		long time = System.nanoTime();
+		Toolkit.getDefaultToolkit().sync();
+		
+		// Moving the start back counts the scaling and showing done above
+		frameTimings.record(FramePhase.PRESENT, time - presentTime);
+		presentTime = 0;
+	}
+	
+	
+	/**
+	 * Draws the current frame, either straight onto the screen or into the
+	 * native resolution frame buffer, which is then scaled up onto the
+	 * screen in a single nearest neighbour draw. Only the clip of the
+	 * graphics is written to the screen. The frame timing overlay is drawn
+	 * over the top if it is shown.
+	 * @param graphics Incoming graphics object.
+	 */
+	void render(Graphics graphics)
+	{
+		if (frameBuffer == null)
+		{
+			renderWorld(graphics);
+		}
+		else
+		{
+			renderFrameBuffer(graphics);
+		}
+		
+		if (isTimingOverlayShown)
+		{
+			drawTimingOverlay(graphics);
+		}
+	}
+	
+	
+	/**
+	 * Draws the world into the native resolution frame buffer and scales it
+	 * up onto the screen.
+	 * @param graphics Incoming graphics object.
+	 */
+	private void renderFrameBuffer(Graphics graphics)
+	{
+		int width = frameBuffer.getWidth();
+		int height = frameBuffer.getHeight();
+		
+		frameGraphics.setColor(Color.BLACK);
+		frameGraphics.fillRect(0, 0, width, height);
+		renderWorld(frameGraphics);
+		
+		if (graphics instanceof Graphics2D)
+		{
+			((Graphics2D) graphics).setRenderingHint(
+					RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+		}
+		
+		long time = System.nanoTime();
+		graphics.drawImage(frameBuffer, 0, 0, width * scaler, height * scaler, this);
+		presentTime += System.nanoTime() - time;
+	}
+	
+	
+	/**
+	 * Draws the 50th, 95th and 99th percentile and longest time of each
+	 * phase of the game loop in the top left corner of the screen, followed
+	 * by how many things were drawn in the last frame. The text
+	 * is only updated every TIMING_OVERLAY_REFRESH_FRAMES frames, both to
+	 * keep it readable and to keep the garbage it makes down.
+	 * @param graphics Incoming graphics object.
+	 */
+	private void drawTimingOverlay(Graphics graphics)
+	{
+		if (timingOverlayFrames-- <= 0)
+		{
+			FramePhase[] phases = FramePhase.values();
+			timingOverlayLines = new String[phases.length + 1];
+			
+			for (int i = 0; i < phases.length; i++)
+			{
+				timingOverlayLines[i] = frameTimings.getSummary(phases[i]);
+			}
+			
+			timingOverlayLines[phases.length] = String.format(
+					Locale.ROOT,
+					"%-11s %d tiles %d entities %d actors %d particles",
+					"Drawn",
+					drawnTileCount,
+					drawnEntityCount,
+					drawnActorCount,
+					drawnParticleCount);
+			
+			timingOverlayFrames = TIMING_OVERLAY_REFRESH_FRAMES;
+		}
+		
+		graphics.setFont(TIMING_OVERLAY_FONT);
+		FontMetrics metrics = graphics.getFontMetrics();
+		int lineHeight = metrics.getHeight();
+		int width = 0;
+		
+		for (String line : timingOverlayLines)
+		{
+			width = Math.max(width, metrics.stringWidth(line));
+		}
+		
+		graphics.setColor(TIMING_OVERLAY_BACKGROUND);
+		graphics.fillRect(0, 0, width + 8, timingOverlayLines.length * lineHeight + 8);
+		graphics.setColor(Color.WHITE);
+		
+		for (int i = 0; i < timingOverlayLines.length; i++)
+		{
+			graphics.drawString(
+					timingOverlayLines[i],
+					4,
+					4 + i * lineHeight + metrics.getAscent());
+		}
+	}
+	
+	
+	/**
+	 * Writes the time spent in each phase of the game loop to a file,
+	 * printing an error if it could not be written.
+	 * @param file File to write, as JSON if its name ends in ".json" and CSV
+	 * otherwise.
 	 */
-	private void doFrame()
+	private void writeFrameTimings(File file)
 	{
-		for (Entity entity : entities)
+		try
+		{
+			frameTimings.write(file);
+		}
+		catch (IOException exception)
 		{
-			entity.move();
+			System.err.println(
+					"GameScreen: Frame timings could not be written to " +
+					file + ". " + exception.getMessage());
+		}
+	}
+	
+	
+	/**
+	 * Draws the camera's view of the world: the TileMap, every entity, with
+	 * the collision bounds of each entity outlined, and every projectile and
+	 * particle. Anything out of view is skipped rather than handed to the
+	 * graphics, and the number of things drawn is kept for getDrawnTileCount
+	 * and the like.
+	 * @param graphics Incoming graphics object.
+	 */
+	private void renderWorld(Graphics graphics)
+	{
+		Camera camera = simulation.getCamera();
+		List<Entity> entities = simulation.getEntities();
+		int mapX = -camera.getDrawX(renderAlpha);
+		int mapY = -camera.getDrawY(renderAlpha);
+		long time = System.nanoTime();
+		
+		TileMap tileMap = simulation.getTileMap();
+		tileMap.draw(graphics, this, camera, renderAlpha);
+		drawnTileCount = tileMap.getDrawnImageCount();
+		
+		time = frameTimings.record(FramePhase.TILE_DRAW, time);
+		graphics.setColor(Color.BLUE);
+		drawnEntityCount = 0;
+		
+		for (int i = 0; i < entities.size(); i++)
+		{
+			if (drawEntity(entities.get(i), graphics, camera, mapX, mapY))
+			{
+				drawnEntityCount++;
+			}
+		}
+		
+		drawnActorCount = drawActors(graphics, camera, mapX, mapY);
+		drawnParticleCount = simulation.getParticles().draw(
+				graphics,
+				mapX,
+				mapY,
+				camera.getWidth(),
+				camera.getHeight(),
+				renderAlpha);
+		
+		frameTimings.record(FramePhase.ENTITY_DRAW, time);
+	}
+	
+	
+	/**
+	 * Draws the image of every actor of the entity store in view at its
+	 * pixel coordinates between its last two simulation steps.
+	 * @param graphics Incoming graphics object.
+	 * @param camera Camera whose view is being drawn.
+	 * @param mapX Horizontal pixel position of the world origin on the view.
+	 * @param mapY Vertical pixel position of the world origin on the view.
+	 * @return Number of actors drawn.
+	 */
+	private int drawActors(Graphics graphics, Camera camera, int mapX, int mapY)
+	{
+		EntityStore store = simulation.getEntityStore();
+		AtlasFrame[] images = store.getImages();
+		int[] xs = store.getXs();
+		int[] ys = store.getYs();
+		int[] previousXs = store.getPreviousXs();
+		int[] previousYs = store.getPreviousYs();
+		int[] imageOffsetXs = store.getImageOffsetXs();
+		int[] imageOffsetYs = store.getImageOffsetYs();
+		int drawnCount = 0;
+		
+		for (int i = 0; i < store.getSize(); i++)
+		{
+			AtlasFrame image = images[i];
+			
+			if (image == null)
+			{
+				continue;
+			}
+			
+			int imageX = interpolate(previousXs[i], xs[i]) + imageOffsetXs[i];
+			int imageY = interpolate(previousYs[i], ys[i]) + imageOffsetYs[i];
+			
+			if (camera.isVisible(
+					imageX,
+					imageY,
+					imageX + image.getWidth(),
+					imageY + image.getHeight()))
+			{
+				image.draw(graphics, imageX + mapX, imageY + mapY, this);
+				drawnCount++;
+			}
+		}
+		
+		return drawnCount;
+	}
+	
+	
+	/**
+	 * Advances the game state by one simulation step.
+	 */
+	void doFrame()
+	{
+		long time = System.nanoTime();
+		simulation.readInput();
+		time = frameTimings.record(FramePhase.INPUT, time);
+		simulation.update();
+		frameTimings.record(FramePhase.UPDATE, time);
+		
+		if (isReportingInputLatency &&
+				simulation.getTickCount() % INPUT_LATENCY_REPORT_STEPS == 0)
+		{
+			InputQueue inputQueue = simulation.getInputQueue();
+			
+			System.out.println(inputQueue.getLatencyReport());
+			inputQueue.resetLatency();
 		}
 	}
 	
 	
 	/**
 	 * Draws the current image representing an entity at its current pixel 
-	 * coordinates. Offsets the image based on the Entity's image offset values.
-	 * @param enitity Entity to be drawn.
-	 * @param g Incoming graphics object.
+	 * coordinates, between its last two simulation steps, and outlines its
+	 * collision bounds. Offsets the image based on the Entity's image offset
+	 * values. Nothing is drawn if the entity is out of view.
+	 * @param entity Entity to be drawn.
+	 * @param graphics Incoming graphics object.
+	 * @param camera Camera whose view is being drawn.
+	 * @param mapX Horizontal pixel position of the world origin on the view.
+	 * @param mapY Vertical pixel position of the world origin on the view.
+	 * @return Whether the entity was drawn.
 	 */
-	private void drawEntity(Entity entity, Graphics graphics)
+	private boolean drawEntity(
+			Entity entity,
+			Graphics graphics,
+			Camera camera,
+			int mapX,
+			int mapY)
 	{
-		graphics.drawImage(
-				entity.getImage(),
-				entity.getX() + entity.getXImageOffset(),
-				entity.getY() + entity.getYImageOffset(),
-				this);
+		AtlasFrame image = entity.getImage();
+		int imageX = entity.getInterpolatedX(renderAlpha) + entity.getXImageOffset();
+		int imageY = entity.getInterpolatedY(renderAlpha) + entity.getYImageOffset();
+		int minX = entity.getMinX();
+		int minY = entity.getMinY();
+		int width = entity.getMaxX() - minX;
+		int height = entity.getMaxY() - minY;
+		boolean isVisible = camera.isVisible(
+				minX,
+				minY,
+				minX + width + 1,
+				minY + height + 1);
+		
+		if (image != null)
+		{
+			isVisible |= camera.isVisible(
+					imageX,
+					imageY,
+					imageX + image.getWidth(),
+					imageY + image.getHeight());
+		}
+		
+		if (!isVisible)
+		{
+			return false;
+		}
+		
+		if (image != null)
+		{
+			image.draw(graphics, imageX + mapX, imageY + mapY, this);
+		}
+		
+		graphics.drawRect(minX + mapX, minY + mapY, width, height);
+		return true;
+	}
+	
+	
+	/**
+	 * Canvas for active rendering. The game thread draws every frame, so
+	 * paint requests from the system only ask for the next frame to be
+	 * redrawn whole.
+	 */
+	private class FrameCanvas extends Canvas
+	{
+		/**
+		 * Generated serial version ID.
+		 */
+		private static final long serialVersionUID = -2916432011583049372L;
+		
+		
+		@Override
+		public void paint(Graphics graphics)
+		{
+			isFullRedrawRequested = true;
+		}
+		
+		
+		@Override
+		public void update(Graphics graphics)
+		{
+			isFullRedrawRequested = true;
+		}
 	}
 	
 	
 	/**
-	 * Handles piping key inputs into the player controllable object to be 
-	 * processed.
+	 * Handles piping key inputs into the input queue to be processed by the
+	 * next simulation step.
 	 */
 	private class ControlAdapter extends KeyAdapter
 	{
 		@Override
 		public void keyPressed(KeyEvent event)
 		{
-			samus.keyPressed(event);
+			if (event.getKeyCode() == TIMING_OVERLAY_KEY)
+			{
+				setTimingOverlayShown(!isTimingOverlayShown);
+				return;
+			}
+			
+			simulation.getInputQueue().record(event);
 		}
 		
 		
 		@Override
 		public void keyReleased(KeyEvent event)
 		{
-			samus.keyReleased(event);
+			simulation.getInputQueue().record(event);
 		}
 	}
 }
@@ -0,0 +1,79 @@
+package screens;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+/**
+ * Steps and draws a GameScreen by hand, without its game thread or Swing,
+ * for the benchmarks and checks that measure the frame loop. The game
+ * itself never uses it.
+ */
+public class GameScreenDriver
+{
+	/**
+	 * Screen being driven.
+	 */
+	private final GameScreen screen;
+	
+	
+	/**
+	 * Creates a new instance of GameScreenDriver.
+	 * @param screen GameScreen to step and draw. Should not be running its
+	 * own game thread.
+	 */
+	public GameScreenDriver(GameScreen screen)
+	{
+		this.screen = screen;
+	}
+	
+	
+	/**
+	 * Advances the game state by one simulation step.
+	 */
+	public void doFrame()
+	{
+		screen.doFrame();
+	}
+	
+	
+	/**
+	 * Works out which part of the screen the next frame changes.
+	 * @return Whether anything needs to be redrawn.
+	 */
+	public boolean updateDirtyRegion()
+	{
+		return screen.updateDirtyRegion();
+	}
+	
+	
+	/**
+	 * Fills a rectangle with the part of the screen the next frame changes,
+	 * as worked out by updateDirtyRegion.
+	 * @param bounds Rectangle to fill.
+	 * @return The given Rectangle, holding the changed area in screen pixel
+	 * coordinates. Empty if nothing changed.
+	 */
+	public Rectangle getDirtyBounds(Rectangle bounds)
+	{
+		return screen.getDirtyBounds(bounds);
+	}
+	
+	
+	/**
+	 * Draws the current frame the way the screen paints it.
+	 * @param graphics Graphics to draw to. Only its clip is written.
+	 */
+	public void render(Graphics graphics)
+	{
+		screen.render(graphics);
+	}
+	
+	
+	/**
+	 * @return Screen being driven.
+	 */
+	public GameScreen getScreen()
+	{
+		return screen;
+	}
+}
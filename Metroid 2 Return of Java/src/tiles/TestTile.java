@@ -9,19 +9,22 @@ public class TestTile extends Tile
 	 * TestTile's ID.
 	 */
 	private static final int ID_NUMBER = 0;
+	/**
+	 * Character representing TestTile in tile map text files.
+	 */
+	private static final char SYMBOL = '0';
 	/**
 	 * Whether TestTile is solid.
 	 */
 	private static final boolean IS_SOLID = true;
-
+	
 	
 	/**
 	 * Creates a new TestTile.
-	 * @param x Desired horizontal coordintate.
-	 * @param y Desired vertical coordinate.
+	 * @param tileLoader Stores each image used to represent a Tile.
 	 */
-	public TestTile(int x, int y, int scaler, TileImageLoader tileLoader)
+	public TestTile(TileImageLoader tileLoader)
 	{
-		super(x, y, scaler, ID_NUMBER, IS_SOLID, tileLoader);
+		super(ID_NUMBER, SYMBOL, IS_SOLID, tileLoader);
 	}
 }
@@ -0,0 +1,66 @@
+package tools;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.BinaryMapFormat;
+import com.TileGrid;
+import com.TileImageLoader;
+import com.TileMapLoader;
+import com.TileSet;
+
+/**
+ * Command line tool converting tile map text files into the binary map
+ * format.
+ * <p>
+ * Usage: MapConverter &lt;text map&gt; [binary map]
+ * <p>
+ * The binary map is written next to the text map with a ".m2map" extension
+ * when no output file is given.
+ */
+public class MapConverter
+{
+	/**
+	 * Extension given to binary maps when no output file is named.
+	 */
+	private static final String BINARY_EXTENSION = ".m2map";
+	
+	
+	public static void main(String[] args)
+	{
+		if (args.length < 1 || args.length > 2)
+		{
+			System.err.println("Usage: MapConverter <text map> [binary map]");
+			System.exit(2);
+		}
+		
+		File input = new File(args[0]);
+		File output = new File(
+				args.length == 2 ? args[1] : args[0] + BINARY_EXTENSION);
+		
+		// Only the tile symbols are needed, so no images are loaded
+		TileSet tileSet = new TileSet((TileImageLoader) null);
+		
+		try
+		{
+			TileGrid grid = TileMapLoader.loadText(input, tileSet);
+			BinaryMapFormat.write(grid, tileSet, output);
+			
+			System.out.printf(
+					"%s (%d bytes) -> %s (%d bytes), %dx%d tiles%n",
+					input.getPath(),
+					input.length(),
+					output.getPath(),
+					output.length(),
+					grid.getRows(),
+					grid.getColumns());
+		}
+		catch (IOException exception)
+		{
+			System.err.println(
+					"Could not convert " + input.getPath() + ". " +
+					exception.getMessage());
+			System.exit(1);
+		}
+	}
+}
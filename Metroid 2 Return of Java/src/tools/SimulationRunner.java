@@ -0,0 +1,91 @@
+package tools;
+
+import java.io.File;
+
+import com.Simulation;
+import com.SpriteAtlas;
+
+import enums.Button;
+import screens.GameScreen;
+
+/**
+ * Command line tool stepping the game's Simulation as fast as possible with
+ * no window, while Samus walks back and forth, then reporting how many
+ * simulation steps ran each second. Useful for soak tests and for measuring
+ * the simulation on machines without a display. Run from the project
+ * directory so the maps and images resolve.
+ * <p>
+ * Usage: SimulationRunner [ticks] [map]
+ */
+public class SimulationRunner
+{
+	/**
+	 * Simulation steps run when no number is given.
+	 */
+	private static final long DEFAULT_TICKS = 1_000_000L;
+	/**
+	 * Simulation steps Samus walks each way before turning around.
+	 */
+	private static final int PACE_TICKS = 60;
+	/**
+	 * Simulation steps the game runs each second in real time.
+	 */
+	private static final int TICKS_PER_SECOND = 60;
+	
+	
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		if (args.length > 2)
+		{
+			System.err.println("Usage: SimulationRunner [ticks] [map]");
+			System.exit(2);
+		}
+		
+		long ticks = DEFAULT_TICKS;
+		
+		try
+		{
+			if (args.length >= 1)
+			{
+				ticks = Long.parseLong(args[0]);
+			}
+		}
+		catch (NumberFormatException exception)
+		{
+			System.err.println("SimulationRunner: " + args[0] + " is not a number of ticks.");
+			System.exit(2);
+		}
+		
+		File mapFile = new File(args.length == 2 ? args[1] : GameScreen.DEFAULT_MAP);
+		
+		// Coordinates are simulated at native resolution, as the game plays
+		SpriteAtlas atlas = GameScreen.loadAssets(1, Runnable::run).join();
+		Simulation simulation = new Simulation(mapFile, atlas, 1);
+		
+		long start = System.nanoTime();
+		
+		for (long tick = 0; tick < ticks; tick++)
+		{
+			if (tick % PACE_TICKS == 0)
+			{
+				boolean isLeft = tick / PACE_TICKS % 2 == 0;
+				simulation.getInputQueue().record(isLeft ? Button.RIGHT : Button.LEFT, false);
+				simulation.getInputQueue().record(isLeft ? Button.LEFT : Button.RIGHT, true);
+			}
+			
+			simulation.step();
+		}
+		
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double ticksPerSecond = ticks / seconds;
+		
+		System.out.printf(
+				"%d ticks in %.3f s: %.0f ticks per second, %.0fx real time%n",
+				simulation.getTickCount(),
+				seconds,
+				ticksPerSecond,
+				ticksPerSecond / TICKS_PER_SECOND);
+	}
+}